@@ -0,0 +1,184 @@
+package cn.labzen.cells.algorithm.crypto
+
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.RecursiveTask
+
+/**
+ * [BLAKE3](https://github.com/BLAKE3-team/BLAKE3-specs) 的树形计算：数据按 1KB 分块（chunk），各块独立压缩得到链值（chaining value），
+ * 再两两压缩为父节点直到根节点。左子树总是包含不超过剩余块数的最大2的幂个块，因此任意子树都可以独立计算，子树在 ForkJoinPool 中并行
+ *
+ * 只读取数据（按绝对位置读取 ByteBuffer），不修改其 position，多个线程可以读取同一份数据，结果与顺序计算的 Blake3Digest 一致
+ *
+ * @param windows 按顺序拼接的数据，除最后一个外容量须相同且为 1KB 的整数倍（如 [HashStreams.map] 映射的文件区域）
+ */
+internal class Blake3Tree private constructor(windows: List<ByteBuffer>) {
+
+  private val windows = windows.map { it.duplicate().order(ByteOrder.LITTLE_ENDIAN) }
+  private val windowSize = maxOf(1L, this.windows[0].capacity().toLong())
+  private val length = this.windows.map { it.capacity().toLong() }.sum()
+  private val chunks = maxOf(1L, (length + CHUNK_LEN - 1) / CHUNK_LEN)
+
+  /**
+   * 在当前线程中顺序计算子树，持有压缩所需的临时数组
+   */
+  private inner class Compressor {
+
+    private val block = IntArray(16)
+    private val state = IntArray(16)
+    private val tail = ByteBuffer.allocate(BLOCK_LEN).order(ByteOrder.LITTLE_ENDIAN)
+
+    /**
+     * 计算第 [index] 块的链值，按 64 字节分组压缩，最后一组不足 64 字节时以0补齐
+     */
+    fun chunk(index: Long, root: Boolean): IntArray {
+      val offset = index * CHUNK_LEN
+      val window = windows[(offset / windowSize).toInt()]
+      val position = (offset % windowSize).toInt()
+      val size = minOf(CHUNK_LEN.toLong(), length - offset).toInt()
+      val blocks = maxOf(1, (size + BLOCK_LEN - 1) / BLOCK_LEN)
+
+      val cv = IV.copyOf()
+      for (b in 0 until blocks) {
+        val start = position + b * BLOCK_LEN
+        val blockLength = minOf(BLOCK_LEN, size - b * BLOCK_LEN)
+        if (blockLength == BLOCK_LEN) {
+          for (j in 0 until 16) block[j] = window.getInt(start + (j shl 2))
+        } else {
+          for (j in 0 until blockLength) tail.put(j, window.get(start + j))
+          for (j in blockLength until BLOCK_LEN) tail.put(j, 0)
+          for (j in 0 until 16) block[j] = tail.getInt(j shl 2)
+        }
+
+        var flags = if (b == 0) CHUNK_START else 0
+        if (b == blocks - 1) flags = flags or CHUNK_END or (if (root) ROOT else 0)
+        compress(cv, block, index, blockLength, flags, state)
+      }
+      return cv
+    }
+
+    /**
+     * 计算从第 [start] 块开始共 [count] 块的子树的链值
+     */
+    fun subtree(start: Long, count: Long, root: Boolean): IntArray {
+      if (count == 1L) return chunk(start, root)
+
+      val left = java.lang.Long.highestOneBit(count - 1)
+      return parent(subtree(start, left, false), subtree(start + left, count - left, false), root, block, state)
+    }
+  }
+
+  /**
+   * 子树不多于 [LEAF_CHUNKS] 块时在当前线程计算，否则左子树交给其它线程，两个子树的链值合并为父节点
+   */
+  private inner class SubtreeTask(
+    private val start: Long,
+    private val count: Long,
+    private val root: Boolean
+  ) : RecursiveTask<IntArray>() {
+
+    override fun compute(): IntArray {
+      if (count <= LEAF_CHUNKS) return Compressor().subtree(start, count, root)
+
+      val left = java.lang.Long.highestOneBit(count - 1)
+      val first = SubtreeTask(start, left, false).fork()
+      val second = SubtreeTask(start + left, count - left, false).compute()
+      return parent(first.join(), second, root, IntArray(16), IntArray(16))
+    }
+  }
+
+  companion object {
+
+    private const val CHUNK_LEN = 1024
+    private const val BLOCK_LEN = 64
+
+    /**
+     * 一个任务顺序计算的最大块数，64KB
+     */
+    private const val LEAF_CHUNKS = 64L
+
+    private const val CHUNK_START = 1
+    private const val CHUNK_END = 2
+    private const val PARENT = 4
+    private const val ROOT = 8
+
+    private val IV = intArrayOf(
+      0x6A09E667, -0x4498517b, 0x3C6EF372, -0x5ab00ac6, 0x510E527F, -0x64fa9774, 0x1F83D9AB, 0x5BE0CD19
+    )
+
+    /**
+     * 每一轮使用的消息字下标，由消息置换 `2, 6, 3, 10, 7, 0, 4, 13, 1, 11, 12, 5, 9, 14, 15, 8` 逐轮推导
+     */
+    private val SCHEDULE: Array<IntArray> = Array(7) { IntArray(16) }.also {
+      val permutation = intArrayOf(2, 6, 3, 10, 7, 0, 4, 13, 1, 11, 12, 5, 9, 14, 15, 8)
+      for (i in 0 until 16) it[0][i] = i
+      for (r in 1 until 7) {
+        for (i in 0 until 16) it[r][i] = it[r - 1][permutation[i]]
+      }
+    }
+
+    /**
+     * 计算数据的 BLAKE3 散列摘要（32字节）
+     *
+     * @param windows 按顺序拼接的数据，见 [Blake3Tree]
+     * @param pool 数据多于 [LEAF_CHUNKS] 块时执行计算的线程池
+     */
+    fun hash(windows: List<ByteBuffer>, pool: ForkJoinPool): ByteArray {
+      val tree = Blake3Tree(windows.ifEmpty { listOf(ByteBuffer.allocate(0)) })
+      val cv = if (tree.chunks <= LEAF_CHUNKS) {
+        tree.Compressor().subtree(0, tree.chunks, true)
+      } else {
+        pool.invoke(tree.SubtreeTask(0, tree.chunks, true))
+      }
+
+      val output = ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN)
+      cv.forEach { output.putInt(it) }
+      return output.array()
+    }
+
+    private fun parent(left: IntArray, right: IntArray, root: Boolean, block: IntArray, state: IntArray): IntArray {
+      System.arraycopy(left, 0, block, 0, 8)
+      System.arraycopy(right, 0, block, 8, 8)
+      val cv = IV.copyOf()
+      compress(cv, block, 0, BLOCK_LEN, PARENT or (if (root) ROOT else 0), state)
+      return cv
+    }
+
+    /**
+     * 压缩函数，结果的前8个字（即链值）写回 cv
+     */
+    private fun compress(cv: IntArray, block: IntArray, counter: Long, blockLength: Int, flags: Int, state: IntArray) {
+      System.arraycopy(cv, 0, state, 0, 8)
+      System.arraycopy(IV, 0, state, 8, 4)
+      state[12] = counter.toInt()
+      state[13] = (counter ushr 32).toInt()
+      state[14] = blockLength
+      state[15] = flags
+
+      for (schedule in SCHEDULE) {
+        g(state, 0, 4, 8, 12, block[schedule[0]], block[schedule[1]])
+        g(state, 1, 5, 9, 13, block[schedule[2]], block[schedule[3]])
+        g(state, 2, 6, 10, 14, block[schedule[4]], block[schedule[5]])
+        g(state, 3, 7, 11, 15, block[schedule[6]], block[schedule[7]])
+        g(state, 0, 5, 10, 15, block[schedule[8]], block[schedule[9]])
+        g(state, 1, 6, 11, 12, block[schedule[10]], block[schedule[11]])
+        g(state, 2, 7, 8, 13, block[schedule[12]], block[schedule[13]])
+        g(state, 3, 4, 9, 14, block[schedule[14]], block[schedule[15]])
+      }
+
+      for (i in 0 until 8) cv[i] = state[i] xor state[i + 8]
+    }
+
+    private fun g(state: IntArray, a: Int, b: Int, c: Int, d: Int, x: Int, y: Int) {
+      state[a] += state[b] + x
+      state[d] = Integer.rotateRight(state[d] xor state[a], 16)
+      state[c] += state[d]
+      state[b] = Integer.rotateRight(state[b] xor state[c], 12)
+      state[a] += state[b] + y
+      state[d] = Integer.rotateRight(state[d] xor state[a], 8)
+      state[c] += state[d]
+      state[b] = Integer.rotateRight(state[b] xor state[c], 7)
+    }
+  }
+}
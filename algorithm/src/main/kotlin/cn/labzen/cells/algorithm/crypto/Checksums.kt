@@ -2,55 +2,72 @@ package cn.labzen.cells.algorithm.crypto
 
 import cn.labzen.cells.algorithm.crypto.Checksums.Algorithms
 import cn.labzen.cells.core.definition.Constants
+import cn.labzen.cells.core.exception.ArgumentsException
 import cn.labzen.cells.core.exception.FileException
-import cn.labzen.cells.core.kotlin.throwRuntimeUnless
+import cn.labzen.cells.core.kotlin.throwRuntimeIf
 import cn.labzen.cells.core.utils.Bytes
 import net.jacksum.HashFunctionFactory.getHashFunction
+import net.jacksum.algorithms.AbstractChecksum
+import net.jacksum.algorithms.crcs.CrcGeneric
 import java.io.File
+import java.nio.ByteBuffer
 import java.nio.charset.Charset
-import java.nio.file.Files
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.RecursiveTask
 
 /**
  * 校验和算法 [Checksum](https://en.wikipedia.org/wiki/Checksum)
  *
  * 提供[Algorithms]中的算法，具体实现采用[jacksum](https://jacksum.net)
+ *
+ * 线程安全：jacksum 的算法实例是有状态的，每个线程按需为每种算法创建自己的实例并复用，不同线程、不同算法之间没有锁竞争
  */
 object Checksums {
 
-  private val checksumInstances = mapOf(
-    Pair(Algorithms.ADLER32, getHashFunction("adler32")),
-    Pair(Algorithms.CKSUM, getHashFunction("cksum")),
-    Pair(Algorithms.CRC8, getHashFunction("crc8")),
-    Pair(Algorithms.CRC16, getHashFunction("crc16")),
-    Pair(Algorithms.CRC32, getHashFunction("crc32")),
-    Pair(Algorithms.CRC32_MPEG2, getHashFunction("crc32_mpeg2")),
-    Pair(Algorithms.CRC64, getHashFunction("crc64")),
-    Pair(Algorithms.CRC64_ECMA, getHashFunction("crc64_ecma")),
-    Pair(Algorithms.ELF, getHashFunction("elf")),
-    Pair(Algorithms.FCS16, getHashFunction("fcs16")),
-    Pair(Algorithms.FLETCHER16, getHashFunction("fletcher16")),
-    Pair(Algorithms.FNV0_64, getHashFunction("fnv-0_64")),
-    Pair(Algorithms.FNV0_128, getHashFunction("fnv-0_128")),
-    Pair(Algorithms.FNV0_256, getHashFunction("fnv-0_256")),
-    Pair(Algorithms.FNV0_512, getHashFunction("fnv-0_512")),
-    Pair(Algorithms.FNV0_1024, getHashFunction("fnv-0_1024")),
-    Pair(Algorithms.FNV1_64, getHashFunction("fnv-1_64")),
-    Pair(Algorithms.FNV1_128, getHashFunction("fnv-1_128")),
-    Pair(Algorithms.FNV1_256, getHashFunction("fnv-1_256")),
-    Pair(Algorithms.FNV1_512, getHashFunction("fnv-1_512")),
-    Pair(Algorithms.FNV1_1024, getHashFunction("fnv-1_1024")),
-    Pair(Algorithms.FNV1A_64, getHashFunction("fnv-1a_64")),
-    Pair(Algorithms.FNV1A_128, getHashFunction("fnv-1a_128")),
-    Pair(Algorithms.FNV1A_256, getHashFunction("fnv-1a_256")),
-    Pair(Algorithms.FNV1A_512, getHashFunction("fnv-1a_512")),
-    Pair(Algorithms.FNV1A_1024, getHashFunction("fnv-1a_1024")),
-    Pair(Algorithms.JOAAT32, getHashFunction("joaat")),
-    Pair(Algorithms.SUM32, getHashFunction("sum32")),
-    Pair(Algorithms.SUM48, getHashFunction("sum48")),
-    Pair(Algorithms.SUM56, getHashFunction("sum56")),
-    Pair(Algorithms.SUMBSD, getHashFunction("sum_bsd")),
-    Pair(Algorithms.XOR8, getHashFunction("xor8"))
-  )
+  /**
+   * 当前线程的算法实例，以 [Algorithms.ordinal] 为下标，首次使用时创建
+   */
+  private val threadInstances = ThreadLocal.withInitial { arrayOfNulls<AbstractChecksum>(Algorithms.values().size) }
+
+  /**
+   * 并行计算时默认的分块大小，4MB
+   */
+  const val DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024
+
+  /**
+   * 用于合并校验值的 CRC 参数模型，以 [Algorithms.ordinal] 为下标，不支持合并的算法为null；合并只读取参数，可被多个线程共用
+   */
+  private val combiners: Array<CrcGeneric?>
+
+  init {
+    // 预先创建一次所有算法，尽早暴露无效的算法名
+    combiners = Algorithms.values().map { combinerOf(it, create(it)) }.toTypedArray()
+  }
+
+  private fun combinerOf(algorithms: Algorithms, checksum: AbstractChecksum): CrcGeneric? =
+    when (algorithms) {
+      // 基于 JDK 内建实现的 CRC32、CRC32C 以相同参数的 CrcGeneric 合并
+      Algorithms.CRC32 -> CrcGeneric(32, 0x04C11DB7L, 0xFFFFFFFFL, true, true, 0xFFFFFFFFL)
+      Algorithms.CRC32C -> CrcGeneric(32, 0x1EDC6F41L, 0xFFFFFFFFL, true, true, 0xFFFFFFFFL)
+      else -> checksum as? CrcGeneric
+    }
+
+  private fun combiner(algorithms: Algorithms): CrcGeneric =
+    combiners[algorithms.ordinal] ?: throw ArgumentsException("Hash - 算法 ${algorithms.name} 不支持合并校验值")
+
+  /**
+   * 创建算法的新实例；jacksum 的 HashFunctionFactory 使用不可变的算法名索引，可被多个线程同时调用
+   */
+  internal fun create(algorithms: Algorithms): AbstractChecksum =
+    getHashFunction(algorithms.function)
+
+  /**
+   * 获取当前线程的算法实例
+   */
+  private fun instance(algorithms: Algorithms): AbstractChecksum {
+    val instances = threadInstances.get()
+    return instances[algorithms.ordinal] ?: create(algorithms).also { instances[algorithms.ordinal] = it }
+  }
 
   /**
    * 对字节数组做校验和算法
@@ -58,13 +75,14 @@ object Checksums {
    * @param bytes 需要做校验的字节数组
    */
   @JvmStatic
-  @Synchronized
   fun bytes(bytes: ByteArray, algorithms: Algorithms): Long =
-    checksumInstances[algorithms].let {
-      it!!.update(bytes)
-      val value = it.value
-      it.reset()
-      value
+    instance(algorithms).let {
+      try {
+        it.update(bytes)
+        it.value
+      } finally {
+        it.reset()
+      }
     }
 
   /**
@@ -75,24 +93,25 @@ object Checksums {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   fun string(plaintext: String, charset: Charset = Constants.DEFAULT_CHARSET, algorithms: Algorithms): Long =
     bytes(plaintext.toByteArray(charset), algorithms)
 
   /**
-   * 对文件做校验和算法
+   * 对文件做校验和算法，以 [HashStreams] 设置的缓冲区分块读取，内存占用与文件大小无关
    *
    * @param file 需要做校验的文件
    */
   @JvmStatic
-  @Synchronized
   @Throws(FileException::class)
-  fun file(file: File, algorithms: Algorithms): Long {
-    file.exists().throwRuntimeUnless { FileException("MD5 - 文件不存在：${file.absolutePath}") }
-    file.isFile.throwRuntimeUnless { FileException("MD5 - 路径不是一个文件：${file.absolutePath}") }
-
-    return bytes(Files.readAllBytes(file.toPath()), algorithms)
-  }
+  fun file(file: File, algorithms: Algorithms): Long =
+    instance(algorithms).let {
+      try {
+        HashStreams.read(file) { bytes, length -> it.update(bytes, 0, length) }
+        it.value
+      } finally {
+        it.reset()
+      }
+    }
 
   /**
    * 对任何对象实例（Serializable）做校验和算法
@@ -100,85 +119,275 @@ object Checksums {
    * @param obj 需要做校验的任意类实例
    */
   @JvmStatic
-  @Synchronized
   fun any(obj: Any, algorithms: Algorithms): Long =
     bytes(Bytes.objectToBytes(obj), algorithms)
 
+  /**
+   * 批量计算多条消息的校验和，第 i 条消息的结果写入 output[i]，同一线程连续的消息复用同一个算法实例
+   *
+   * @param inputs 消息，非 RandomAccess 的 List 会先被复制
+   * @param output 接收结果的数组，默认创建恰好容纳所有结果的数组
+   * @param pool 为null（默认）时在当前线程中计算，否则将消息分段交给该线程池并行计算
+   * @return output
+   */
+  @JvmStatic
+  @JvmOverloads
+  fun batch(
+    algorithms: Algorithms,
+    inputs: List<ByteArray>,
+    output: LongArray = LongArray(inputs.size),
+    pool: ForkJoinPool? = null
+  ): LongArray {
+    val messages = if (inputs is RandomAccess) inputs else inputs.toList()
+    (output.size < messages.size).throwRuntimeIf { ArgumentsException("Hash - 输出数组空间不足，需要 ${messages.size} 个元素") }
+
+    HashBatches.run(messages.size, pool) { from, to ->
+      val checksum = instance(algorithms)
+      try {
+        for (i in from until to) {
+          checksum.update(messages[i])
+          output[i] = checksum.value
+          checksum.reset()
+        }
+      } finally {
+        checksum.reset()
+      }
+    }
+    return output
+  }
+
+  /**
+   * 批量计算紧凑排列在同一个 ByteBuffer 中的多条消息的校验和，第 i 条消息为 packed 中 `[offsets[i], offsets[i + 1])`
+   * 的数据（绝对下标，与 position 无关），结果写入 output[i]；packed 的 position、limit 不会被修改
+   *
+   * @param offsets 各条消息的起始下标，最后一个元素为最后一条消息的结束下标，共 `消息数 + 1` 个元素
+   * @param output 接收结果的数组，默认创建恰好容纳所有结果的数组
+   * @param pool 为null（默认）时在当前线程中计算，否则将消息分段交给该线程池并行计算
+   * @return output
+   */
+  @JvmStatic
+  @JvmOverloads
+  fun batch(
+    algorithms: Algorithms,
+    packed: ByteBuffer,
+    offsets: IntArray,
+    output: LongArray = LongArray(maxOf(0, offsets.size - 1)),
+    pool: ForkJoinPool? = null
+  ): LongArray {
+    offsets.isEmpty().throwRuntimeIf { ArgumentsException("Hash - 消息偏移量至少需要1个元素") }
+    val count = offsets.size - 1
+    (output.size < count).throwRuntimeIf { ArgumentsException("Hash - 输出数组空间不足，需要 $count 个元素") }
+
+    HashBatches.run(count, pool) { from, to ->
+      val checksum = instance(algorithms)
+      val input = packed.duplicate()
+      try {
+        for (i in from until to) {
+          input.limit(offsets[i + 1])
+          input.position(offsets[i])
+          HashStreams.update(checksum, input)
+          output[i] = checksum.value
+          checksum.reset()
+        }
+      } finally {
+        checksum.reset()
+      }
+    }
+    return output
+  }
+
+  /**
+   * 由A、B两段数据各自的校验值与B的长度，计算A、B拼接后的校验值，不需要重新读取数据
+   *
+   * 支持 CRC32、CRC32C 与基于 CrcGeneric 的 CRC 算法（如 CRC64_ECMA）
+   *
+   * @param first 数据A的校验值
+   * @param second 数据B的校验值
+   * @param secondLength 数据B的字节数
+   */
+  @JvmStatic
+  fun combine(first: Long, second: Long, secondLength: Long, algorithms: Algorithms): Long =
+    combiner(algorithms).combine(first, second, secondLength)
+
+  /**
+   * 将字节数组分块，在 ForkJoinPool 中并行计算各块的校验值，再以 [combine] 合并，结果与 [bytes] 一致；支持的算法见 [combine]
+   *
+   * @param bytes 需要做校验的字节数组
+   * @param chunkSize 分块大小，默认 [DEFAULT_CHUNK_SIZE]
+   * @param pool 执行计算的线程池，默认 ForkJoinPool.commonPool()
+   */
+  @JvmStatic
+  @JvmOverloads
+  fun parallel(
+    bytes: ByteArray,
+    algorithms: Algorithms,
+    chunkSize: Int = DEFAULT_CHUNK_SIZE,
+    pool: ForkJoinPool = ForkJoinPool.commonPool()
+  ): Long {
+    (chunkSize <= 0).throwRuntimeIf { ArgumentsException("Hash - 分块大小须大于0") }
+    val chunks = (bytes.indices step chunkSize).map { ByteBuffer.wrap(bytes, it, minOf(chunkSize, bytes.size - it)) }
+    return parallel(chunks, algorithms, pool)
+  }
+
+  /**
+   * 将文件映射（mmap）到内存后分块，在 ForkJoinPool 中并行计算各块的校验值，再以 [combine] 合并，结果与 [file] 一致；支持的算法见 [combine]
+   *
+   * @param file 需要做校验的文件
+   * @param chunkSize 分块大小，默认 [DEFAULT_CHUNK_SIZE]
+   * @param pool 执行计算的线程池，默认 ForkJoinPool.commonPool()
+   */
+  @JvmStatic
+  @JvmOverloads
+  @Throws(FileException::class)
+  fun parallel(
+    file: File,
+    algorithms: Algorithms,
+    chunkSize: Int = DEFAULT_CHUNK_SIZE,
+    pool: ForkJoinPool = ForkJoinPool.commonPool()
+  ): Long {
+    (chunkSize <= 0).throwRuntimeIf { ArgumentsException("Hash - 分块大小须大于0") }
+    return HashStreams.map(file) { windows ->
+      val chunks = windows.flatMap { window ->
+        (0 until window.capacity() step chunkSize).map {
+          val view = window.duplicate()
+          view.position(it)
+          view.limit(minOf(it + chunkSize, window.capacity()))
+          view.slice()
+        }
+      }
+      parallel(chunks, algorithms, pool)
+    }
+  }
+
+  private fun parallel(chunks: List<ByteBuffer>, algorithms: Algorithms, pool: ForkJoinPool): Long {
+    val combiner = combiner(algorithms)
+    if (chunks.isEmpty()) return bytes(ByteArray(0), algorithms)
+
+    // offsets[i] 为第i块在整体数据中的起始位置，用于得到任意连续几块的总长度
+    val offsets = LongArray(chunks.size + 1)
+    chunks.forEachIndexed { i, chunk -> offsets[i + 1] = offsets[i] + chunk.remaining() }
+    return pool.invoke(ChunkTask(chunks, offsets, 0, chunks.size, algorithms, combiner))
+  }
+
+  /**
+   * 计算第 [from] 到 [to]（不含）块的校验值，多于一块时一分为二，前一半交给其它线程，两半的结果合并
+   */
+  private class ChunkTask(
+    private val chunks: List<ByteBuffer>,
+    private val offsets: LongArray,
+    private val from: Int,
+    private val to: Int,
+    private val algorithms: Algorithms,
+    private val combiner: CrcGeneric
+  ) : RecursiveTask<Long>() {
+
+    override fun compute(): Long {
+      if (to - from == 1) {
+        val checksum = instance(algorithms)
+        return try {
+          HashStreams.update(checksum, chunks[from].duplicate())
+          checksum.value
+        } finally {
+          checksum.reset()
+        }
+      }
+
+      val middle = (from + to) ushr 1
+      val first = ChunkTask(chunks, offsets, from, middle, algorithms, combiner).fork()
+      val second = ChunkTask(chunks, offsets, middle, to, algorithms, combiner).compute()
+      return combiner.combine(first.join(), second, offsets[to] - offsets[middle])
+    }
+  }
+
+  /**
+   * 创建增量计算校验和的会话
+   */
+  @JvmStatic
+  fun session(algorithms: Algorithms): HashSession =
+    HashSession.of(algorithms)
+
   /**
    * 校验和算法
+   *
+   * @property function String jacksum 中的算法名
    */
-  enum class Algorithms {
+  enum class Algorithms(internal val function: String) : HashAlgorithm {
     /**
      * [Adler-32](https://en.wikipedia.org/wiki/Adler-32) checksum
      */
-    ADLER32,
+    ADLER32("adler32"),
 
     /**
      * Cksum: GNU C source (POSIX 1003.2 checksum)
      */
-    CKSUM,
+    CKSUM("cksum"),
 
     /**
      * [Cyclic redundancy check](https://en.wikipedia.org/wiki/Cyclic_redundancy_check) checksum
      */
-    CRC8,
+    CRC8("crc8"),
 
     /**
      * [Cyclic redundancy check](https://en.wikipedia.org/wiki/Cyclic_redundancy_check) checksum
      */
-    CRC16,
+    CRC16("crc16"),
 
     /**
      * [Cyclic redundancy check](https://en.wikipedia.org/wiki/Cyclic_redundancy_check) checksum
      */
-    CRC32,
+    CRC32("crc32"),
+
+    /**
+     * [Cyclic redundancy check](https://en.wikipedia.org/wiki/Cyclic_redundancy_check) checksum，Castagnoli 多项式（iSCSI、ext4）
+     */
+    CRC32C("crc32c"),
 
     /**
      * [Cyclic redundancy check](https://en.wikipedia.org/wiki/Cyclic_redundancy_check) checksum
      */
-    CRC32_MPEG2,
+    CRC32_MPEG2("crc32_mpeg2"),
 
     /**
      * [Cyclic redundancy check](https://en.wikipedia.org/wiki/Cyclic_redundancy_check) checksum
      */
-    CRC64,
+    CRC64("crc64"),
 
     /**
      * [Cyclic redundancy check](https://en.wikipedia.org/wiki/Cyclic_redundancy_check) checksum
      */
-    CRC64_ECMA,
-    ELF,
-    FCS16,
+    CRC64_ECMA("crc64_ecma"),
+    ELF("elf"),
+    FCS16("fcs16"),
 
     /**
      * [Fletcher](https://en.wikipedia.org/wiki/Fletcher%27s_checksum) checksum
      */
-    FLETCHER16,
-    FNV0_64,
-    FNV0_128,
-    FNV0_256,
-    FNV0_512,
-    FNV0_1024,
-    FNV1_64,
-    FNV1_128,
-    FNV1_256,
-    FNV1_512,
-    FNV1_1024,
-    FNV1A_64,
-    FNV1A_128,
-    FNV1A_256,
-    FNV1A_512,
-    FNV1A_1024,
+    FLETCHER16("fletcher16"),
+    FNV0_64("fnv-0_64"),
+    FNV0_128("fnv-0_128"),
+    FNV0_256("fnv-0_256"),
+    FNV0_512("fnv-0_512"),
+    FNV0_1024("fnv-0_1024"),
+    FNV1_64("fnv-1_64"),
+    FNV1_128("fnv-1_128"),
+    FNV1_256("fnv-1_256"),
+    FNV1_512("fnv-1_512"),
+    FNV1_1024("fnv-1_1024"),
+    FNV1A_64("fnv-1a_64"),
+    FNV1A_128("fnv-1a_128"),
+    FNV1A_256("fnv-1a_256"),
+    FNV1A_512("fnv-1a_512"),
+    FNV1A_1024("fnv-1a_1024"),
 
     /**
      * Jenkins's One-at-a-Time Hash (joaat) See also
      * http://www.burtleburtle.net/bob/hash/doobs.html
      */
-    JOAAT32,
-    SUM32,
-    SUM48,
-    SUM56,
-    SUMBSD,
-    XOR8
+    JOAAT32("joaat"),
+    SUM32("sum32"),
+    SUM48("sum48"),
+    SUM56("sum56"),
+    SUMBSD("sum_bsd"),
+    XOR8("xor8")
   }
 }
@@ -0,0 +1,38 @@
+package cn.labzen.cells.algorithm.crypto
+
+import net.jacksum.algorithms.AbstractChecksum
+import org.bouncycastle.crypto.Digest
+
+/**
+ * 将 BouncyCastle 的散列摘要算法适配为 jacksum 的 [AbstractChecksum]，以便与校验和算法一起组合在
+ * [net.jacksum.algorithms.CombinedChecksum] 中
+ *
+ * [getByteArray] 会结束本次计算，结果被缓存直到下一次 [update] 或 [reset]
+ */
+internal class DigestChecksum(private val digest: Digest) : AbstractChecksum() {
+
+  private var result: ByteArray? = null
+
+  init {
+    name = digest.algorithmName
+    bitWidth = digest.digestSize * 8
+  }
+
+  override fun reset() {
+    digest.reset()
+    result = null
+    length = 0
+  }
+
+  override fun update(bytes: ByteArray, offset: Int, length: Int) {
+    if (result != null) reset()
+    digest.update(bytes, offset, length)
+    this.length += length
+  }
+
+  override fun getByteArray(): ByteArray =
+    result ?: ByteArray(digest.digestSize).also {
+      digest.doFinal(it, 0)
+      result = it
+    }
+}
@@ -3,15 +3,32 @@
 package cn.labzen.cells.algorithm.crypto
 
 import cn.labzen.cells.core.definition.Constants
+import cn.labzen.cells.core.exception.ArgumentsException
 import cn.labzen.cells.core.exception.FileException
-import cn.labzen.cells.core.kotlin.throwRuntimeUnless
+import cn.labzen.cells.core.kotlin.throwRuntimeIf
 import cn.labzen.cells.core.utils.Bytes
+import org.bouncycastle.crypto.Digest
+import org.bouncycastle.crypto.digests.Blake2bDigest
+import org.bouncycastle.crypto.digests.Blake2sDigest
 import org.bouncycastle.crypto.digests.Blake3Digest
-import org.bouncycastle.jcajce.provider.digest.*
-import org.bouncycastle.util.encoders.Hex
+import org.bouncycastle.crypto.digests.KeccakDigest
+import org.bouncycastle.crypto.digests.MD5Digest
+import org.bouncycastle.crypto.digests.RIPEMD128Digest
+import org.bouncycastle.crypto.digests.RIPEMD160Digest
+import org.bouncycastle.crypto.digests.RIPEMD256Digest
+import org.bouncycastle.crypto.digests.RIPEMD320Digest
+import org.bouncycastle.crypto.digests.SHA224Digest
+import org.bouncycastle.crypto.digests.SHA256Digest
+import org.bouncycastle.crypto.digests.SHA384Digest
+import org.bouncycastle.crypto.digests.SHA3Digest
+import org.bouncycastle.crypto.digests.SHA512Digest
+import org.bouncycastle.crypto.digests.SM3Digest
+import org.bouncycastle.crypto.digests.TigerDigest
+import org.bouncycastle.crypto.digests.WhirlpoolDigest
 import java.io.File
+import java.nio.ByteBuffer
 import java.nio.charset.Charset
-import java.nio.file.Files
+import java.util.concurrent.ForkJoinPool
 
 /**
  * 加密散列函数 [Cryptographic hash function](https://en.wikipedia.org/wiki/Cryptographic_hash_function)
@@ -27,44 +44,285 @@ import java.nio.file.Files
  * - [MD5](www.w3.org/TR/1998/REC-DSig-label/MD5-1_0)
  * - [SHA-2](https://en.wikipedia.org/wiki/SHA-2)
  * - [SHA-3](https://en.wikipedia.org/wiki/SHA-3)
+ *
+ * 线程安全：算法实例是有状态的，每个线程按需为每种算法创建自己的 BouncyCastle 实例并复用，不同线程、不同算法之间没有锁竞争
  */
 object Digests {
 
-  private val blake3DigestInstance = Blake3Digest()
-
-  private val blake2b160DigestInstance = Blake2b.Blake2b160()
-  private val blake2b256DigestInstance = Blake2b.Blake2b256()
-  private val blake2b384DigestInstance = Blake2b.Blake2b384()
-  private val blake2b512DigestInstance = Blake2b.Blake2b512()
-  private val blake2s128DigestInstance = Blake2s.Blake2s128()
-  private val blake2s160DigestInstance = Blake2s.Blake2s160()
-  private val blake2s224DigestInstance = Blake2s.Blake2s224()
-  private val blake2s256DigestInstance = Blake2s.Blake2s256()
-
-  private val keccak224DigestInstance = Keccak.Digest224()
-  private val keccak256DigestInstance = Keccak.Digest256()
-  private val keccak288DigestInstance = Keccak.Digest288()
-  private val keccak384DigestInstance = Keccak.Digest384()
-  private val keccak512DigestInstance = Keccak.Digest512()
-
-  private val ripemd128DigestInstance = RIPEMD128.Digest()
-  private val ripemd160DigestInstance = RIPEMD160.Digest()
-  private val ripemd256DigestInstance = RIPEMD256.Digest()
-  private val ripemd320DigestInstance = RIPEMD320.Digest()
-
-  private val sm3DigestInstance = SM3.Digest()
-  private val tigerDigestInstance = Tiger.Digest()
-  private val whirlpoolDigestInstance = Whirlpool.Digest()
-  private val md5DigestInstance = MD5.Digest()
-
-  private val sha2224DigestInstance = SHA224.Digest()
-  private val sha2256DigestInstance = SHA256.Digest()
-  private val sha2384DigestInstance = SHA384.Digest()
-  private val sha2512DigestInstance = SHA512.Digest()
-  private val sha3224DigestInstance = SHA3.Digest224()
-  private val sha3256DigestInstance = SHA3.Digest256()
-  private val sha3384DigestInstance = SHA3.Digest384()
-  private val sha3512DigestInstance = SHA3.Digest512()
+  /**
+   * 当前线程的算法实例，以 [Algorithms.ordinal] 为下标，首次使用时创建
+   */
+  private val threadInstances = ThreadLocal.withInitial { arrayOfNulls<Digest>(Algorithms.values().size) }
+
+  /**
+   * 获取当前线程的算法实例
+   */
+  private fun instance(algorithms: Algorithms): Digest {
+    val instances = threadInstances.get()
+    return instances[algorithms.ordinal] ?: algorithms.digest().also { instances[algorithms.ordinal] = it }
+  }
+
+  /**
+   * 所有算法中最大的输出字节数（SHA-512、Whirlpool 等）
+   */
+  private const val MAX_DIGEST_SIZE = 64
+
+  /**
+   * 当前线程暂存结果的缓冲区，用于结果写入直接内存的场景
+   */
+  private val results = ThreadLocal.withInitial { ByteArray(MAX_DIGEST_SIZE) }
+
+  /**
+   * 算法输出的字节数
+   */
+  @JvmStatic
+  fun size(algorithms: Algorithms): Int =
+    instance(algorithms).digestSize
+
+  /**
+   * 将 ByteBuffer 中 position 到 limit 之间的数据交给算法，返回时 position 等于 limit；直接内存经由当前线程的缓冲区分块拷贝
+   */
+  private fun update(digest: Digest, buffer: ByteBuffer) {
+    if (buffer.hasArray()) {
+      digest.update(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining())
+      buffer.position(buffer.limit())
+      return
+    }
+
+    val bytes = HashStreams.buffer()
+    while (buffer.hasRemaining()) {
+      val length = minOf(buffer.remaining(), bytes.size)
+      buffer.get(bytes, 0, length)
+      digest.update(bytes, 0, length)
+    }
+  }
+
+  /**
+   * 结束计算并将结果写入 output，cycles 大于1时继续对上一次的结果字节（而非16进制文本）做摘要，结果原地覆盖
+   */
+  private fun finish(digest: Digest, output: ByteArray, offset: Int, cycles: Int) {
+    digest.doFinal(output, offset)
+    for (i in 1 until cycles) {
+      digest.update(output, offset, digest.digestSize)
+      digest.doFinal(output, offset)
+    }
+  }
+
+  /**
+   * 对字节数组中的一段做散列摘要，结果写入调用方提供的缓冲区，不产生任何中间对象
+   *
+   * @param output 接收结果的字节数组，从 outputOffset 开始至少需要 [size] 个字节的空间
+   * @param cycles 散列摘要次数（默认1），每次对上一次的结果字节做摘要
+   * @return 写入的字节数
+   */
+  @JvmStatic
+  @JvmOverloads
+  fun digest(
+    algorithms: Algorithms,
+    bytes: ByteArray,
+    offset: Int,
+    length: Int,
+    output: ByteArray,
+    outputOffset: Int,
+    cycles: Int = 1
+  ): Int {
+    val digest = instance(algorithms)
+    val size = digest.digestSize
+    (outputOffset < 0 || output.size - outputOffset < size).throwRuntimeIf {
+      ArgumentsException("Hash - 输出缓冲区空间不足，需要 $size 字节")
+    }
+
+    try {
+      digest.update(bytes, offset, length)
+      finish(digest, output, outputOffset, cycles)
+    } finally {
+      digest.reset()
+    }
+    return size
+  }
+
+  /**
+   * 对字节数组做散列摘要，返回结果字节
+   *
+   * @param cycles 散列摘要次数（默认1），每次对上一次的结果字节做摘要
+   */
+  @JvmStatic
+  @JvmOverloads
+  fun digest(algorithms: Algorithms, bytes: ByteArray, cycles: Int = 1): ByteArray {
+    val output = ByteArray(size(algorithms))
+    digest(algorithms, bytes, 0, bytes.size, output, 0, cycles)
+    return output
+  }
+
+  /**
+   * 对 ByteBuffer 中 position 到 limit 之间的数据做散列摘要，结果写入 output 的 position 处
+   *
+   * 返回时 input 的 position 等于 limit，output 的 position 向后移动结果的字节数；直接内存的 output 经由当前线程的缓冲区写入
+   *
+   * @param cycles 散列摘要次数（默认1），每次对上一次的结果字节做摘要
+   * @return 写入的字节数
+   */
+  @JvmStatic
+  @JvmOverloads
+  fun digest(algorithms: Algorithms, input: ByteBuffer, output: ByteBuffer, cycles: Int = 1): Int {
+    val digest = instance(algorithms)
+    val size = digest.digestSize
+    (output.remaining() < size).throwRuntimeIf { ArgumentsException("Hash - 输出缓冲区空间不足，需要 $size 字节") }
+
+    try {
+      update(digest, input)
+      if (output.hasArray()) {
+        finish(digest, output.array(), output.arrayOffset() + output.position(), cycles)
+        output.position(output.position() + size)
+      } else {
+        val bytes = results.get()
+        finish(digest, bytes, 0, cycles)
+        output.put(bytes, 0, size)
+      }
+    } finally {
+      digest.reset()
+    }
+    return size
+  }
+
+  /**
+   * 分块读取文件做散列摘要，返回结果字节
+   *
+   * @param cycles 散列摘要次数（默认1），每次对上一次的结果字节做摘要
+   */
+  @JvmStatic
+  @JvmOverloads
+  @Throws(FileException::class)
+  fun digest(algorithms: Algorithms, file: File, cycles: Int = 1): ByteArray {
+    val digest = instance(algorithms)
+    try {
+      HashStreams.read(file) { bytes, length -> digest.update(bytes, 0, length) }
+      return ByteArray(digest.digestSize).also { finish(digest, it, 0, cycles) }
+    } finally {
+      digest.reset()
+    }
+  }
+
+  /**
+   * 批量计算多条消息的散列摘要，第 i 条消息的结果写入 output 的 `outputOffset + i * size` 处（size 见 [size]）
+   *
+   * 同一线程连续的消息复用同一个算法实例，不产生中间对象；结果可以用 [HashEncoder] 编码到复用的 CharArray 中
+   *
+   * @param inputs 消息，非 RandomAccess 的 List 会先被复制
+   * @param output 接收结果的字节数组，默认创建恰好容纳所有结果的数组
+   * @param pool 为null（默认）时在当前线程中计算，否则将消息分段交给该线程池并行计算
+   * @return output
+   */
+  @JvmStatic
+  @JvmOverloads
+  fun batch(
+    algorithms: Algorithms,
+    inputs: List<ByteArray>,
+    output: ByteArray = ByteArray(inputs.size * size(algorithms)),
+    outputOffset: Int = 0,
+    pool: ForkJoinPool? = null
+  ): ByteArray {
+    val messages = if (inputs is RandomAccess) inputs else inputs.toList()
+    val size = size(algorithms)
+    val total = messages.size.toLong() * size
+    (outputOffset < 0 || output.size - outputOffset < total).throwRuntimeIf {
+      ArgumentsException("Hash - 输出缓冲区空间不足，需要 $total 字节")
+    }
+
+    HashBatches.run(messages.size, pool) { from, to ->
+      val digest = instance(algorithms)
+      try {
+        for (i in from until to) {
+          val bytes = messages[i]
+          digest.update(bytes, 0, bytes.size)
+          digest.doFinal(output, outputOffset + i * size)
+        }
+      } finally {
+        digest.reset()
+      }
+    }
+    return output
+  }
+
+  /**
+   * 批量计算紧凑排列在同一个 ByteBuffer 中的多条消息的散列摘要，第 i 条消息为 packed 中 `[offsets[i], offsets[i + 1])`
+   * 的数据（绝对下标，与 position 无关），结果依次写入 output 的 position 处，返回时 output 的 position 向后移动所有结果的字节数
+   *
+   * packed 的 position、limit 不会被修改；直接内存经由当前线程的缓冲区分块拷贝
+   *
+   * @param offsets 各条消息的起始下标，最后一个元素为最后一条消息的结束下标，共 `消息数 + 1` 个元素
+   * @param pool 为null（默认）时在当前线程中计算，否则将消息分段交给该线程池并行计算
+   * @return 写入的字节数
+   */
+  @JvmStatic
+  @JvmOverloads
+  fun batch(
+    algorithms: Algorithms,
+    packed: ByteBuffer,
+    offsets: IntArray,
+    output: ByteBuffer,
+    pool: ForkJoinPool? = null
+  ): Int {
+    offsets.isEmpty().throwRuntimeIf { ArgumentsException("Hash - 消息偏移量至少需要1个元素") }
+    val count = offsets.size - 1
+    val size = size(algorithms)
+    val total = count * size
+    (output.remaining() < total).throwRuntimeIf { ArgumentsException("Hash - 输出缓冲区空间不足，需要 $total 字节") }
+
+    val base = output.position()
+    HashBatches.run(count, pool) { from, to ->
+      val digest = instance(algorithms)
+      val input = packed.duplicate()
+      val target = output.duplicate()
+      try {
+        for (i in from until to) {
+          input.limit(offsets[i + 1])
+          input.position(offsets[i])
+          update(digest, input)
+          if (target.hasArray()) {
+            digest.doFinal(target.array(), target.arrayOffset() + base + i * size)
+          } else {
+            val bytes = results.get()
+            digest.doFinal(bytes, 0)
+            target.position(base + i * size)
+            target.put(bytes, 0, size)
+          }
+        }
+      } finally {
+        digest.reset()
+      }
+    }
+    output.position(base + total)
+    return total
+  }
+
+  /**
+   * 将结果字节编码为16进制，cycles 大于1时继续对16进制文本（ASCII字节）做摘要，与对16进制字符串重复调用的结果一致，
+   * 但文本写入复用的字节数组，每一轮不再创建字符串
+   */
+  private fun hexCycles(algorithms: Algorithms, digested: ByteArray, cycles: Int): String {
+    if (cycles > 1) {
+      val digest = instance(algorithms)
+      val text = ByteArray(HashEncoder.hexLength(digested.size))
+      try {
+        for (i in 1 until cycles) {
+          HashEncoder.hexAscii(digested, 0, digested.size, text, 0)
+          digest.update(text, 0, text.size)
+          digest.doFinal(digested, 0)
+        }
+      } finally {
+        digest.reset()
+      }
+    }
+    return HashEncoder.hex(digested)
+  }
+
+  private fun hex(algorithms: Algorithms, bytes: ByteArray, cycles: Int): String =
+    hexCycles(algorithms, digest(algorithms, bytes), cycles)
+
+  @Throws(FileException::class)
+  private fun hex(algorithms: Algorithms, file: File, cycles: Int): String =
+    hexCycles(algorithms, digest(algorithms, file), cycles)
 
   /**
    * Blake3散列摘要算法
@@ -74,19 +332,8 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
-  fun blake3(bytes: ByteArray, cycles: Int = 1): String {
-    blake3DigestInstance.update(bytes, 0, bytes.size)
-    val digested = ByteArray(blake3DigestInstance.digestSize)
-    blake3DigestInstance.doOutput(digested, 0, digested.size)
-    blake3DigestInstance.reset()
-
-    val hex = Hex.toHexString(digested)
-
-    return if (cycles > 1) {
-      blake3(hex, cycles - 1)
-    } else hex
-  }
+  fun blake3(bytes: ByteArray, cycles: Int = 1): String =
+    hex(Algorithms.BLAKE3, bytes, cycles)
 
   /**
    * Blake3散列摘要算法
@@ -97,7 +344,6 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   fun blake3(plaintext: String, charset: Charset = Constants.DEFAULT_CHARSET, cycles: Int = 1): String =
     blake3(plaintext.toByteArray(charset), cycles)
 
@@ -108,7 +354,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun blake3(plaintext: String, cycles: Int): String =
     blake3(plaintext, Constants.DEFAULT_CHARSET, cycles)
 
@@ -120,7 +365,6 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   fun blake3(obj: Any, cycles: Int = 1): String =
     blake3(Bytes.objectToBytes(obj), cycles)
 
@@ -132,17 +376,48 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   @Throws(FileException::class)
-  fun blake3(file: File, cycles: Int = 1): String {
-    file.exists().throwRuntimeUnless { FileException("MD5 - 文件不存在：${file.absolutePath}") }
-    file.isFile.throwRuntimeUnless { FileException("MD5 - 路径不是一个文件：${file.absolutePath}") }
+  fun blake3(file: File, cycles: Int = 1): String =
+    hex(Algorithms.BLAKE3, file, cycles)
 
-    return blake3(Files.readAllBytes(file.toPath()), cycles)
-  }
+  /**
+   * Blake3散列摘要算法的多线程树形模式，按 1KB 分块并行计算各子树的链值再逐级合并，结果与 [blake3] 一致；
+   * 64KB 以下的数据直接在当前线程计算
+   *
+   * @param bytes 需要做摘要的字节数组
+   * @param pool 执行计算的线程池，默认 ForkJoinPool.commonPool()
+   */
+  @JvmStatic
+  @JvmOverloads
+  fun blake3Parallel(bytes: ByteArray, pool: ForkJoinPool = ForkJoinPool.commonPool()): String =
+    HashEncoder.hex(Blake3Tree.hash(listOf(ByteBuffer.wrap(bytes)), pool))
+
+  /**
+   * Blake3散列摘要算法的多线程树形模式，文件映射（mmap）到内存后由各线程并行读取，结果与 [blake3] 一致
+   *
+   * @param file 需要做摘要的文件
+   * @param pool 执行计算的线程池，默认 ForkJoinPool.commonPool()
+   */
+  @JvmStatic
+  @JvmOverloads
+  @Throws(FileException::class)
+  fun blake3Parallel(file: File, pool: ForkJoinPool = ForkJoinPool.commonPool()): String =
+    HashEncoder.hex(HashStreams.map(file) { Blake3Tree.hash(it, pool) })
 
   // ===================================================================================================================
 
+  private fun blake2Algorithm(length: BlakeLength): Algorithms =
+    when (length) {
+      BlakeLength.BLAKE2B_160 -> Algorithms.BLAKE2B_160
+      BlakeLength.BLAKE2B_256 -> Algorithms.BLAKE2B_256
+      BlakeLength.BLAKE2B_384 -> Algorithms.BLAKE2B_384
+      BlakeLength.BLAKE2B_512 -> Algorithms.BLAKE2B_512
+      BlakeLength.BLAKE2S_128 -> Algorithms.BLAKE2S_128
+      BlakeLength.BLAKE2S_160 -> Algorithms.BLAKE2S_160
+      BlakeLength.BLAKE2S_224 -> Algorithms.BLAKE2S_224
+      BlakeLength.BLAKE2S_256 -> Algorithms.BLAKE2S_256
+    }
+
   /**
    * Blake2散列摘要算法
    *
@@ -152,29 +427,8 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
-  fun blake2(bytes: ByteArray, length: BlakeLength = BlakeLength.BLAKE2B_256, cycles: Int = 1): String {
-    val digest = when (length) {
-      BlakeLength.BLAKE2B_160 -> blake2b160DigestInstance
-      BlakeLength.BLAKE2B_256 -> blake2b256DigestInstance
-      BlakeLength.BLAKE2B_384 -> blake2b384DigestInstance
-      BlakeLength.BLAKE2B_512 -> blake2b512DigestInstance
-      BlakeLength.BLAKE2S_128 -> blake2s128DigestInstance
-      BlakeLength.BLAKE2S_160 -> blake2s160DigestInstance
-      BlakeLength.BLAKE2S_224 -> blake2s224DigestInstance
-      BlakeLength.BLAKE2S_256 -> blake2s256DigestInstance
-    }
-
-    digest.update(bytes)
-    val digested = digest.digest()
-    digest.reset()
-
-    val hex = Hex.toHexString(digested)
-
-    return if (cycles > 1) {
-      blake2(hex, length, cycles - 1)
-    } else hex
-  }
+  fun blake2(bytes: ByteArray, length: BlakeLength = BlakeLength.BLAKE2B_256, cycles: Int = 1): String =
+    hex(blake2Algorithm(length), bytes, cycles)
 
   /**
    * Blake2散列摘要算法
@@ -183,7 +437,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun blake2(bytes: ByteArray, cycles: Int): String =
     blake2(bytes, BlakeLength.BLAKE2B_256, cycles)
 
@@ -197,7 +450,6 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   fun blake2(
     plaintext: String,
     charset: Charset = Constants.DEFAULT_CHARSET,
@@ -213,7 +465,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun blake2(plaintext: String, cycles: Int): String =
     blake2(plaintext, Constants.DEFAULT_CHARSET, BlakeLength.BLAKE2B_256, cycles)
 
@@ -225,7 +476,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun blake2(plaintext: String, length: BlakeLength, cycles: Int): String =
     blake2(plaintext, Constants.DEFAULT_CHARSET, length, cycles)
 
@@ -238,7 +488,6 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   fun blake2(obj: Any, length: BlakeLength = BlakeLength.BLAKE2B_256, cycles: Int = 1): String =
     blake2(Bytes.objectToBytes(obj), length, cycles)
 
@@ -249,7 +498,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun blake2(obj: Any, cycles: Int): String =
     blake2(obj, BlakeLength.BLAKE2B_256, cycles)
 
@@ -262,14 +510,9 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   @Throws(FileException::class)
-  fun blake2(file: File, length: BlakeLength = BlakeLength.BLAKE2B_256, cycles: Int = 1): String {
-    file.exists().throwRuntimeUnless { FileException("MD5 - 文件不存在：${file.absolutePath}") }
-    file.isFile.throwRuntimeUnless { FileException("MD5 - 路径不是一个文件：${file.absolutePath}") }
-
-    return blake2(Files.readAllBytes(file.toPath()), length, cycles)
-  }
+  fun blake2(file: File, length: BlakeLength = BlakeLength.BLAKE2B_256, cycles: Int = 1): String =
+    hex(blake2Algorithm(length), file, cycles)
 
   /**
    * Blake2散列摘要算法
@@ -278,7 +521,6 @@ object Digests {
    * @param cycles 散列摘要次数（默认1）
    */
   @JvmStatic
-  @Synchronized
   @Throws(FileException::class)
   fun blake2(file: File, cycles: Int): String =
     blake2(file, BlakeLength.BLAKE2B_256, cycles)
@@ -289,6 +531,15 @@ object Digests {
 
   // ===================================================================================================================
 
+  private fun keccakAlgorithm(length: KeccakLength): Algorithms =
+    when (length) {
+      KeccakLength.KECCAK_224 -> Algorithms.KECCAK_224
+      KeccakLength.KECCAK_256 -> Algorithms.KECCAK_256
+      KeccakLength.KECCAK_288 -> Algorithms.KECCAK_288
+      KeccakLength.KECCAK_384 -> Algorithms.KECCAK_384
+      KeccakLength.KECCAK_512 -> Algorithms.KECCAK_512
+    }
+
   /**
    * Keccak散列摘要算法
    *
@@ -298,26 +549,8 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
-  fun keccak(bytes: ByteArray, length: KeccakLength = KeccakLength.KECCAK_256, cycles: Int = 1): String {
-    val digest: Keccak.DigestKeccak = when (length) {
-      KeccakLength.KECCAK_224 -> keccak224DigestInstance
-      KeccakLength.KECCAK_256 -> keccak256DigestInstance
-      KeccakLength.KECCAK_288 -> keccak288DigestInstance
-      KeccakLength.KECCAK_384 -> keccak384DigestInstance
-      KeccakLength.KECCAK_512 -> keccak512DigestInstance
-    }
-
-    digest.update(bytes)
-    val digested = digest.digest()
-    digest.reset()
-
-    val hex = Hex.toHexString(digested)
-
-    return if (cycles > 1) {
-      keccak(hex, length, cycles - 1)
-    } else hex
-  }
+  fun keccak(bytes: ByteArray, length: KeccakLength = KeccakLength.KECCAK_256, cycles: Int = 1): String =
+    hex(keccakAlgorithm(length), bytes, cycles)
 
   /**
    * Keccak散列摘要算法
@@ -326,7 +559,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun keccak(bytes: ByteArray, cycles: Int): String =
     keccak(bytes, KeccakLength.KECCAK_256, cycles)
 
@@ -340,7 +572,6 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   fun keccak(
     plaintext: String,
     charset: Charset = Constants.DEFAULT_CHARSET,
@@ -356,7 +587,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun keccak(plaintext: String, cycles: Int): String =
     keccak(plaintext, Constants.DEFAULT_CHARSET, KeccakLength.KECCAK_256, cycles)
 
@@ -368,7 +598,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun keccak(plaintext: String, length: KeccakLength, cycles: Int): String =
     keccak(plaintext, Constants.DEFAULT_CHARSET, length, cycles)
 
@@ -381,7 +610,6 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   fun keccak(obj: Any, length: KeccakLength = KeccakLength.KECCAK_256, cycles: Int = 1): String =
     keccak(Bytes.objectToBytes(obj), length, cycles)
 
@@ -392,7 +620,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun keccak(obj: Any, cycles: Int): String =
     keccak(obj, KeccakLength.KECCAK_256, cycles)
 
@@ -405,14 +632,9 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   @Throws(FileException::class)
-  fun keccak(file: File, length: KeccakLength = KeccakLength.KECCAK_256, cycles: Int = 1): String {
-    file.exists().throwRuntimeUnless { FileException("MD5 - 文件不存在：${file.absolutePath}") }
-    file.isFile.throwRuntimeUnless { FileException("MD5 - 路径不是一个文件：${file.absolutePath}") }
-
-    return keccak(Files.readAllBytes(file.toPath()), length, cycles)
-  }
+  fun keccak(file: File, length: KeccakLength = KeccakLength.KECCAK_256, cycles: Int = 1): String =
+    hex(keccakAlgorithm(length), file, cycles)
 
   /**
    * Keccak散列摘要算法
@@ -421,7 +643,6 @@ object Digests {
    * @param cycles 散列摘要次数（默认1）
    */
   @JvmStatic
-  @Synchronized
   @Throws(FileException::class)
   fun keccak(file: File, cycles: Int): String =
     keccak(file, KeccakLength.KECCAK_256, cycles)
@@ -432,6 +653,14 @@ object Digests {
 
   // ===================================================================================================================
 
+  private fun ripemdAlgorithm(length: RipemdLength): Algorithms =
+    when (length) {
+      RipemdLength.RIPEMD_128 -> Algorithms.RIPEMD_128
+      RipemdLength.RIPEMD_160 -> Algorithms.RIPEMD_160
+      RipemdLength.RIPEMD_256 -> Algorithms.RIPEMD_256
+      RipemdLength.RIPEMD_320 -> Algorithms.RIPEMD_320
+    }
+
   /**
    * Ripemd散列摘要算法
    *
@@ -441,25 +670,8 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
-  fun ripemd(bytes: ByteArray, length: RipemdLength = RipemdLength.RIPEMD_160, cycles: Int = 1): String {
-    val digest = when (length) {
-      RipemdLength.RIPEMD_128 -> ripemd128DigestInstance
-      RipemdLength.RIPEMD_160 -> ripemd160DigestInstance
-      RipemdLength.RIPEMD_256 -> ripemd256DigestInstance
-      RipemdLength.RIPEMD_320 -> ripemd320DigestInstance
-    }
-
-    digest.update(bytes)
-    val digested = digest.digest()
-    digest.reset()
-
-    val hex = Hex.toHexString(digested)
-
-    return if (cycles > 1) {
-      ripemd(hex, length, cycles - 1)
-    } else hex
-  }
+  fun ripemd(bytes: ByteArray, length: RipemdLength = RipemdLength.RIPEMD_160, cycles: Int = 1): String =
+    hex(ripemdAlgorithm(length), bytes, cycles)
 
   /**
    * Ripemd散列摘要算法
@@ -468,7 +680,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun ripemd(bytes: ByteArray, cycles: Int): String =
     ripemd(bytes, RipemdLength.RIPEMD_160, cycles)
 
@@ -482,7 +693,6 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   fun ripemd(
     plaintext: String,
     charset: Charset = Constants.DEFAULT_CHARSET,
@@ -498,7 +708,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun ripemd(plaintext: String, cycles: Int): String =
     ripemd(plaintext, Constants.DEFAULT_CHARSET, RipemdLength.RIPEMD_160, cycles)
 
@@ -510,7 +719,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun ripemd(plaintext: String, length: RipemdLength, cycles: Int): String =
     ripemd(plaintext, Constants.DEFAULT_CHARSET, length, cycles)
 
@@ -523,7 +731,6 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   fun ripemd(obj: Any, length: RipemdLength = RipemdLength.RIPEMD_160, cycles: Int = 1): String =
     ripemd(Bytes.objectToBytes(obj), length, cycles)
 
@@ -534,7 +741,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun ripemd(obj: Any, cycles: Int): String =
     ripemd(obj, RipemdLength.RIPEMD_160, cycles)
 
@@ -547,14 +753,9 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   @Throws(FileException::class)
-  fun ripemd(file: File, length: RipemdLength = RipemdLength.RIPEMD_160, cycles: Int = 1): String {
-    file.exists().throwRuntimeUnless { FileException("MD5 - 文件不存在：${file.absolutePath}") }
-    file.isFile.throwRuntimeUnless { FileException("MD5 - 路径不是一个文件：${file.absolutePath}") }
-
-    return ripemd(Files.readAllBytes(file.toPath()), length, cycles)
-  }
+  fun ripemd(file: File, length: RipemdLength = RipemdLength.RIPEMD_160, cycles: Int = 1): String =
+    hex(ripemdAlgorithm(length), file, cycles)
 
   /**
    * Ripemd散列摘要算法
@@ -563,7 +764,6 @@ object Digests {
    * @param cycles 散列摘要次数（默认1）
    */
   @JvmStatic
-  @Synchronized
   @Throws(FileException::class)
   fun ripemd(file: File, cycles: Int): String =
     ripemd(file, RipemdLength.RIPEMD_160, cycles)
@@ -582,18 +782,8 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
-  fun sm3(bytes: ByteArray, cycles: Int = 1): String {
-    sm3DigestInstance.update(bytes)
-    val digested = sm3DigestInstance.digest()
-    sm3DigestInstance.reset()
-
-    val hex = Hex.toHexString(digested)
-
-    return if (cycles > 1) {
-      sm3(hex, cycles - 1)
-    } else hex
-  }
+  fun sm3(bytes: ByteArray, cycles: Int = 1): String =
+    hex(Algorithms.SM3, bytes, cycles)
 
   /**
    * 国密SM3散列摘要算法
@@ -604,7 +794,6 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   fun sm3(plaintext: String, charset: Charset = Constants.DEFAULT_CHARSET, cycles: Int = 1): String =
     sm3(plaintext.toByteArray(charset), cycles)
 
@@ -615,7 +804,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun sm3(plaintext: String, cycles: Int): String =
     sm3(plaintext, Constants.DEFAULT_CHARSET, cycles)
 
@@ -627,7 +815,6 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   fun sm3(obj: Any, cycles: Int = 1): String =
     sm3(Bytes.objectToBytes(obj), cycles)
 
@@ -639,14 +826,9 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   @Throws(FileException::class)
-  fun sm3(file: File, cycles: Int = 1): String {
-    file.exists().throwRuntimeUnless { FileException("MD5 - 文件不存在：${file.absolutePath}") }
-    file.isFile.throwRuntimeUnless { FileException("MD5 - 路径不是一个文件：${file.absolutePath}") }
-
-    return sm3(Files.readAllBytes(file.toPath()), cycles)
-  }
+  fun sm3(file: File, cycles: Int = 1): String =
+    hex(Algorithms.SM3, file, cycles)
 
   // ===================================================================================================================
 
@@ -658,18 +840,8 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
-  fun tiger(bytes: ByteArray, cycles: Int = 1): String {
-    tigerDigestInstance.update(bytes)
-    val digested = tigerDigestInstance.digest()
-    tigerDigestInstance.reset()
-
-    val hex = Hex.toHexString(digested)
-
-    return if (cycles > 1) {
-      tiger(hex, cycles - 1)
-    } else hex
-  }
+  fun tiger(bytes: ByteArray, cycles: Int = 1): String =
+    hex(Algorithms.TIGER, bytes, cycles)
 
   /**
    * Tiger散列摘要算法
@@ -680,7 +852,6 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   fun tiger(plaintext: String, charset: Charset = Constants.DEFAULT_CHARSET, cycles: Int = 1): String =
     tiger(plaintext.toByteArray(charset), cycles)
 
@@ -691,7 +862,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun tiger(plaintext: String, cycles: Int): String =
     tiger(plaintext, Constants.DEFAULT_CHARSET, cycles)
 
@@ -703,7 +873,6 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   fun tiger(obj: Any, cycles: Int = 1): String =
     tiger(Bytes.objectToBytes(obj), cycles)
 
@@ -715,14 +884,9 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   @Throws(FileException::class)
-  fun tiger(file: File, cycles: Int = 1): String {
-    file.exists().throwRuntimeUnless { FileException("MD5 - 文件不存在：${file.absolutePath}") }
-    file.isFile.throwRuntimeUnless { FileException("MD5 - 路径不是一个文件：${file.absolutePath}") }
-
-    return tiger(Files.readAllBytes(file.toPath()), cycles)
-  }
+  fun tiger(file: File, cycles: Int = 1): String =
+    hex(Algorithms.TIGER, file, cycles)
 
   // ===================================================================================================================
 
@@ -734,18 +898,8 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
-  fun whirlpool(bytes: ByteArray, cycles: Int = 1): String {
-    whirlpoolDigestInstance.update(bytes)
-    val digested = whirlpoolDigestInstance.digest()
-    whirlpoolDigestInstance.reset()
-
-    val hex = Hex.toHexString(digested)
-
-    return if (cycles > 1) {
-      whirlpool(hex, cycles - 1)
-    } else hex
-  }
+  fun whirlpool(bytes: ByteArray, cycles: Int = 1): String =
+    hex(Algorithms.WHIRLPOOL, bytes, cycles)
 
   /**
    * Whirlpool散列摘要算法
@@ -756,7 +910,6 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   fun whirlpool(plaintext: String, charset: Charset = Constants.DEFAULT_CHARSET, cycles: Int = 1): String =
     whirlpool(plaintext.toByteArray(charset), cycles)
 
@@ -767,7 +920,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun whirlpool(plaintext: String, cycles: Int): String =
     whirlpool(plaintext, Constants.DEFAULT_CHARSET, cycles)
 
@@ -779,7 +931,6 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   fun whirlpool(obj: Any, cycles: Int = 1): String =
     whirlpool(Bytes.objectToBytes(obj), cycles)
 
@@ -791,14 +942,9 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   @Throws(FileException::class)
-  fun whirlpool(file: File, cycles: Int = 1): String {
-    file.exists().throwRuntimeUnless { FileException("MD5 - 文件不存在：${file.absolutePath}") }
-    file.isFile.throwRuntimeUnless { FileException("MD5 - 路径不是一个文件：${file.absolutePath}") }
-
-    return whirlpool(Files.readAllBytes(file.toPath()), cycles)
-  }
+  fun whirlpool(file: File, cycles: Int = 1): String =
+    hex(Algorithms.WHIRLPOOL, file, cycles)
 
   // ===================================================================================================================
 
@@ -810,18 +956,8 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
-  fun md5(bytes: ByteArray, cycles: Int = 1): String {
-    md5DigestInstance.update(bytes)
-    val digested = md5DigestInstance.digest()
-    md5DigestInstance.reset()
-
-    val hex = Hex.toHexString(digested)
-
-    return if (cycles > 1) {
-      md5(hex, cycles - 1)
-    } else hex
-  }
+  fun md5(bytes: ByteArray, cycles: Int = 1): String =
+    hex(Algorithms.MD5, bytes, cycles)
 
   /**
    * MD5散列摘要算法
@@ -832,7 +968,6 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   fun md5(plaintext: String, charset: Charset = Constants.DEFAULT_CHARSET, cycles: Int = 1): String =
     md5(plaintext.toByteArray(charset), cycles)
 
@@ -843,7 +978,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun md5(plaintext: String, cycles: Int): String =
     md5(plaintext, Constants.DEFAULT_CHARSET, cycles)
 
@@ -855,7 +989,6 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   fun md5(obj: Any, cycles: Int = 1): String =
     md5(Bytes.objectToBytes(obj), cycles)
 
@@ -867,17 +1000,20 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   @Throws(FileException::class)
-  fun md5(file: File, cycles: Int = 1): String {
-    file.exists().throwRuntimeUnless { FileException("MD5 - 文件不存在：${file.absolutePath}") }
-    file.isFile.throwRuntimeUnless { FileException("MD5 - 路径不是一个文件：${file.absolutePath}") }
-
-    return md5(Files.readAllBytes(file.toPath()), cycles)
-  }
+  fun md5(file: File, cycles: Int = 1): String =
+    hex(Algorithms.MD5, file, cycles)
 
   // ===================================================================================================================
 
+  private fun sha2Algorithm(length: SHALength): Algorithms =
+    when (length) {
+      SHALength.SHA_224 -> Algorithms.SHA2_224
+      SHALength.SHA_256 -> Algorithms.SHA2_256
+      SHALength.SHA_384 -> Algorithms.SHA2_384
+      SHALength.SHA_512 -> Algorithms.SHA2_512
+    }
+
   /**
    * SHA-2散列摘要算法
    *
@@ -887,25 +1023,8 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
-  fun sha2(bytes: ByteArray, length: SHALength = SHALength.SHA_256, cycles: Int = 1): String {
-    val digest = when (length) {
-      SHALength.SHA_224 -> sha2224DigestInstance
-      SHALength.SHA_256 -> sha2256DigestInstance
-      SHALength.SHA_384 -> sha2384DigestInstance
-      SHALength.SHA_512 -> sha2512DigestInstance
-    }
-
-    digest.update(bytes)
-    val digested = digest.digest()
-    digest.reset()
-
-    val hex = Hex.toHexString(digested)
-
-    return if (cycles > 1) {
-      sha2(hex, length, cycles - 1)
-    } else hex
-  }
+  fun sha2(bytes: ByteArray, length: SHALength = SHALength.SHA_256, cycles: Int = 1): String =
+    hex(sha2Algorithm(length), bytes, cycles)
 
   /**
    * SHA-2散列摘要算法
@@ -914,7 +1033,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun sha2(bytes: ByteArray, cycles: Int): String =
     sha2(bytes, SHALength.SHA_256, cycles)
 
@@ -928,7 +1046,6 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   fun sha2(
     plaintext: String,
     charset: Charset = Constants.DEFAULT_CHARSET,
@@ -944,7 +1061,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun sha2(plaintext: String, cycles: Int): String =
     sha2(plaintext, Constants.DEFAULT_CHARSET, SHALength.SHA_256, cycles)
 
@@ -956,7 +1072,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun sha2(plaintext: String, length: SHALength, cycles: Int): String =
     sha2(plaintext, Constants.DEFAULT_CHARSET, length, cycles)
 
@@ -969,7 +1084,6 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   fun sha2(obj: Any, length: SHALength = SHALength.SHA_256, cycles: Int = 1): String =
     sha2(Bytes.objectToBytes(obj), length, cycles)
 
@@ -980,7 +1094,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun sha2(obj: Any, cycles: Int): String =
     sha2(obj, SHALength.SHA_256, cycles)
 
@@ -993,14 +1106,9 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   @Throws(FileException::class)
-  fun sha2(file: File, length: SHALength = SHALength.SHA_256, cycles: Int = 1): String {
-    file.exists().throwRuntimeUnless { FileException("MD5 - 文件不存在：${file.absolutePath}") }
-    file.isFile.throwRuntimeUnless { FileException("MD5 - 路径不是一个文件：${file.absolutePath}") }
-
-    return sha2(Files.readAllBytes(file.toPath()), length, cycles)
-  }
+  fun sha2(file: File, length: SHALength = SHALength.SHA_256, cycles: Int = 1): String =
+    hex(sha2Algorithm(length), file, cycles)
 
   /**
    * SHA-2散列摘要算法
@@ -1009,13 +1117,20 @@ object Digests {
    * @param cycles 散列摘要次数（默认1）
    */
   @JvmStatic
-  @Synchronized
   @Throws(FileException::class)
   fun sha2(file: File, cycles: Int): String =
     sha2(file, SHALength.SHA_256, cycles)
 
   // ===================================================================================================================
 
+  private fun sha3Algorithm(length: SHALength): Algorithms =
+    when (length) {
+      SHALength.SHA_224 -> Algorithms.SHA3_224
+      SHALength.SHA_256 -> Algorithms.SHA3_256
+      SHALength.SHA_384 -> Algorithms.SHA3_384
+      SHALength.SHA_512 -> Algorithms.SHA3_512
+    }
+
   /**
    * SHA-3散列摘要算法
    *
@@ -1025,25 +1140,8 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
-  fun sha3(bytes: ByteArray, length: SHALength = SHALength.SHA_256, cycles: Int = 1): String {
-    val digest: SHA3.DigestSHA3 = when (length) {
-      SHALength.SHA_224 -> sha3224DigestInstance
-      SHALength.SHA_256 -> sha3256DigestInstance
-      SHALength.SHA_384 -> sha3384DigestInstance
-      SHALength.SHA_512 -> sha3512DigestInstance
-    }
-
-    digest.update(bytes)
-    val digested = digest.digest()
-    digest.reset()
-
-    val hex = Hex.toHexString(digested)
-
-    return if (cycles > 1) {
-      sha3(hex, length, cycles - 1)
-    } else hex
-  }
+  fun sha3(bytes: ByteArray, length: SHALength = SHALength.SHA_256, cycles: Int = 1): String =
+    hex(sha3Algorithm(length), bytes, cycles)
 
   /**
    * SHA-3散列摘要算法
@@ -1052,7 +1150,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun sha3(bytes: ByteArray, cycles: Int): String =
     sha3(bytes, SHALength.SHA_256, cycles)
 
@@ -1066,7 +1163,6 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   fun sha3(
     plaintext: String,
     charset: Charset = Constants.DEFAULT_CHARSET,
@@ -1082,7 +1178,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun sha3(plaintext: String, cycles: Int): String =
     sha3(plaintext, Constants.DEFAULT_CHARSET, SHALength.SHA_256, cycles)
 
@@ -1094,7 +1189,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun sha3(plaintext: String, length: SHALength, cycles: Int): String =
     sha3(plaintext, Constants.DEFAULT_CHARSET, length, cycles)
 
@@ -1107,7 +1201,6 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   fun sha3(obj: Any, length: SHALength = SHALength.SHA_256, cycles: Int = 1): String =
     sha3(Bytes.objectToBytes(obj), length, cycles)
 
@@ -1118,7 +1211,6 @@ object Digests {
    * @param cycles 散列摘要次数
    */
   @JvmStatic
-  @Synchronized
   fun sha3(obj: Any, cycles: Int): String =
     sha3(obj, SHALength.SHA_256, cycles)
 
@@ -1131,14 +1223,9 @@ object Digests {
    */
   @JvmStatic
   @JvmOverloads
-  @Synchronized
   @Throws(FileException::class)
-  fun sha3(file: File, length: SHALength = SHALength.SHA_256, cycles: Int = 1): String {
-    file.exists().throwRuntimeUnless { FileException("MD5 - 文件不存在：${file.absolutePath}") }
-    file.isFile.throwRuntimeUnless { FileException("MD5 - 路径不是一个文件：${file.absolutePath}") }
-
-    return sha3(Files.readAllBytes(file.toPath()), length, cycles)
-  }
+  fun sha3(file: File, length: SHALength = SHALength.SHA_256, cycles: Int = 1): String =
+    hex(sha3Algorithm(length), file, cycles)
 
   /**
    * SHA-3散列摘要算法
@@ -1147,7 +1234,6 @@ object Digests {
    * @param cycles 散列摘要次数（默认1）
    */
   @JvmStatic
-  @Synchronized
   @Throws(FileException::class)
   fun sha3(file: File, cycles: Int): String =
     sha3(file, SHALength.SHA_256, cycles)
@@ -1157,4 +1243,51 @@ object Digests {
   enum class SHALength {
     SHA_224, SHA_256, SHA_384, SHA_512
   }
+
+  /**
+   * 创建增量计算散列摘要的会话
+   */
+  @JvmStatic
+  fun session(algorithms: Algorithms): HashSession =
+    HashSession.of(algorithms)
+
+  // ===================================================================================================================
+
+  /**
+   * 散列摘要算法，与 [Checksums.Algorithms] 一起作为 [HashAlgorithm] 使用
+   *
+   * @property digest 创建该算法的 BouncyCastle 轻量级实现
+   */
+  enum class Algorithms(internal val digest: () -> Digest) : HashAlgorithm {
+    BLAKE3({ Blake3Digest() }),
+    BLAKE2B_160({ Blake2bDigest(160) }),
+    BLAKE2B_256({ Blake2bDigest(256) }),
+    BLAKE2B_384({ Blake2bDigest(384) }),
+    BLAKE2B_512({ Blake2bDigest(512) }),
+    BLAKE2S_128({ Blake2sDigest(128) }),
+    BLAKE2S_160({ Blake2sDigest(160) }),
+    BLAKE2S_224({ Blake2sDigest(224) }),
+    BLAKE2S_256({ Blake2sDigest(256) }),
+    KECCAK_224({ KeccakDigest(224) }),
+    KECCAK_256({ KeccakDigest(256) }),
+    KECCAK_288({ KeccakDigest(288) }),
+    KECCAK_384({ KeccakDigest(384) }),
+    KECCAK_512({ KeccakDigest(512) }),
+    RIPEMD_128({ RIPEMD128Digest() }),
+    RIPEMD_160({ RIPEMD160Digest() }),
+    RIPEMD_256({ RIPEMD256Digest() }),
+    RIPEMD_320({ RIPEMD320Digest() }),
+    SM3({ SM3Digest() }),
+    TIGER({ TigerDigest() }),
+    WHIRLPOOL({ WhirlpoolDigest() }),
+    MD5({ MD5Digest() }),
+    SHA2_224({ SHA224Digest() }),
+    SHA2_256({ SHA256Digest() }),
+    SHA2_384({ SHA384Digest() }),
+    SHA2_512({ SHA512Digest() }),
+    SHA3_224({ SHA3Digest(224) }),
+    SHA3_256({ SHA3Digest(256) }),
+    SHA3_384({ SHA3Digest(384) }),
+    SHA3_512({ SHA3Digest(512) })
+  }
 }
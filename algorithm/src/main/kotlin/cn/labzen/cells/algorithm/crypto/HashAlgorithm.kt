@@ -0,0 +1,20 @@
+package cn.labzen.cells.algorithm.crypto
+
+import cn.labzen.cells.core.exception.ArgumentsException
+import net.jacksum.algorithms.AbstractChecksum
+
+/**
+ * 校验和与散列摘要算法的统一标识，由 [Checksums.Algorithms] 与 [Digests.Algorithms] 实现，用于需要同时处理两类算法的场景，
+ * 如 [HashStreams.hashAll]
+ */
+interface HashAlgorithm
+
+/**
+ * 创建算法的一个新实例，散列摘要算法以 [DigestChecksum] 适配为 jacksum 的 [AbstractChecksum]
+ */
+internal fun HashAlgorithm.newChecksum(): AbstractChecksum =
+  when (this) {
+    is Checksums.Algorithms -> Checksums.create(this)
+    is Digests.Algorithms -> DigestChecksum(this.digest())
+    else -> throw ArgumentsException("Hash - 不支持的算法：$this")
+  }
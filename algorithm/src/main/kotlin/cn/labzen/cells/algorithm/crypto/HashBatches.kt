@@ -0,0 +1,45 @@
+package cn.labzen.cells.algorithm.crypto
+
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.RecursiveAction
+
+/**
+ * 批量计算时按消息下标划分任务，供 [Digests.batch]、[Checksums.batch] 使用
+ */
+internal object HashBatches {
+
+  /**
+   * 一个任务连续计算的最少消息数，避免短消息的任务调度开销超过计算本身
+   */
+  private const val GRAIN = 256
+
+  /**
+   * 对 [0, count) 的消息执行 block，block 接收连续的一段下标 [from, to)，同一段在同一个线程中执行，可复用该线程的算法实例
+   *
+   * @param pool 为null时在当前线程中一次执行全部消息，否则在该线程池中分段并行
+   */
+  fun run(count: Int, pool: ForkJoinPool?, block: (Int, Int) -> Unit) {
+    if (pool == null || count <= GRAIN) {
+      block(0, count)
+    } else {
+      pool.invoke(RangeTask(0, count, block))
+    }
+  }
+
+  private class RangeTask(
+    private val from: Int,
+    private val to: Int,
+    private val block: (Int, Int) -> Unit
+  ) : RecursiveAction() {
+
+    override fun compute() {
+      if (to - from <= GRAIN) {
+        block(from, to)
+        return
+      }
+
+      val middle = (from + to) ushr 1
+      invokeAll(RangeTask(from, middle, block), RangeTask(middle, to, block))
+    }
+  }
+}
@@ -0,0 +1,176 @@
+@file:Suppress("unused")
+
+package cn.labzen.cells.algorithm.crypto
+
+import cn.labzen.cells.core.exception.ArgumentsException
+import cn.labzen.cells.core.kotlin.throwRuntimeIf
+
+/**
+ * 将散列摘要、校验和等结果字节编码为16进制或Base64文本
+ *
+ * 以查表方式编码，可写入调用方复用的 CharArray（或 ASCII 字节数组），循环签名、批量计算等场景中不产生中间的 String 与 StringBuilder
+ */
+object HashEncoder {
+
+  /**
+   * 每个字节对应的两个16进制字符，下标为 `byte * 2` 与 `byte * 2 + 1`
+   */
+  private val lowerHexes = hexTable("0123456789abcdef")
+  private val upperHexes = hexTable("0123456789ABCDEF")
+  private val lowerHexAscii = String(lowerHexes).toByteArray(Charsets.US_ASCII)
+
+  private val base64Standard = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray()
+  private val base64Url = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray()
+
+  private fun hexTable(digits: String): CharArray =
+    CharArray(512).also {
+      for (b in 0 until 256) {
+        it[b shl 1] = digits[b ushr 4]
+        it[(b shl 1) + 1] = digits[b and 0x0f]
+      }
+    }
+
+  /**
+   * 编码 length 个字节所需的16进制字符数
+   */
+  @JvmStatic
+  fun hexLength(length: Int): Int =
+    length shl 1
+
+  /**
+   * 编码 length 个字节所需的Base64字符数
+   *
+   * @param padding 是否以 `=` 补齐为4的整数倍（默认补齐）
+   */
+  @JvmStatic
+  @JvmOverloads
+  fun base64Length(length: Int, padding: Boolean = true): Int =
+    if (padding) (length + 2) / 3 * 4 else (length * 4 + 2) / 3
+
+  private fun checkRange(size: Int, offset: Int, length: Int, name: String) {
+    (offset < 0 || length < 0 || offset > size - length).throwRuntimeIf {
+      ArgumentsException("Hash - ${name}越界，offset: $offset，length: $length，size: $size")
+    }
+  }
+
+  /**
+   * 将字节数组中的一段编码为16进制，写入 output
+   *
+   * @param output 接收结果的字符数组，从 outputOffset 开始至少需要 [hexLength] 个字符的空间
+   * @param uppercase 是否使用大写字母（默认小写，与 [Digests] 的结果一致）
+   * @return 写入的字符数
+   */
+  @JvmStatic
+  @JvmOverloads
+  fun hex(
+    bytes: ByteArray,
+    offset: Int,
+    length: Int,
+    output: CharArray,
+    outputOffset: Int = 0,
+    uppercase: Boolean = false
+  ): Int {
+    checkRange(bytes.size, offset, length, "输入")
+    checkRange(output.size, outputOffset, hexLength(length), "输出")
+
+    val table = if (uppercase) upperHexes else lowerHexes
+    var o = outputOffset
+    for (i in offset until offset + length) {
+      val index = (bytes[i].toInt() and 0xff) shl 1
+      output[o++] = table[index]
+      output[o++] = table[index + 1]
+    }
+    return hexLength(length)
+  }
+
+  /**
+   * 将字节数组编码为16进制字符串
+   *
+   * @param uppercase 是否使用大写字母（默认小写）
+   */
+  @JvmStatic
+  @JvmOverloads
+  fun hex(bytes: ByteArray, uppercase: Boolean = false): String {
+    val chars = CharArray(hexLength(bytes.size))
+    hex(bytes, 0, bytes.size, chars, 0, uppercase)
+    return String(chars)
+  }
+
+  /**
+   * 将字节数组中的一段编码为小写16进制的 ASCII 字节，用于对16进制文本再次做摘要
+   */
+  internal fun hexAscii(bytes: ByteArray, offset: Int, length: Int, output: ByteArray, outputOffset: Int) {
+    var o = outputOffset
+    for (i in offset until offset + length) {
+      val index = (bytes[i].toInt() and 0xff) shl 1
+      output[o++] = lowerHexAscii[index]
+      output[o++] = lowerHexAscii[index + 1]
+    }
+  }
+
+  /**
+   * 将字节数组中的一段编码为Base64（RFC 4648），写入 output
+   *
+   * @param output 接收结果的字符数组，从 outputOffset 开始至少需要 [base64Length] 个字符的空间
+   * @param urlSafe 是否使用URL安全的字母表（`-`、`_` 代替 `+`、`/`，默认不使用）
+   * @param padding 是否以 `=` 补齐（默认补齐）
+   * @return 写入的字符数
+   */
+  @JvmStatic
+  @JvmOverloads
+  fun base64(
+    bytes: ByteArray,
+    offset: Int,
+    length: Int,
+    output: CharArray,
+    outputOffset: Int = 0,
+    urlSafe: Boolean = false,
+    padding: Boolean = true
+  ): Int {
+    checkRange(bytes.size, offset, length, "输入")
+    checkRange(output.size, outputOffset, base64Length(length, padding), "输出")
+
+    val alphabet = if (urlSafe) base64Url else base64Standard
+    val end = offset + length
+    val whole = offset + length / 3 * 3
+    var i = offset
+    var o = outputOffset
+    while (i < whole) {
+      val bits = (bytes[i].toInt() and 0xff shl 16) or (bytes[i + 1].toInt() and 0xff shl 8) or
+          (bytes[i + 2].toInt() and 0xff)
+      output[o++] = alphabet[bits ushr 18]
+      output[o++] = alphabet[bits ushr 12 and 0x3f]
+      output[o++] = alphabet[bits ushr 6 and 0x3f]
+      output[o++] = alphabet[bits and 0x3f]
+      i += 3
+    }
+
+    // 剩余1或2个字节
+    if (i < end) {
+      val two = end - i == 2
+      val bits = (bytes[i].toInt() and 0xff shl 16) or (if (two) bytes[i + 1].toInt() and 0xff shl 8 else 0)
+      output[o++] = alphabet[bits ushr 18]
+      output[o++] = alphabet[bits ushr 12 and 0x3f]
+      if (two) output[o++] = alphabet[bits ushr 6 and 0x3f]
+      if (padding) {
+        if (!two) output[o++] = '='
+        output[o++] = '='
+      }
+    }
+    return o - outputOffset
+  }
+
+  /**
+   * 将字节数组编码为Base64（RFC 4648）字符串
+   *
+   * @param urlSafe 是否使用URL安全的字母表（默认不使用）
+   * @param padding 是否以 `=` 补齐（默认补齐）
+   */
+  @JvmStatic
+  @JvmOverloads
+  fun base64(bytes: ByteArray, urlSafe: Boolean = false, padding: Boolean = true): String {
+    val chars = CharArray(base64Length(bytes.size, padding))
+    base64(bytes, 0, bytes.size, chars, 0, urlSafe, padding)
+    return String(chars)
+  }
+}
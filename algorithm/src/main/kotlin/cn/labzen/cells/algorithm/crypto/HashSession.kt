@@ -0,0 +1,120 @@
+@file:Suppress("unused", "MemberVisibilityCanBePrivate")
+
+package cn.labzen.cells.algorithm.crypto
+
+import cn.labzen.cells.core.exception.FileException
+import net.jacksum.algorithms.AbstractChecksum
+import org.bouncycastle.util.encoders.Hex
+import java.io.IOException
+import java.io.InputStream
+import java.nio.ByteBuffer
+
+/**
+ * 增量计算校验和或散列摘要的会话，数据可以分多次提交，适用于数据流式到达（网络缓冲区、InputStream）或数据量较大的场景
+ *
+ * - 字节数组与堆内 ByteBuffer 直接交给算法，不产生中间拷贝
+ * - 直接内存 ByteBuffer 由 CRC32、CRC32C、Adler32 直接读取，其余算法经由当前线程复用的缓冲区分块交给算法
+ * - Netty ByteBuf 可通过 `update(*buf.nioBuffers())` 提交其可读部分，不需要先拷贝为字节数组
+ *
+ * [finish] 返回结果后会话被重置，可以继续用于下一次计算。会话不是线程安全的，每个线程应使用自己的会话
+ *
+ * @property algorithm HashAlgorithm 会话使用的算法
+ */
+class HashSession internal constructor(val algorithm: HashAlgorithm, private val checksum: AbstractChecksum) {
+
+  /**
+   * 提交字节数组中的一段数据
+   */
+  fun update(bytes: ByteArray, offset: Int, length: Int): HashSession {
+    checksum.update(bytes, offset, length)
+    return this
+  }
+
+  /**
+   * 提交字节数组
+   */
+  fun update(bytes: ByteArray): HashSession =
+    update(bytes, 0, bytes.size)
+
+  /**
+   * 提交 ByteBuffer 中 position 到 limit 之间的数据，返回时 position 等于 limit
+   */
+  fun update(buffer: ByteBuffer): HashSession {
+    HashStreams.update(checksum, buffer)
+    return this
+  }
+
+  /**
+   * 依次提交多个 ByteBuffer，例如 Netty 的 `ByteBuf.nioBuffers()`
+   */
+  fun update(vararg buffers: ByteBuffer): HashSession {
+    buffers.forEach { update(it) }
+    return this
+  }
+
+  /**
+   * 读取 InputStream 直到结束并提交所有数据，不会关闭 InputStream
+   */
+  @Throws(FileException::class)
+  fun update(input: InputStream): HashSession {
+    val bytes = HashStreams.buffer()
+    try {
+      while (true) {
+        val length = input.read(bytes)
+        if (length < 0) break
+        checksum.update(bytes, 0, length)
+      }
+    } catch (e: IOException) {
+      throw FileException(e, "Hash - 读取数据失败")
+    }
+    return this
+  }
+
+  /**
+   * 已提交的数据字节数
+   */
+  fun length(): Long = checksum.length
+
+  /**
+   * 结束计算并返回结果字节，会话随后被重置
+   */
+  fun finish(): ByteArray =
+    try {
+      checksum.byteArray
+    } finally {
+      checksum.reset()
+    }
+
+  /**
+   * 结束计算并返回结果的16进制字符串，会话随后被重置
+   */
+  fun finishHex(): String =
+    Hex.toHexString(finish())
+
+  /**
+   * 结束计算并返回校验和的数值，与 [Checksums.bytes] 的结果一致，会话随后被重置；散列摘要与超过64位的校验和不支持
+   */
+  fun finishValue(): Long =
+    try {
+      checksum.value
+    } finally {
+      checksum.reset()
+    }
+
+  /**
+   * 丢弃已提交的数据
+   */
+  fun reset() {
+    checksum.reset()
+  }
+
+  companion object {
+
+    /**
+     * 创建给出算法的会话
+     */
+    @JvmStatic
+    fun of(algorithm: HashAlgorithm): HashSession =
+      HashSession(algorithm, algorithm.newChecksum())
+  }
+}
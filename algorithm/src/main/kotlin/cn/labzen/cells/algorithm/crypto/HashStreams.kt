@@ -0,0 +1,204 @@
+@file:Suppress("unused")
+
+package cn.labzen.cells.algorithm.crypto
+
+import cn.labzen.cells.core.exception.FileException
+import cn.labzen.cells.core.kotlin.throwRuntimeIf
+import cn.labzen.cells.core.kotlin.throwRuntimeUnless
+import net.jacksum.algorithms.AbstractChecksum
+import net.jacksum.algorithms.CombinedChecksum
+import net.jacksum.algorithms.checksums.Adler32
+import net.jacksum.algorithms.crcs.CRC32
+import net.jacksum.algorithms.crcs.CRC32C
+import org.bouncycastle.util.encoders.Hex
+import java.io.File
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.StandardOpenOption
+import java.security.MessageDigest
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+
+/**
+ * 以固定大小的缓冲区分块读取文件，供 [Checksums]、[Digests] 对文件做增量的校验和、散列摘要计算，内存占用只与缓冲区大小有关，与文件大小无关
+ *
+ * 缓冲区按线程复用；jacksum 与 BouncyCastle 的算法均以字节数组为输入，因此缓冲区为堆内字节数组，经由 FileChannel 读取（JDK 内部使用
+ * 线程缓存的直接缓冲区完成系统调用）
+ */
+object HashStreams {
+
+  /**
+   * 默认缓冲区大小，64KB
+   */
+  const val DEFAULT_BUFFER_SIZE = 64 * 1024
+
+  /**
+   * 每次映射的文件区域大小，256MB；须为 1KB 的整数倍，[Blake3Tree] 的分块不会跨越两个区域
+   */
+  private const val MAP_WINDOW_SIZE = 256L * 1024 * 1024
+
+  @Volatile
+  private var bufferSize = DEFAULT_BUFFER_SIZE
+
+  private val buffers = ThreadLocal<ByteArray>()
+
+  /**
+   * 设置读取文件的缓冲区大小，单位：字节
+   */
+  @JvmStatic
+  fun bufferSize(size: Int) {
+    (size <= 0).throwRuntimeIf { FileException("Hash - 缓冲区大小须大于0") }
+    bufferSize = size
+  }
+
+  @JvmStatic
+  fun bufferSize(): Int = bufferSize
+
+  /**
+   * 获取当前线程的缓冲区，大小与设置不一致时重新创建
+   */
+  internal fun buffer(): ByteArray {
+    val size = bufferSize
+    val buffer = buffers.get()
+    if (buffer != null && buffer.size == size) return buffer
+    return ByteArray(size).also { buffers.set(it) }
+  }
+
+  /**
+   * 将 ByteBuffer 中 position 到 limit 之间的数据交给算法，返回时 position 等于 limit
+   *
+   * - 堆内 ByteBuffer 直接以其底层数组交给算法
+   * - 基于 JDK 内建实现（HotSpot intrinsic）的 CRC32、CRC32C、Adler32 直接读取直接内存与内存映射，不做拷贝
+   * - 其余情况经由当前线程的缓冲区分块拷贝
+   */
+  internal fun update(checksum: AbstractChecksum, buffer: ByteBuffer) {
+    if (buffer.hasArray()) {
+      checksum.update(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining())
+      buffer.position(buffer.limit())
+      return
+    }
+
+    when (checksum) {
+      is CRC32, is CRC32C, is Adler32 -> checksum.update(buffer)
+      else -> {
+        val bytes = buffer()
+        while (buffer.hasRemaining()) {
+          val length = minOf(buffer.remaining(), bytes.size)
+          buffer.get(bytes, 0, length)
+          checksum.update(bytes, 0, length)
+        }
+      }
+    }
+  }
+
+  /**
+   * 分块读取文件，每读取一块调用一次 consumer
+   *
+   * @param file 需要读取的文件
+   * @param consumer 接收缓冲区与本次读取的字节数，缓冲区会被复用，不能在回调之外持有
+   */
+  @JvmStatic
+  @Throws(FileException::class)
+  fun read(file: File, consumer: (ByteArray, Int) -> Unit) {
+    file.exists().throwRuntimeUnless { FileException("Hash - 文件不存在：${file.absolutePath}") }
+    file.isFile.throwRuntimeUnless { FileException("Hash - 路径不是一个文件：${file.absolutePath}") }
+
+    val bytes = buffer()
+    val buffer = ByteBuffer.wrap(bytes)
+    try {
+      FileChannel.open(file.toPath(), StandardOpenOption.READ).use { channel ->
+        while (true) {
+          buffer.clear()
+          val read = channel.read(buffer)
+          if (read < 0) break
+          if (read > 0) consumer(bytes, read)
+        }
+      }
+    } catch (e: IOException) {
+      throw FileException(e, "Hash - 读取文件失败：${file.absolutePath}")
+    }
+  }
+
+  /**
+   * 分块读取文件计算散列摘要，计算完成（或失败）后摘要实例被重置
+   */
+  @JvmStatic
+  @Throws(FileException::class)
+  fun digest(file: File, digest: MessageDigest): ByteArray {
+    try {
+      read(file) { bytes, length -> digest.update(bytes, 0, length) }
+      return digest.digest()
+    } finally {
+      digest.reset()
+    }
+  }
+
+  /**
+   * 对同一文件一次性计算多种校验和、散列摘要：文件只映射（mmap）一次，每块数据依次交给所有算法，避免为每种算法重复读取文件
+   *
+   * 结果统一为算法输出字节的16进制字符串（校验和即 [net.jacksum.algorithms.AbstractChecksum.getByteArray]，大端序）
+   *
+   * @param file 需要计算的文件
+   * @param algorithms 算法，重复的算法只计算一次
+   * @param parallel 是否将各算法分配到不同的线程（ForkJoinPool.commonPool）并行计算，各线程读取同一份内存映射
+   * @return 算法与结果
+   */
+  @JvmStatic
+  @JvmOverloads
+  @Throws(FileException::class)
+  fun hashAll(file: File, algorithms: Collection<HashAlgorithm>, parallel: Boolean = false): Map<HashAlgorithm, String> {
+    val distinct = algorithms.distinct()
+    if (distinct.isEmpty()) return emptyMap()
+
+    return map(file) { windows ->
+      val checksums = if (parallel && distinct.size > 1) {
+        distinct.map { algorithm ->
+          CompletableFuture.supplyAsync { algorithm.newChecksum().also { feed(it, windows) } }
+        }.map { future ->
+          try {
+            future.join()
+          } catch (e: CompletionException) {
+            throw e.cause ?: e
+          }
+        }
+      } else {
+        val combined = CombinedChecksum()
+        distinct.forEach { combined.addAlgorithm(it.newChecksum()) }
+        feed(combined, windows)
+        combined.algorithms
+      }
+
+      distinct.zip(checksums) { algorithm, checksum -> algorithm to Hex.toHexString(checksum.byteArray) }.toMap()
+    }
+  }
+
+  /**
+   * 将文件按 256MB 的区域只读映射（mmap）到内存，交给 block 处理，block 返回后文件即被关闭
+   */
+  @Throws(FileException::class)
+  internal fun <T> map(file: File, block: (List<MappedByteBuffer>) -> T): T {
+    file.exists().throwRuntimeUnless { FileException("Hash - 文件不存在：${file.absolutePath}") }
+    file.isFile.throwRuntimeUnless { FileException("Hash - 路径不是一个文件：${file.absolutePath}") }
+
+    try {
+      FileChannel.open(file.toPath(), StandardOpenOption.READ).use { channel ->
+        val size = channel.size()
+        val windows = (0L until size step MAP_WINDOW_SIZE).map {
+          channel.map(FileChannel.MapMode.READ_ONLY, it, minOf(MAP_WINDOW_SIZE, size - it))
+        }
+        return block(windows)
+      }
+    } catch (e: IOException) {
+      throw FileException(e, "Hash - 读取文件失败：${file.absolutePath}")
+    }
+  }
+
+  /**
+   * 将内存映射的数据交给算法（见 [update]），各线程使用映射的独立视图
+   */
+  private fun feed(checksum: AbstractChecksum, windows: List<MappedByteBuffer>) {
+    windows.forEach { update(checksum, it.duplicate()) }
+  }
+}
@@ -0,0 +1,79 @@
+@file:Suppress("unused", "MemberVisibilityCanBePrivate")
+
+package cn.labzen.cells.algorithm.crypto
+
+import cn.labzen.cells.core.definition.Constants
+import cn.labzen.cells.core.exception.ArgumentsException
+import cn.labzen.cells.core.kotlin.throwRuntimeIf
+import org.bouncycastle.crypto.Mac
+import java.nio.charset.Charset
+import java.security.MessageDigest
+
+/**
+ * 已处理密钥的消息认证码，由 [Macs.key] 创建，适用于同一密钥签名、验证大量消息的场景（如 API 网关的请求签名）
+ *
+ * 每个线程按需创建自己的已带密钥的算法实例并复用，不同线程之间没有锁竞争，实例可以作为单例共用。基于 MD5、SHA-2、SM3、RIPEMD 的
+ * HMAC 在创建时预先计算内外层状态，各线程复制该状态开始每一次计算；其余算法在每个线程创建实例时处理一次密钥
+ *
+ * @property algorithm Macs.Algorithms 使用的算法
+ */
+class MacKey internal constructor(val algorithm: Macs.Algorithms, factory: () -> Mac) {
+
+  private val instances = ThreadLocal.withInitial { factory() }
+
+  /**
+   * 消息认证码的字节数
+   */
+  fun size(): Int =
+    instances.get().macSize
+
+  /**
+   * 计算字节数组中一段数据的消息认证码，结果写入调用方提供的缓冲区
+   *
+   * @param output 接收结果的字节数组，从 outputOffset 开始至少需要 [size] 个字节的空间
+   * @return 写入的字节数
+   */
+  fun mac(bytes: ByteArray, offset: Int, length: Int, output: ByteArray, outputOffset: Int): Int {
+    val mac = instances.get()
+    val size = mac.macSize
+    (outputOffset < 0 || output.size - outputOffset < size).throwRuntimeIf {
+      ArgumentsException("Hash - 输出缓冲区空间不足，需要 $size 字节")
+    }
+
+    try {
+      mac.update(bytes, offset, length)
+      return mac.doFinal(output, outputOffset)
+    } catch (e: RuntimeException) {
+      // doFinal 成功时实例已回到初始状态，失败时才需要重置
+      mac.reset()
+      throw e
+    }
+  }
+
+  /**
+   * 计算字节数组的消息认证码
+   */
+  fun mac(bytes: ByteArray): ByteArray =
+    ByteArray(size()).also { mac(bytes, 0, bytes.size, it, 0) }
+
+  /**
+   * 计算字节数组的消息认证码，返回16进制字符串
+   */
+  fun hex(bytes: ByteArray): String =
+    HashEncoder.hex(mac(bytes))
+
+  /**
+   * 计算字符串的消息认证码，返回16进制字符串
+   *
+   * @param charset 字符串的编码格式（默认使用UTF-8）
+   */
+  @JvmOverloads
+  fun hex(plaintext: String, charset: Charset = Constants.DEFAULT_CHARSET): String =
+    hex(plaintext.toByteArray(charset))
+
+  /**
+   * 验证消息认证码，比较耗时与两者相同前缀的长度无关（避免计时攻击）
+   */
+  fun verify(bytes: ByteArray, expected: ByteArray): Boolean =
+    MessageDigest.isEqual(mac(bytes), expected)
+}
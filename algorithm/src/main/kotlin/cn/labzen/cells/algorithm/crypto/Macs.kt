@@ -0,0 +1,220 @@
+@file:Suppress("unused", "SpellCheckingInspection")
+
+package cn.labzen.cells.algorithm.crypto
+
+import cn.labzen.cells.core.exception.ArgumentsException
+import cn.labzen.cells.core.kotlin.throwRuntimeIf
+import org.bouncycastle.crypto.CipherParameters
+import org.bouncycastle.crypto.Digest
+import org.bouncycastle.crypto.ExtendedDigest
+import org.bouncycastle.crypto.Mac
+import org.bouncycastle.crypto.digests.Blake2bDigest
+import org.bouncycastle.crypto.digests.Blake2sDigest
+import org.bouncycastle.crypto.digests.Blake3Digest
+import org.bouncycastle.crypto.digests.MD5Digest
+import org.bouncycastle.crypto.digests.RIPEMD160Digest
+import org.bouncycastle.crypto.digests.SHA224Digest
+import org.bouncycastle.crypto.digests.SHA256Digest
+import org.bouncycastle.crypto.digests.SHA384Digest
+import org.bouncycastle.crypto.digests.SHA3Digest
+import org.bouncycastle.crypto.digests.SHA512Digest
+import org.bouncycastle.crypto.digests.SM3Digest
+import org.bouncycastle.crypto.macs.Blake3Mac
+import org.bouncycastle.crypto.macs.HMac
+import org.bouncycastle.crypto.macs.KMAC
+import org.bouncycastle.crypto.params.KeyParameter
+import org.bouncycastle.util.Memoable
+
+/**
+ * 消息认证码 [Message authentication code](https://en.wikipedia.org/wiki/Message_authentication_code)
+ *
+ * 提供下列各种算法：
+ * - [HMAC](https://en.wikipedia.org/wiki/HMAC)，基于 MD5、SHA-2、SHA-3、SM3、RIPEMD-160
+ * - [Blake2](https://www.blake2.net) 与 [Blake3](https://github.com/BLAKE3-team/BLAKE3) 的带密钥模式
+ * - [KMAC](https://csrc.nist.gov/publications/detail/sp/800-185/final)
+ *
+ * 由 [key] 创建的 [MacKey] 只处理一次密钥（HMAC 预先计算内外两层的初始状态），之后可被多个线程共用
+ */
+object Macs {
+
+  /**
+   * 处理密钥，创建可重复使用的 [MacKey]
+   *
+   * @param key 密钥，BLAKE3 须为32字节，BLAKE2B 不超过64字节，BLAKE2S 不超过32字节，其余算法长度不限
+   */
+  @JvmStatic
+  fun key(algorithms: Algorithms, key: ByteArray): MacKey =
+    MacKey(algorithms, algorithms.keyed(key.copyOf()))
+
+  /**
+   * 计算一次消息认证码并返回16进制字符串；同一密钥多次计算时应使用 [key] 创建的 [MacKey]
+   */
+  @JvmStatic
+  fun hex(algorithms: Algorithms, key: ByteArray, bytes: ByteArray): String {
+    val mac = algorithms.keyed(key.copyOf())()
+    val result = ByteArray(mac.macSize)
+    mac.update(bytes, 0, bytes.size)
+    mac.doFinal(result, 0)
+    return HashEncoder.hex(result)
+  }
+
+  /**
+   * 预先计算 HMAC 的内层（key ⊕ ipad）与外层（key ⊕ opad）状态，每个线程的实例以复制状态的方式开始每一次计算，不再重复处理密钥；
+   * 不支持复制状态（Memoable）的散列算法（如 SHA-3）每个线程以 BouncyCastle 的 HMac 处理一次密钥
+   */
+  private fun hmac(key: ByteArray, digest: () -> Digest): () -> Mac {
+    val sample = digest()
+    if (sample !is Memoable || sample !is ExtendedDigest) {
+      return { HMac(digest()).apply { init(KeyParameter(key)) } }
+    }
+
+    val blockSize = sample.byteLength
+    val block = ByteArray(blockSize)
+    if (key.size > blockSize) {
+      sample.update(key, 0, key.size)
+      sample.doFinal(block, 0)
+    } else {
+      System.arraycopy(key, 0, block, 0, key.size)
+    }
+
+    val inner = pad(digest(), block, IPAD)
+    val outer = pad(digest(), block, OPAD)
+    block.fill(0)
+    return { PrecomputedHMac(digest(), digest(), inner, outer) }
+  }
+
+  private const val IPAD = 0x36
+  private const val OPAD = 0x5c
+
+  private fun pad(digest: Digest, block: ByteArray, pad: Int): Memoable {
+    val padded = ByteArray(block.size) { (block[it].toInt() xor pad).toByte() }
+    digest.update(padded, 0, padded.size)
+    padded.fill(0)
+    return (digest as Memoable).copy()
+  }
+
+  private fun blake2b(key: ByteArray, bits: Int): () -> Mac {
+    (key.isEmpty() || key.size > 64).throwRuntimeIf { ArgumentsException("Hash - BLAKE2B 密钥须为1至64字节") }
+    return { DigestMac(Blake2bDigest(key, bits / 8, null, null)) }
+  }
+
+  private fun blake2s(key: ByteArray, bits: Int): () -> Mac {
+    (key.isEmpty() || key.size > 32).throwRuntimeIf { ArgumentsException("Hash - BLAKE2S 密钥须为1至32字节") }
+    return { DigestMac(Blake2sDigest(key, bits / 8, null, null)) }
+  }
+
+  private fun blake3(key: ByteArray): () -> Mac {
+    (key.size != 32).throwRuntimeIf { ArgumentsException("Hash - BLAKE3 密钥须为32字节") }
+    return { Blake3Mac(Blake3Digest()).apply { init(KeyParameter(key)) } }
+  }
+
+  /**
+   * KMAC 的密钥在每次计算开始时由 BouncyCastle 重新吸收（一个分组），每个线程的实例只创建一次
+   */
+  private fun kmac(key: ByteArray, bits: Int): () -> Mac =
+    { KMAC(bits, null).apply { init(KeyParameter(key)) } }
+
+  /**
+   * 消息认证码算法
+   *
+   * @property keyed 处理密钥，返回创建（各线程的）已带密钥的算法实例的函数
+   */
+  enum class Algorithms(internal val keyed: (ByteArray) -> () -> Mac) {
+    HMAC_MD5({ hmac(it) { MD5Digest() } }),
+    HMAC_RIPEMD_160({ hmac(it) { RIPEMD160Digest() } }),
+    HMAC_SM3({ hmac(it) { SM3Digest() } }),
+    HMAC_SHA2_224({ hmac(it) { SHA224Digest() } }),
+    HMAC_SHA2_256({ hmac(it) { SHA256Digest() } }),
+    HMAC_SHA2_384({ hmac(it) { SHA384Digest() } }),
+    HMAC_SHA2_512({ hmac(it) { SHA512Digest() } }),
+    HMAC_SHA3_224({ hmac(it) { SHA3Digest(224) } }),
+    HMAC_SHA3_256({ hmac(it) { SHA3Digest(256) } }),
+    HMAC_SHA3_384({ hmac(it) { SHA3Digest(384) } }),
+    HMAC_SHA3_512({ hmac(it) { SHA3Digest(512) } }),
+    BLAKE2B_256({ blake2b(it, 256) }),
+    BLAKE2B_512({ blake2b(it, 512) }),
+    BLAKE2S_256({ blake2s(it, 256) }),
+    BLAKE3({ blake3(it) }),
+    KMAC_128({ kmac(it, 128) }),
+    KMAC_256({ kmac(it, 256) })
+  }
+
+  /**
+   * 以预先计算的内外层状态实现的 HMAC，[doFinal] 后回到内层的初始状态
+   */
+  private class PrecomputedHMac(
+    private val inner: Digest,
+    private val outer: Digest,
+    private val innerState: Memoable,
+    private val outerState: Memoable
+  ) : Mac {
+
+    private val innerResult = ByteArray(inner.digestSize)
+
+    init {
+      reset()
+    }
+
+    override fun init(params: CipherParameters?) {
+      throw UnsupportedOperationException("密钥已在创建时处理")
+    }
+
+    override fun getAlgorithmName(): String =
+      "${inner.algorithmName}/HMAC"
+
+    override fun getMacSize(): Int =
+      outer.digestSize
+
+    override fun update(b: Byte) {
+      inner.update(b)
+    }
+
+    override fun update(bytes: ByteArray, offset: Int, length: Int) {
+      inner.update(bytes, offset, length)
+    }
+
+    override fun doFinal(out: ByteArray, outOff: Int): Int {
+      inner.doFinal(innerResult, 0)
+      (outer as Memoable).reset(outerState)
+      outer.update(innerResult, 0, innerResult.size)
+      val length = outer.doFinal(out, outOff)
+      reset()
+      return length
+    }
+
+    override fun reset() {
+      (inner as Memoable).reset(innerState)
+    }
+  }
+
+  /**
+   * 将带密钥模式的散列算法（BLAKE2）适配为 Mac，算法的 reset 保留密钥
+   */
+  private class DigestMac(private val digest: Digest) : Mac {
+
+    override fun init(params: CipherParameters?) {
+      throw UnsupportedOperationException("密钥已在创建时处理")
+    }
+
+    override fun getAlgorithmName(): String =
+      "${digest.algorithmName}/MAC"
+
+    override fun getMacSize(): Int =
+      digest.digestSize
+
+    override fun update(b: Byte) {
+      digest.update(b)
+    }
+
+    override fun update(bytes: ByteArray, offset: Int, length: Int) {
+      digest.update(bytes, offset, length)
+    }
+
+    override fun doFinal(out: ByteArray, outOff: Int): Int =
+      digest.doFinal(out, outOff)
+
+    override fun reset() {
+      digest.reset()
+    }
+  }
+}
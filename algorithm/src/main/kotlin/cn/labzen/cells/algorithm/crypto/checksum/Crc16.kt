@@ -1,7 +1,9 @@
-@file:Suppress("DuplicatedCode", "unused")
+@file:Suppress("unused")
 
 package cn.labzen.cells.algorithm.crypto.checksum
 
+import java.nio.ByteBuffer
+
 /**
  * CRC-16 循环冗余校验
  *
@@ -26,6 +28,9 @@ package cn.labzen.cells.algorithm.crypto.checksum
  *
  * 以上计算步骤中的多项式0xA001是0x8005按位颠倒后的结果。0x8408是0x1021按位颠倒后的结果。
  *
+ * 实现上，每种算法（[Variant]）预先计算好256项的表，每个字节只需一次查表，不再逐位移位；除整个字节数组外，
+ * 也可以计算字节数组的一段或 ByteBuffer（不改变其 position），数据分多次到达时（如分片到达的通讯帧）使用 [State] 逐段累计
+ *
  * 在线校验工具
  * - http://www.ip33.com/crc.html
  * - https://blog.csdn.net/htmlxx/article/details/17369105
@@ -34,195 +39,277 @@ package cn.labzen.cells.algorithm.crypto.checksum
  */
 object Crc16 {
 
-  private const val VALUE_00 = 0x0000
-  private const val VALUE_01 = 0x0001
-  private const val VALUE_0F = 0x00ff
-  private const val VALUE_FF = 0xffff
-  private const val POLY_8408 = 0x8408
-  private const val POLY_1021 = 0x1021
-  private const val POLY_A001 = 0xa001
-  private const val POLY_A6BC = 0xa6bc
-
   /**
    * CRC16_CCITT：多项式x16+x12+x5+1（0x1021），初始值0x0000，低位在前，高位在后，结果与0x0000异或
    * 0x8408是0x1021按位颠倒后的结果。
    */
-  fun ccitt(buffer: ByteArray): Int {
-    var wCRCin = VALUE_00
-    for (b in buffer) {
-      wCRCin = wCRCin xor (b.toInt() and VALUE_0F)
-      for (j in 0..7) {
-        if (wCRCin and VALUE_01 != 0) {
-          wCRCin = wCRCin shr 1
-          wCRCin = wCRCin xor POLY_8408
-        } else {
-          wCRCin = wCRCin shr 1
-        }
-      }
-    }
-    return VALUE_00.let { wCRCin = wCRCin xor it; wCRCin }
-  }
+  @JvmStatic
+  @JvmOverloads
+  fun ccitt(buffer: ByteArray, offset: Int = 0, length: Int = buffer.size - offset): Int =
+    Variant.CCITT.compute(buffer, offset, length)
+
+  @JvmStatic
+  fun ccitt(buffer: ByteBuffer): Int =
+    Variant.CCITT.compute(buffer)
 
   /**
    * CRC-CCITT (0xFFFF)
    * CRC16_CCITT_FALSE：多项式x16+x12+x5+1（0x1021），初始值0xFFFF，低位在后，高位在前，结果与0x0000异或
    */
-  fun ccittWithFalse(buffer: ByteArray): Int {
-    var wCRCin = VALUE_FF
-    for (b in buffer) {
-      for (i in 0..7) {
-        val bit = b.toInt() shr 7 - i and 1 == 1
-        val c15 = wCRCin shr 15 and 1 == 1
-        wCRCin = wCRCin shl 1
-        if (c15 xor bit) {
-          wCRCin = wCRCin xor POLY_1021
-        }
-      }
-    }
-    wCRCin = wCRCin and VALUE_FF
-    return VALUE_00.let { wCRCin = wCRCin xor it; wCRCin }
-  }
+  @JvmStatic
+  @JvmOverloads
+  fun ccittWithFalse(buffer: ByteArray, offset: Int = 0, length: Int = buffer.size - offset): Int =
+    Variant.CCITT_FALSE.compute(buffer, offset, length)
 
+  @JvmStatic
+  fun ccittWithFalse(buffer: ByteBuffer): Int =
+    Variant.CCITT_FALSE.compute(buffer)
 
   /**
    * CRC-CCITT (XModem)
    * CRC16_XMODEM：多项式x16+x12+x5+1（0x1021），初始值0x0000，低位在后，高位在前，结果与0x0000异或
    */
-  fun xmodem(buffer: ByteArray): Int {
-    var wCRCin = VALUE_00
-    for (b in buffer) {
-      for (i in 0..7) {
-        val bit = b.toInt() shr 7 - i and 1 == 1
-        val c15 = wCRCin shr 15 and 1 == 1
-        wCRCin = wCRCin shl 1
-        if (c15 xor bit) {
-          wCRCin = wCRCin xor POLY_1021
-        }
-      }
-    }
-    wCRCin = wCRCin and VALUE_FF
-    return VALUE_00.let { wCRCin = wCRCin xor it; wCRCin }
-  }
+  @JvmStatic
+  @JvmOverloads
+  fun xmodem(buffer: ByteArray, offset: Int = 0, length: Int = buffer.size - offset): Int =
+    Variant.XMODEM.compute(buffer, offset, length)
+
+  @JvmStatic
+  fun xmodem(buffer: ByteBuffer): Int =
+    Variant.XMODEM.compute(buffer)
 
   /**
    * CRC16_X25：多项式x16+x12+x5+1（0x1021），初始值0xffff，低位在前，高位在后，结果与0xFFFF异或
    * 0x8408是0x1021按位颠倒后的结果。
    */
-  fun x25(buffer: ByteArray): Int {
-    var wCRCin = VALUE_FF
-    for (b in buffer) {
-      wCRCin = wCRCin xor (b.toInt() and VALUE_0F)
-      for (j in 0..7) {
-        if (wCRCin and VALUE_01 != 0) {
-          wCRCin = wCRCin shr 1
-          wCRCin = wCRCin xor POLY_8408
-        } else {
-          wCRCin = wCRCin shr 1
-        }
-      }
-    }
-    return VALUE_FF.let { wCRCin = wCRCin xor it; wCRCin }
-  }
+  @JvmStatic
+  @JvmOverloads
+  fun x25(buffer: ByteArray, offset: Int = 0, length: Int = buffer.size - offset): Int =
+    Variant.X25.compute(buffer, offset, length)
+
+  @JvmStatic
+  fun x25(buffer: ByteBuffer): Int =
+    Variant.X25.compute(buffer)
 
   /**
    * CRC-16 (Modbus)
    * CRC16_MODBUS：多项式x16+x15+x2+1（0x8005），初始值0xFFFF，低位在前，高位在后，结果与0x0000异或
    * 0xA001是0x8005按位颠倒后的结果
    */
-  fun modbus(buffer: ByteArray): Int {
-    var wCRCin = VALUE_FF
-    for (b in buffer) {
-      wCRCin = wCRCin xor (b.toInt() and VALUE_0F)
-      for (j in 0..7) {
-        if (wCRCin and VALUE_01 != 0) {
-          wCRCin = wCRCin shr 1
-          wCRCin = wCRCin xor POLY_A001
-        } else {
-          wCRCin = wCRCin shr 1
-        }
-      }
-    }
-    return VALUE_00.let { wCRCin = wCRCin xor it; wCRCin }
-  }
+  @JvmStatic
+  @JvmOverloads
+  fun modbus(buffer: ByteArray, offset: Int = 0, length: Int = buffer.size - offset): Int =
+    Variant.MODBUS.compute(buffer, offset, length)
+
+  @JvmStatic
+  fun modbus(buffer: ByteBuffer): Int =
+    Variant.MODBUS.compute(buffer)
 
   /**
    * CRC-16
    * CRC16_IBM：多项式x16+x15+x2+1（0x8005），初始值0x0000，低位在前，高位在后，结果与0x0000异或
    * 0xA001是0x8005按位颠倒后的结果
    */
-  fun ibm(buffer: ByteArray): Int {
-    var wCRCin = VALUE_00
-    for (b in buffer) {
-      wCRCin = wCRCin xor (b.toInt() and VALUE_0F)
-      for (j in 0..7) {
-        if (wCRCin and VALUE_01 != 0) {
-          wCRCin = wCRCin shr 1
-          wCRCin = wCRCin xor POLY_A001
-        } else {
-          wCRCin = wCRCin shr 1
-        }
-      }
-    }
-    return VALUE_00.let { wCRCin = wCRCin xor it; wCRCin }
-  }
+  @JvmStatic
+  @JvmOverloads
+  fun ibm(buffer: ByteArray, offset: Int = 0, length: Int = buffer.size - offset): Int =
+    Variant.IBM.compute(buffer, offset, length)
+
+  @JvmStatic
+  fun ibm(buffer: ByteBuffer): Int =
+    Variant.IBM.compute(buffer)
 
   /**
    * CRC16_MAXIM：多项式x16+x15+x2+1（0x8005），初始值0x0000，低位在前，高位在后，结果与0xFFFF异或
    * 0xA001是0x8005按位颠倒后的结果
    */
-  fun maxim(buffer: ByteArray): Int {
-    var wCRCin = VALUE_00
-    for (b in buffer) {
-      wCRCin = wCRCin xor (b.toInt() and VALUE_0F)
-      for (j in 0..7) {
-        if (wCRCin and VALUE_01 != 0) {
-          wCRCin = wCRCin shr 1
-          wCRCin = wCRCin xor POLY_A001
-        } else {
-          wCRCin = wCRCin shr 1
-        }
-      }
-    }
-    return VALUE_FF.let { wCRCin = wCRCin xor it; wCRCin }
-  }
+  @JvmStatic
+  @JvmOverloads
+  fun maxim(buffer: ByteArray, offset: Int = 0, length: Int = buffer.size - offset): Int =
+    Variant.MAXIM.compute(buffer, offset, length)
+
+  @JvmStatic
+  fun maxim(buffer: ByteBuffer): Int =
+    Variant.MAXIM.compute(buffer)
 
   /**
    * CRC16_USB：多项式x16+x15+x2+1（0x8005），初始值0xFFFF，低位在前，高位在后，结果与0xFFFF异或
    * 0xA001是0x8005按位颠倒后的结果
    */
-  fun usb(buffer: ByteArray): Int {
-    var wCRCin = VALUE_FF
-    for (b in buffer) {
-      wCRCin = wCRCin xor (b.toInt() and VALUE_0F)
-      for (j in 0..7) {
-        if (wCRCin and VALUE_01 != 0) {
-          wCRCin = wCRCin shr 1
-          wCRCin = wCRCin xor POLY_A001
-        } else {
-          wCRCin = wCRCin shr 1
-        }
-      }
-    }
-    return 0xffff.let { wCRCin = wCRCin xor it; wCRCin }
-  }
+  @JvmStatic
+  @JvmOverloads
+  fun usb(buffer: ByteArray, offset: Int = 0, length: Int = buffer.size - offset): Int =
+    Variant.USB.compute(buffer, offset, length)
+
+  @JvmStatic
+  fun usb(buffer: ByteBuffer): Int =
+    Variant.USB.compute(buffer)
 
   /**
    * CRC16_DNP：多项式x16+x13+x12+x11+x10+x8+x6+x5+x2+1（0x3D65），初始值0x0000，低位在前，高位在后，结果与0xFFFF异或
    * 0xA6BC是0x3D65按位颠倒后的结果
    */
-  fun dnp(buffer: ByteArray): Int {
-    var wCRCin = VALUE_00
-    for (b in buffer) {
-      wCRCin = wCRCin xor (b.toInt() and VALUE_0F)
-      for (j in 0..7) {
-        if (wCRCin and VALUE_01 != 0) {
-          wCRCin = wCRCin shr 1
-          wCRCin = wCRCin xor POLY_A6BC
-        } else {
-          wCRCin = wCRCin shr 1
+  @JvmStatic
+  @JvmOverloads
+  fun dnp(buffer: ByteArray, offset: Int = 0, length: Int = buffer.size - offset): Int =
+    Variant.DNP.compute(buffer, offset, length)
+
+  @JvmStatic
+  fun dnp(buffer: ByteBuffer): Int =
+    Variant.DNP.compute(buffer)
+
+  /**
+   * CRC-16 算法的参数，及由其预先计算的表
+   *
+   * @param poly Int 多项式（未颠倒）
+   * @param initial Int 初始值
+   * @param reflected Boolean 是否低位在前（输入、输出均按位颠倒）
+   * @param xorOut Int 结果与之异或的值
+   */
+  enum class Variant(poly: Int, internal val initial: Int, private val reflected: Boolean, private val xorOut: Int) {
+    CCITT(0x1021, 0x0000, true, 0x0000),
+    CCITT_FALSE(0x1021, 0xFFFF, false, 0x0000),
+    XMODEM(0x1021, 0x0000, false, 0x0000),
+    X25(0x1021, 0xFFFF, true, 0xFFFF),
+    MODBUS(0x8005, 0xFFFF, true, 0x0000),
+    IBM(0x8005, 0x0000, true, 0x0000),
+    MAXIM(0x8005, 0x0000, true, 0xFFFF),
+    USB(0x8005, 0xFFFF, true, 0xFFFF),
+    DNP(0x3D65, 0x0000, true, 0xFFFF);
+
+    private val table = IntArray(256).also { table ->
+      // 低位在前时使用按位颠倒后的多项式，如0x8005颠倒为0xA001
+      val reversed = Integer.reverse(poly) ushr 16
+      for (i in 0..255) {
+        var crc = if (reflected) i else i shl 8
+        repeat(8) {
+          crc = if (reflected) {
+            if (crc and 1 != 0) (crc ushr 1) xor reversed else crc ushr 1
+          } else {
+            if (crc and 0x8000 != 0) (crc shl 1) xor poly else crc shl 1
+          }
+        }
+        table[i] = crc and 0xFFFF
+      }
+    }
+
+    /**
+     * 以寄存器的当前值 crc 继续计算一个字节，返回寄存器的新值
+     */
+    internal fun update(crc: Int, b: Int): Int =
+      if (reflected) {
+        (crc ushr 8) xor table[(crc xor b) and 0xFF]
+      } else {
+        ((crc shl 8) xor table[((crc ushr 8) xor b) and 0xFF]) and 0xFFFF
+      }
+
+    /**
+     * 以寄存器的当前值 crc 继续计算字节数组的一段，返回寄存器的新值
+     */
+    internal fun update(crc: Int, buffer: ByteArray, offset: Int, length: Int): Int {
+      var value = crc
+      if (reflected) {
+        for (i in offset until offset + length) {
+          value = (value ushr 8) xor table[(value xor buffer[i].toInt()) and 0xFF]
         }
+      } else {
+        for (i in offset until offset + length) {
+          value = ((value shl 8) xor table[((value ushr 8) xor buffer[i].toInt()) and 0xFF]) and 0xFFFF
+        }
+      }
+      return value
+    }
+
+    /**
+     * 以寄存器的当前值 crc 继续计算 ByteBuffer 中 position 到 limit 之间的数据（不改变 position），返回寄存器的新值
+     */
+    internal fun update(crc: Int, buffer: ByteBuffer): Int {
+      if (buffer.hasArray()) {
+        return update(crc, buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining())
       }
+
+      var value = crc
+      if (reflected) {
+        for (i in buffer.position() until buffer.limit()) {
+          value = (value ushr 8) xor table[(value xor buffer.get(i).toInt()) and 0xFF]
+        }
+      } else {
+        for (i in buffer.position() until buffer.limit()) {
+          value = ((value shl 8) xor table[((value ushr 8) xor buffer.get(i).toInt()) and 0xFF]) and 0xFFFF
+        }
+      }
+      return value
+    }
+
+    internal fun finish(crc: Int): Int =
+      crc xor xorOut
+
+    /**
+     * 计算字节数组的一段
+     */
+    @JvmOverloads
+    fun compute(buffer: ByteArray, offset: Int = 0, length: Int = buffer.size - offset): Int =
+      finish(update(initial, buffer, offset, length))
+
+    /**
+     * 计算 ByteBuffer 中 position 到 limit 之间的数据，不改变 position
+     */
+    fun compute(buffer: ByteBuffer): Int =
+      finish(update(initial, buffer))
+
+    /**
+     * 创建可分段累计的计算状态
+     */
+    fun state(): State =
+      State(this)
+  }
+
+  /**
+   * 可分段累计的 CRC-16 计算状态，用于数据分多次到达的场景，例如分片到达的通讯帧；分段计算的结果与一次性计算整段数据相同
+   *
+   * 状态不是线程安全的；[reset] 后可复用于下一帧
+   */
+  class State internal constructor(private val variant: Variant) {
+
+    private var crc = variant.initial
+
+    /**
+     * 累计字节数组的一段
+     */
+    @JvmOverloads
+    fun update(buffer: ByteArray, offset: Int = 0, length: Int = buffer.size - offset): State {
+      crc = variant.update(crc, buffer, offset, length)
+      return this
+    }
+
+    /**
+     * 累计 ByteBuffer 中 position 到 limit 之间的数据，返回时 position 等于 limit
+     */
+    fun update(buffer: ByteBuffer): State {
+      crc = variant.update(crc, buffer)
+      buffer.position(buffer.limit())
+      return this
+    }
+
+    /**
+     * 累计一个字节
+     */
+    fun update(b: Byte): State {
+      crc = variant.update(crc, b.toInt())
+      return this
+    }
+
+    /**
+     * 已累计数据的 CRC 值，不影响后续累计
+     */
+    fun value(): Int =
+      variant.finish(crc)
+
+    /**
+     * 丢弃已累计的数据
+     */
+    fun reset() {
+      crc = variant.initial
     }
-    return 0xffff.let { wCRCin = wCRCin xor it; wCRCin }
   }
 }
@@ -22,26 +22,68 @@ package net.jacksum;
 
 import net.jacksum.algorithms.AbstractChecksum;
 import net.jacksum.selectors.Selector;
-import net.jacksum.selectors.SelectorInterface;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.Set;
+import java.util.function.Supplier;
 
-import static net.jacksum.selectors.Selectors.allSelectorClasses;
+import static net.jacksum.selectors.Selectors.allSelectors;
 
 /**
  * HashFunctionFactory
+ * <p>
+ * All algorithm names and aliases are indexed once when the class is
+ * initialized. The index is immutable, so lookups are thread-safe without
+ * any lock, and creating an implementation only instantiates one lightweight
+ * selector by a constructor reference, without reflection.
  */
 public class HashFunctionFactory {
 
-  private static final Map<String, Class<?>> cacheOfSelectorClasses = new HashMap<>();
+  // algorithm name or alias -> the factory of the responsible selector
+  private static final Map<String, Supplier<Selector>> registry;
+
+  // selectors which match names by a pattern rather than by a fixed list (e.g. "a+b" or "crc:..."),
+  // they are only tried if the name is not registered
+  private static final List<Supplier<Selector>> patternSelectors;
+
+  static {
+    Map<String, Supplier<Selector>> names = new HashMap<>();
+    List<Supplier<Selector>> patterns = new ArrayList<>();
+    for (Supplier<Selector> factory : allSelectors) {
+      Selector selector = factory.get();
+      Map<String, String> algorithms = selector.getAvailableAlgorithms();
+      if (algorithms == null) {
+        patterns.add(factory);
+        continue;
+      }
+      // the first selector in the list wins, as it did when the selectors were searched one by one
+      for (String name : algorithms.keySet()) {
+        names.putIfAbsent(name, factory);
+      }
+      Map<String, String> aliases = selector.getAvailableAliases();
+      if (aliases != null) {
+        for (String alias : aliases.keySet()) {
+          names.putIfAbsent(alias, factory);
+        }
+      }
+    }
+    registry = Collections.unmodifiableMap(names);
+    patternSelectors = Collections.unmodifiableList(patterns);
+  }
 
-  private static final boolean cacheOfSelectorClassesEnabled = true;
+  /**
+   * Get all registered algorithm names and aliases.
+   *
+   * @return an immutable set of names
+   */
+  public static Set<String> getAvailableNames() {
+    return registry.keySet();
+  }
 
   /**
    * Get a hash function.
@@ -55,51 +97,31 @@ public class HashFunctionFactory {
   }
 
   public static AbstractChecksum getHashFunction(String algorithm, boolean alternate) throws NoSuchAlgorithmException {
-
-    // construct an array of classes so that we can iterate over it
-    Class<?>[] arrayOfSelectorClasses;
-    if (cacheOfSelectorClasses.containsKey(algorithm)) {
-      arrayOfSelectorClasses = new Class[1];
-      arrayOfSelectorClasses[0] = cacheOfSelectorClasses.get(algorithm);
-    } else {
-      arrayOfSelectorClasses = allSelectorClasses;
+    Supplier<Selector> factory = registry.get(algorithm);
+    if (factory != null) {
+      Selector selector = factory.get();
+      selector.setName(algorithm);
+      // resolves an alias to the actual name
+      selector.doesMatch(algorithm);
+      return getImplementation(selector, alternate);
     }
 
-    for (Class<?> selectorClass : arrayOfSelectorClasses) {
-      try {
-        Constructor<?> constructor = selectorClass.getConstructor();
-        SelectorInterface selector = (Selector) constructor.newInstance();
-
-        selector.setName(algorithm);
-        //System.out.println(selector);
-
-        if (selector.doesMatch(algorithm)) {
-          AbstractChecksum checksum = selector.getImplementation(alternate);
-          checksum.setActualAlternateImplementationUsed(selector.isActualAlternateImplementationUsed());
-          checksum.setName(selector.getName());
-
-          if (cacheOfSelectorClassesEnabled) {
-            // fill the cache with the algorithm that we have just found
-            // in order to save time the next time the same request comes along
-            cacheOfSelectorClasses.put(selector.getName(), selectorClass);
-
-            // and if the selector has aliases for us, put them to the cache as well
-            Map<String, String> aliases = selector.getAvailableAliases();
-
-            if (aliases != null) {
-              for (String key : aliases.keySet()) {
-                cacheOfSelectorClasses.put(key, selectorClass);
-              }
-            }
-          }
-          return checksum;
-        }
-      } catch (NoSuchMethodException | SecurityException | InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException ex) {
-        Logger.getLogger(HashFunctionFactory.class.getName()).log(Level.SEVERE, null, ex);
+    for (Supplier<Selector> pattern : patternSelectors) {
+      Selector selector = pattern.get();
+      selector.setName(algorithm);
+      if (selector.doesMatch(algorithm)) {
+        return getImplementation(selector, alternate);
       }
     }
     throw new NoSuchAlgorithmException(algorithm + " is an unknown algorithm.");
+  }
 
+  private static AbstractChecksum getImplementation(Selector selector, boolean alternate)
+      throws NoSuchAlgorithmException {
+    AbstractChecksum checksum = selector.getImplementation(alternate);
+    checksum.setActualAlternateImplementationUsed(selector.isActualAlternateImplementationUsed());
+    checksum.setName(selector.getName());
+    return checksum;
   }
 
 }
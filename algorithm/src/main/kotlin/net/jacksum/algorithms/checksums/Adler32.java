@@ -24,6 +24,8 @@ package net.jacksum.algorithms.checksums;
 
 import net.jacksum.algorithms.AbstractChecksum;
 
+import java.nio.ByteBuffer;
+
 /**
  * A class that can be used to compute the Adler32 of a data stream.
  * This implementation uses the class java.util.zip.Adler32 from the Java Standard API.
@@ -51,6 +53,17 @@ public class Adler32 extends AbstractChecksum {
     this.length += length;
   }
 
+  /**
+   * Updates the checksum directly from the ByteBuffer, the JDK processes
+   * direct buffers without copying them to a byte array first.
+   */
+  @Override
+  public void update(ByteBuffer byteBuffer, boolean ignorePointers) {
+    ByteBuffer buffer = ignorePointers ? byteBuffer.duplicate().clear() : byteBuffer;
+    length += buffer.remaining();
+    adler32.update(buffer);
+  }
+
   @Override
   public void update(int b) {
     adler32.update(b);
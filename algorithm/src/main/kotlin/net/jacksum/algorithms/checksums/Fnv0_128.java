@@ -0,0 +1,84 @@
+/*
+
+
+  Jacksum 3.2.0 - a checksum utility in Java
+  Copyright (c) 2001-2022 Dipl.-Inf. (FH) Johann N. Löfflmann,
+  All Rights Reserved, <https://jacksum.net>.
+
+  This program is free software: you can redistribute it and/or modify it under
+  the terms of the GNU General Public License as published by the Free Software
+  Foundation, either version 3 of the License, or (at your option) any later
+  version.
+
+  This program is distributed in the hope that it will be useful, but WITHOUT
+  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+  FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+  details.
+
+  You should have received a copy of the GNU General Public License along with
+  this program. If not, see <https://www.gnu.org/licenses/>.
+
+
+ */
+package net.jacksum.algorithms.checksums;
+
+import net.jacksum.algorithms.AbstractChecksum;
+
+/**
+ * FNV-0 with 128 bits, computed in two longs rather than a BigInteger.
+ * The prime is 2^88 + 0x13b, the product is reduced mod 2^128 by simply
+ * dropping everything above the high long.
+ */
+public class Fnv0_128 extends AbstractChecksum {
+
+  protected static final long PRIME_HIGH = 1L << 24;
+  protected static final long PRIME_LOW = 0x13bL;
+  protected long high;
+  protected long low;
+
+  public Fnv0_128() {
+    super();
+    bitWidth = 128;
+  }
+
+  @Override
+  public void reset() {
+    high = 0;
+    low = 0;
+    length = 0;
+  }
+
+  /**
+   * (high, low) = (high, low) * prime mod 2^128
+   */
+  protected void multiply() {
+    // unsigned high part of low * PRIME_LOW, the correction is required since low is signed
+    long carry = Math.multiplyHigh(low, PRIME_LOW) + ((low >> 63) & PRIME_LOW);
+    high = carry + high * PRIME_LOW + low * PRIME_HIGH;
+    low = low * PRIME_LOW;
+  }
+
+  @Override
+  public void update(byte[] bytes, int offset, int length) {
+    for (int i = offset; i < length + offset; i++) {
+      multiply();
+      low ^= (bytes[i] & 0xFF);
+    }
+    this.length += length;
+  }
+
+  @Override
+  public byte[] getByteArray() {
+    byte[] target = new byte[16];
+    long val = low;
+    for (int i = 15; i >= 8; i--, val >>>= 8) {
+      target[i] = (byte) val;
+    }
+    val = high;
+    for (int i = 7; i >= 0; i--, val >>>= 8) {
+      target[i] = (byte) val;
+    }
+    return target;
+  }
+
+}
@@ -0,0 +1,70 @@
+/*
+
+
+  Jacksum 3.2.0 - a checksum utility in Java
+  Copyright (c) 2001-2022 Dipl.-Inf. (FH) Johann N. Löfflmann,
+  All Rights Reserved, <https://jacksum.net>.
+
+  This program is free software: you can redistribute it and/or modify it under
+  the terms of the GNU General Public License as published by the Free Software
+  Foundation, either version 3 of the License, or (at your option) any later
+  version.
+
+  This program is distributed in the hope that it will be useful, but WITHOUT
+  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+  FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+  details.
+
+  You should have received a copy of the GNU General Public License along with
+  this program. If not, see <https://www.gnu.org/licenses/>.
+
+
+ */
+package net.jacksum.algorithms.checksums;
+
+import net.jacksum.algorithms.AbstractChecksum;
+
+/**
+ * FNV-0 with 64 bits, computed in a plain long rather than a BigInteger.
+ */
+public class Fnv0_64 extends AbstractChecksum {
+
+  protected final long PRIME = 0x100000001b3L;
+  protected long value;
+
+  public Fnv0_64() {
+    super();
+    bitWidth = 64;
+  }
+
+  @Override
+  public void reset() {
+    value = 0;
+    length = 0;
+  }
+
+  @Override
+  public void update(byte[] bytes, int offset, int length) {
+    for (int i = offset; i < length + offset; i++) {
+      value = value * PRIME;
+      value ^= (bytes[i] & 0xFF);
+    }
+    this.length += length;
+  }
+
+  @Override
+  public long getValue() {
+    return value;
+  }
+
+  @Override
+  public byte[] getByteArray() {
+    byte[] target = new byte[8];
+    long val = value;
+    for (int i = target.length - 1; i >= 0; i--, val >>>= 8) {
+      target[i] = (byte) val;
+    }
+    return target;
+  }
+
+}
@@ -27,12 +27,22 @@ import net.jacksum.algorithms.AbstractChecksum;
 import java.math.BigInteger;
 import java.security.NoSuchAlgorithmException;
 
+/**
+ * FNV-0 with 32 to 1024 bits. The value is kept in 32 bit limbs (stored in
+ * longs, least significant limb first), so that no object is allocated per
+ * input byte. Every FNV prime has the form 2^shift + 2^8 + c with c &lt; 256,
+ * therefore the multiplication is a small multiplication plus a shifted add.
+ * Use Fnv0_32, Fnv0_64 or Fnv0_128 for those widths, they are faster.
+ */
 public class Fnv0_n extends AbstractChecksum {
 
-  protected BigInteger prime;
-  protected BigInteger value = BigInteger.ZERO;
-  protected BigInteger modulo;
-  BigInteger[] BIG;
+  private static final long MASK = 0xFFFFFFFFL;
+
+  protected long[] value;   // the current value
+  private long[] product;   // the next value, swapped with value after each multiplication
+  protected long[] init;    // the initial value
+  private int shift;        // the prime is 2^shift + factor
+  private long factor;
   //protected int width = 0;
   int targetsize = 0; // in bytes
 
@@ -56,90 +66,126 @@ public class Fnv0_n extends AbstractChecksum {
       throw new NoSuchAlgorithmException("Unknown algorithm: width " + width + " is not supported.");
     }
     this.bitWidth = width;
-    BIG = new BigInteger[256];
-    for (int i = 0; i < BIG.length; i++) {
-      BIG[i] = BigInteger.valueOf(i);
-    }
-    BigInteger TWO = BIG[2]; // BigInteger.valueOf(2);
-    modulo = TWO.pow(width);
     switch (width) {
       case 32:
-        targetsize = 4;
-        prime = TWO.pow(24);
-        prime = prime.add(TWO.pow(8));
-        prime = prime.add(BIG[0x93]);
         // prime = 16777619
+        shift = 24;
+        factor = 0x193;
         break;
       case 64:
-        targetsize = 8;
-        prime = TWO.pow(40);
-        prime = prime.add(TWO.pow(8));
-        prime = prime.add(BIG[0xb3]);
         // prime = 1099511628211
+        shift = 40;
+        factor = 0x1b3;
         break;
       case 128:
-        targetsize = 16;
-        prime = TWO.pow(88);
-        prime = prime.add(TWO.pow(8));
-        prime = prime.add(BIG[0x3b]);
         // prime = 309485009821345068724781371
+        shift = 88;
+        factor = 0x13b;
         break;
       case 256:
-        targetsize = 32;
-        prime = TWO.pow(168);
-        prime = prime.add(TWO.pow(8));
-        prime = prime.add(BIG[0x63]);
+        shift = 168;
+        factor = 0x163;
         break;
       case 512:
-        targetsize = 64;
-        prime = TWO.pow(344);
-        prime = prime.add(TWO.pow(8));
-        prime = prime.add(BIG[0x57]);
+        shift = 344;
+        factor = 0x157;
         break;
       case 1024:
-        targetsize = 128;
-        prime = TWO.pow(680);
-        prime = prime.add(TWO.pow(8));
-        prime = prime.add(BIG[0x8d]);
+        shift = 680;
+        factor = 0x18d;
         break;
       default:
         throw new NoSuchAlgorithmException("Unknown algorithm: width " + width + " is not supported.");
     }
+    targetsize = width / 8;
+    value = new long[width / 32];
+    product = new long[width / 32];
+    init = new long[width / 32];
+  }
+
+  /**
+   * Converts a non-negative number to limbs
+   *
+   * @param number the number
+   * @param limbs  the number of 32 bit limbs
+   * @return the limbs, least significant limb first
+   */
+  protected static long[] toLimbs(BigInteger number, int limbs) {
+    long[] array = new long[limbs];
+    for (int i = 0; i < limbs; i++) {
+      array[i] = number.shiftRight(32 * i).longValue() & MASK;
+    }
+    return array;
+  }
+
+  /**
+   * value = value * prime mod 2^width
+   */
+  protected void multiply() {
+    long[] x = value;
+    long[] r = product;
+    int limbs = x.length;
+
+    // r = x * factor, each limb product is below 2^41
+    long carry = 0;
+    for (int i = 0; i < limbs; i++) {
+      long t = x[i] * factor + carry;
+      r[i] = t & MASK;
+      carry = t >>> 32;
+    }
+
+    // r += x << shift, everything beyond the width is dropped
+    int limbShift = shift >>> 5;
+    int bitShift = shift & 31;
+    carry = 0;
+    for (int i = limbShift; i < limbs; i++) {
+      int j = i - limbShift;
+      long s = x[j] << bitShift;
+      if (j > 0) {
+        s |= x[j - 1] >>> (32 - bitShift);
+      }
+      long t = r[i] + (s & MASK) + carry;
+      r[i] = t & MASK;
+      carry = t >>> 32;
+    }
+
+    value = r;
+    product = x;
   }
 
   @Override
   public void reset() {
-    value = BigInteger.ZERO;
+    System.arraycopy(init, 0, value, 0, value.length);
     length = 0;
   }
 
   @Override
   public void update(byte[] bytes, int offset, int length) {
     for (int i = offset; i < length + offset; i++) {
-      value = value.multiply(prime);
-      value = value.mod(modulo);
-      value = value.xor(BIG[bytes[i] & 0xFF]);
+      multiply();
+      value[0] ^= (bytes[i] & 0xFF);
     }
     this.length += length;
   }
 
+  @Override
+  public long getValue() {
+    if (bitWidth > 64) {
+      return super.getValue();
+    }
+    return bitWidth == 64 ? (value[1] << 32) | value[0] : value[0];
+  }
+
   @Override
   public byte[] getByteArray() {
     byte[] target = new byte[targetsize];
-    byte[] source = value.and(modulo.subtract(BigInteger.ONE)).toByteArray();
-
-    if (source.length > target.length) {
-      int offset = 0;
-      for (int i = 0; i < source.length; i++) {
-        if (source[i] == 0) {
-          offset++;
-        } else {
-          break;
-        }
-      }
-      System.arraycopy(source, offset, target, 0, target.length);
-    } else if (source.length <= target.length) {
-      System.arraycopy(source, 0, target, target.length - source.length, source.length);
+    for (int i = 0; i < value.length; i++) {
+      long limb = value[i];
+      int end = target.length - 4 * i;
+      target[end - 1] = (byte) limb;
+      target[end - 2] = (byte) (limb >>> 8);
+      target[end - 3] = (byte) (limb >>> 16);
+      target[end - 4] = (byte) (limb >>> 24);
     }
     return target;
   }
@@ -0,0 +1,44 @@
+/*
+
+
+  Jacksum 3.2.0 - a checksum utility in Java
+  Copyright (c) 2001-2022 Dipl.-Inf. (FH) Johann N. Löfflmann,
+  All Rights Reserved, <https://jacksum.net>.
+
+  This program is free software: you can redistribute it and/or modify it under
+  the terms of the GNU General Public License as published by the Free Software
+  Foundation, either version 3 of the License, or (at your option) any later
+  version.
+
+  This program is distributed in the hope that it will be useful, but WITHOUT
+  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+  FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+  details.
+
+  You should have received a copy of the GNU General Public License along with
+  this program. If not, see <https://www.gnu.org/licenses/>.
+
+
+ */
+package net.jacksum.algorithms.checksums;
+
+public class Fnv1_128 extends Fnv0_128 {
+
+  // 144066263297769815596495629667062367629
+  protected static final long INIT_HIGH = 0x6c62272e07bb0142L;
+  protected static final long INIT_LOW = 0x62b821756295c58dL;
+
+  public Fnv1_128() {
+    super();
+    high = INIT_HIGH;
+    low = INIT_LOW;
+  }
+
+  @Override
+  public void reset() {
+    high = INIT_HIGH;
+    low = INIT_LOW;
+    length = 0;
+  }
+
+}
@@ -55,13 +55,8 @@ public class Fnv1_n extends Fnv0_n {
       default:
         throw new NoSuchAlgorithmException("Unknown algorithm: width " + bitWidth + " is not supported.");
     }
-    value = INIT;
-  }
-
-  @Override
-  public void reset() {
-    value = INIT;
-    length = 0;
+    init = toLimbs(INIT, bitWidth / 32);
+    reset();
   }
 
 }
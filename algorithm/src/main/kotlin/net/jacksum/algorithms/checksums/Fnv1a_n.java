@@ -33,9 +33,8 @@ public class Fnv1a_n extends Fnv1_n {
   @Override
   public void update(byte[] bytes, int offset, int length) {
     for (int i = offset; i < length + offset; i++) {
-      value = value.xor(BIG[bytes[i] & 0xFF]);
-      value = value.multiply(prime);
-      value = value.mod(modulo);
+      value[0] ^= (bytes[i] & 0xFF);
+      multiply();
     }
     this.length += length;
   }
@@ -28,6 +28,8 @@ package net.jacksum.algorithms.crcs;
 
 import net.jacksum.algorithms.AbstractChecksum;
 
+import java.nio.ByteBuffer;
+
 public class CRC32C extends AbstractChecksum {
 
   private final java.util.zip.CRC32C crc32c;
@@ -50,6 +52,17 @@ public class CRC32C extends AbstractChecksum {
     length += len;
   }
 
+  /**
+   * Updates the checksum directly from the ByteBuffer, the JDK processes
+   * direct buffers without copying them to a byte array first.
+   */
+  @Override
+  public void update(ByteBuffer byteBuffer, boolean ignorePointers) {
+    ByteBuffer buffer = ignorePointers ? byteBuffer.duplicate().clear() : byteBuffer;
+    length += buffer.remaining();
+    crc32c.update(buffer);
+  }
+
   @Override
   public void update(int integer) {
     crc32c.update(integer);
@@ -38,9 +38,20 @@ import net.jacksum.algorithms.AbstractChecksum;
 import org.n16n.sugar.util.ByteSequences;
 
 import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class CrcGeneric extends AbstractChecksum {
 
+  // widths from this value on are processed 16 bytes at a time, narrower ones 8 bytes at a time
+  private static final int SLICING_BY_16_WIDTH = 32;
+
+  // slicing tables only depend on width, poly and refIn, so all instances with the same parameters share them
+  private static final Map<String, long[][]> SLICES = new ConcurrentHashMap<>();
+
+  // operators (GF(2) matrices) for appending 2^k zero bytes, shared the same way as the slicing tables
+  private static final Map<String, long[][]> ZEROS = new ConcurrentHashMap<>();
+
   protected long value;      // the value, must be accessed by subclasses
   private long poly;         // The algorithm's polynomial which is specified without its top bit
   private long initialValue; // Initial register value
@@ -48,6 +59,7 @@ public class CrcGeneric extends AbstractChecksum {
   private boolean refOut;    // Reflect output CRC?
   private long xorOut;       // XOR this to output CRC
   private long[] table;      // Precomputed values
+  private long[][] slices;   // Precomputed values for processing 8 or 16 bytes at a time, shared by equal parameters
   private long topBit;       // Stores the value (2 ^ width)
   private long maskAllBits;  // Stores the value (2 ^ width) - 1
   private long maskHelp;     // Stores the value (2 ^ (width-8)) -1
@@ -494,7 +506,7 @@ public class CrcGeneric extends AbstractChecksum {
   }
 
   /**
-   * Precomputes all 256 values
+   * Precomputes all 256 values, and the tables for slicing-by-8 (widths below 32) or slicing-by-16
    */
   private void fillTable() {
     long remainder;
@@ -528,6 +540,116 @@ public class CrcGeneric extends AbstractChecksum {
       // save the result in the table
       table[dividend] = (remainder & maskAllBits);
     }
+
+    int count = bitWidth >= SLICING_BY_16_WIDTH ? 16 : 8;
+    slices = SLICES.computeIfAbsent(bitWidth + "," + Long.toHexString(poly) + "," + refIn + "," + count,
+        key -> fillSlices(count));
+  }
+
+  /**
+   * Precomputes the tables for slicing-by-8 or slicing-by-16.
+   * slices[k][b] is the CRC (starting with zero) of the byte b followed by k zero bytes.
+   * Without reflection, the values are aligned to the top of a 64 bit register,
+   * so that every width from 8 to 64 can be processed the same way.
+   *
+   * @param count the number of tables, 8 or 16
+   * @return the tables
+   */
+  private long[][] fillSlices(int count) {
+    long[][] t = new long[count][256];
+    int shift = 64 - bitWidth;
+    for (int b = 0; b < 256; b++) {
+      t[0][b] = refIn ? table[b] : table[b] << shift;
+    }
+    for (int k = 1; k < count; k++) {
+      for (int b = 0; b < 256; b++) {
+        long previous = t[k - 1][b];
+        t[k][b] = refIn
+            ? (previous >>> 8) ^ t[0][(int) previous & 0xff]
+            : (previous << 8) ^ t[0][(int) (previous >>> 56)];
+      }
+    }
+    return t;
+  }
+
+  private static long littleEndian(byte[] bytes, int i) {
+    return (bytes[i] & 0xffL)
+        | (bytes[i + 1] & 0xffL) << 8
+        | (bytes[i + 2] & 0xffL) << 16
+        | (bytes[i + 3] & 0xffL) << 24
+        | (bytes[i + 4] & 0xffL) << 32
+        | (bytes[i + 5] & 0xffL) << 40
+        | (bytes[i + 6] & 0xffL) << 48
+        | (bytes[i + 7] & 0xffL) << 56;
+  }
+
+  private static long bigEndian(byte[] bytes, int i) {
+    return (bytes[i] & 0xffL) << 56
+        | (bytes[i + 1] & 0xffL) << 48
+        | (bytes[i + 2] & 0xffL) << 40
+        | (bytes[i + 3] & 0xffL) << 32
+        | (bytes[i + 4] & 0xffL) << 24
+        | (bytes[i + 5] & 0xffL) << 16
+        | (bytes[i + 6] & 0xffL) << 8
+        | (bytes[i + 7] & 0xffL);
+  }
+
+  // the first byte in memory (the lowest one) has the most zero bytes following it
+  private static long foldReflected(long[][] t, int base, long x) {
+    return t[base + 7][(int) x & 0xff]
+        ^ t[base + 6][(int) (x >>> 8) & 0xff]
+        ^ t[base + 5][(int) (x >>> 16) & 0xff]
+        ^ t[base + 4][(int) (x >>> 24) & 0xff]
+        ^ t[base + 3][(int) (x >>> 32) & 0xff]
+        ^ t[base + 2][(int) (x >>> 40) & 0xff]
+        ^ t[base + 1][(int) (x >>> 48) & 0xff]
+        ^ t[base][(int) (x >>> 56)];
+  }
+
+  // the first byte in memory (the highest one) has the most zero bytes following it
+  private static long foldForward(long[][] t, int base, long x) {
+    return t[base + 7][(int) (x >>> 56)]
+        ^ t[base + 6][(int) (x >>> 48) & 0xff]
+        ^ t[base + 5][(int) (x >>> 40) & 0xff]
+        ^ t[base + 4][(int) (x >>> 32) & 0xff]
+        ^ t[base + 3][(int) (x >>> 24) & 0xff]
+        ^ t[base + 2][(int) (x >>> 16) & 0xff]
+        ^ t[base + 1][(int) (x >>> 8) & 0xff]
+        ^ t[base][(int) x & 0xff];
+  }
+
+  /**
+   * Processes as many whole blocks of 16 or 8 bytes as possible
+   *
+   * @return the index of the first byte which has not been processed
+   */
+  private int updateSliced(byte[] bytes, int i, int end) {
+    long[][] t = slices;
+    if (refIn) {
+      long crc = value;
+      if (t.length == 16) {
+        for (; end - i >= 16; i += 16) {
+          crc = foldReflected(t, 8, crc ^ littleEndian(bytes, i)) ^ foldReflected(t, 0, littleEndian(bytes, i + 8));
+        }
+      }
+      for (; end - i >= 8; i += 8) {
+        crc = foldReflected(t, 0, crc ^ littleEndian(bytes, i));
+      }
+      value = crc;
+    } else {
+      int shift = 64 - bitWidth;
+      long crc = value << shift;
+      if (t.length == 16) {
+        for (; end - i >= 16; i += 16) {
+          crc = foldForward(t, 8, crc ^ bigEndian(bytes, i)) ^ foldForward(t, 0, bigEndian(bytes, i + 8));
+        }
+      }
+      for (; end - i >= 8; i += 8) {
+        crc = foldForward(t, 0, crc ^ bigEndian(bytes, i));
+      }
+      value = crc >>> shift;
+    }
+    return i;
   }
 
   @Override
@@ -535,9 +657,12 @@ public class CrcGeneric extends AbstractChecksum {
     // performance improvement:
     // if condition not in the loop, therefore two separate loops
     int index;
+    int end = length + offset;
+    // whole blocks are processed by slicing, the remaining bytes one at a time
+    int start = length >= 8 ? updateSliced(bytes, offset, end) : offset;
     // divide the byte by the polynomial
     if (refIn) {
-      for (int i = offset; i < length + offset; i++) {
+      for (int i = start; i < end; i++) {
         // Compute the index into the precomputed CRC table.
         index = ((int) (value ^ bytes[i]) & 0xff);
 
@@ -551,7 +676,7 @@ public class CrcGeneric extends AbstractChecksum {
         value ^= (table[index]);
       }
     } else {
-      for (int i = offset; i < length + offset; i++) {
+      for (int i = start; i < end; i++) {
         // Compute the index into the precomputed CRC table.
         index = ((int) ((value >>> (bitWidth - 8)) ^ bytes[i]) & 0xff);
 
@@ -565,6 +690,89 @@ public class CrcGeneric extends AbstractChecksum {
     this.length += length;
   }
 
+  /**
+   * Computes the CRC of the concatenation A||B from the CRC of A, the CRC of B
+   * and the length of B, without processing the data again.
+   * This allows to compute the CRC of large inputs in chunks, in parallel.
+   * <p>
+   * The register is linear over GF(2): appending n zero bytes is a matrix,
+   * the matrices for 2^k zero bytes are precomputed by repeated squaring,
+   * therefore a combination costs O(width^2 * log(lengthB)).
+   *
+   * @param crcA    the CRC of A, as returned by getValue()
+   * @param crcB    the CRC of B, as returned by getValue()
+   * @param lengthB the length of B in bytes
+   * @return the CRC of A||B
+   * @throws UnsupportedOperationException if the length is included in the CRC
+   */
+  public long combine(long crcA, long crcB, long lengthB) {
+    if (includeLength) {
+      throw new UnsupportedOperationException("The CRC cannot be combined if the length is included.");
+    }
+    if (lengthB <= 0) {
+      return crcA;
+    }
+    long init = refIn ? reflect(initialValue, bitWidth) : initialValue;
+    long[][] powers = ZEROS.computeIfAbsent(bitWidth + "," + Long.toHexString(poly) + "," + refIn,
+        key -> fillZeros());
+
+    // crc(A||B) = zeros(reg(A), len(B)) ^ reg(B) ^ zeros(init, len(B)), the register is linear
+    long register = toRegister(crcA) ^ init;
+    for (int k = 0; lengthB != 0; k++, lengthB >>>= 1) {
+      if ((lengthB & 1) != 0) {
+        register = multiply(powers[k], register);
+      }
+    }
+    return fromRegister(register ^ toRegister(crcB));
+  }
+
+  private long toRegister(long crc) {
+    long register = (crc ^ xorOut) & maskAllBits;
+    return refIn != refOut ? reflect(register, bitWidth) : register;
+  }
+
+  private long fromRegister(long register) {
+    if (refIn != refOut) {
+      register = reflect(register, bitWidth);
+    }
+    return (register ^ xorOut) & maskAllBits;
+  }
+
+  /**
+   * Precomputes the matrices for appending 2^k zero bytes, k in [0..63].
+   * A matrix is stored as its columns, matrix[i] is the image of bit i.
+   */
+  private long[][] fillZeros() {
+    long[][] powers = new long[64][];
+    long[] one = new long[bitWidth];
+    for (int i = 0; i < bitWidth; i++) {
+      long bit = 1L << i;
+      one[i] = refIn
+          ? (bit >>> 8) ^ table[(int) bit & 0xff]
+          : ((bit << 8) ^ table[(int) (bit >>> (bitWidth - 8)) & 0xff]) & maskAllBits;
+    }
+    powers[0] = one;
+    for (int k = 1; k < 64; k++) {
+      long[] previous = powers[k - 1];
+      long[] square = new long[bitWidth];
+      for (int i = 0; i < bitWidth; i++) {
+        square[i] = multiply(previous, previous[i]);
+      }
+      powers[k] = square;
+    }
+    return powers;
+  }
+
+  private static long multiply(long[] matrix, long vector) {
+    long result = 0;
+    for (int i = 0; vector != 0; i++, vector >>>= 1) {
+      if ((vector & 1) != 0) {
+        result ^= matrix[i];
+      }
+    }
+    return result;
+  }
+
   /**
    * Returns the value of the checksum
    *
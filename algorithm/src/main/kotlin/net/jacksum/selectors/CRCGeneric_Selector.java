@@ -23,6 +23,8 @@
 package net.jacksum.selectors;
 
 import net.jacksum.algorithms.AbstractChecksum;
+import net.jacksum.algorithms.crcs.CRC32;
+import net.jacksum.algorithms.crcs.CRC32C;
 import net.jacksum.algorithms.crcs.CrcGeneric;
 
 import java.security.NoSuchAlgorithmException;
@@ -33,6 +35,10 @@ import java.util.Map;
  */
 public class CRCGeneric_Selector extends Selector {
 
+  // parameters which are served by the intrinsic-backed java.util.zip implementations
+  private static final String CRC32_PARAMS = "crc:32,04C11DB7,FFFFFFFF,true,true,FFFFFFFF";
+  private static final String CRC32C_PARAMS = "crc:32,1EDC6F41,FFFFFFFF,true,true,FFFFFFFF";
+
   @Override
   public boolean doesMatch(String name) {
     return name.startsWith("crc:");
@@ -42,6 +48,14 @@ public class CRCGeneric_Selector extends Selector {
   public AbstractChecksum getImplementation(boolean alternate) throws NoSuchAlgorithmException {
     CrcGeneric checksum = new CrcGeneric(name.substring(4));
     name = checksum.getString();
+    if (!alternate) {
+      if (name.equals(CRC32_PARAMS)) {
+        return new CRC32();
+      }
+      if (name.equals(CRC32C_PARAMS)) {
+        return new CRC32C();
+      }
+    }
     return checksum;
   }
 
@@ -23,7 +23,9 @@
 package net.jacksum.selectors;
 
 import net.jacksum.algorithms.AbstractChecksum;
+import net.jacksum.algorithms.checksums.Fnv0_128;
 import net.jacksum.algorithms.checksums.Fnv0_32;
+import net.jacksum.algorithms.checksums.Fnv0_64;
 import net.jacksum.algorithms.checksums.Fnv0_n;
 
 import java.security.NoSuchAlgorithmException;
@@ -50,13 +52,24 @@ public class FNV0_Selector extends Selector {
   @Override
   public AbstractChecksum getPrimaryImplementation() throws NoSuchAlgorithmException {
     String bits = name.substring(6);
-    if (bits.equals("32")) {
-      // use this specific implementation if possible since it is optimzed
-      return new Fnv0_32();
-    } else {
-      // Fnv0_n is much slower than the specific Fnv0_32
-      return new Fnv0_n(bits);
+    // use the specific implementations if possible since they are optimized,
+    // the wider ones compute in limbs
+    switch (bits) {
+      case "32":
+        return new Fnv0_32();
+      case "64":
+        return new Fnv0_64();
+      case "128":
+        return new Fnv0_128();
+      default:
+        return new Fnv0_n(bits);
     }
   }
 
+  @Override
+  public AbstractChecksum getAlternateImplementation() throws NoSuchAlgorithmException {
+    // the generic implementation for every width
+    return new Fnv0_n(name.substring(6));
+  }
+
 }
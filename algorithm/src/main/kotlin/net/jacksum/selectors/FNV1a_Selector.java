@@ -23,7 +23,9 @@
 package net.jacksum.selectors;
 
 import net.jacksum.algorithms.AbstractChecksum;
+import net.jacksum.algorithms.checksums.Fnv1a_128;
 import net.jacksum.algorithms.checksums.Fnv1a_32;
+import net.jacksum.algorithms.checksums.Fnv1a_64;
 import net.jacksum.algorithms.checksums.Fnv1a_n;
 
 import java.security.NoSuchAlgorithmException;
@@ -50,13 +52,24 @@ public class FNV1a_Selector extends Selector {
   @Override
   public AbstractChecksum getPrimaryImplementation() throws NoSuchAlgorithmException {
     String bits = name.substring(7);
-    if (bits.equals("32")) {
-      // use this specific implementation if possible since it is optimized
-      return new Fnv1a_32();
-    } else {
-      // Fnv1_n is much slower than the specific Fnv1_32
-      return new Fnv1a_n(bits);
+    // use the specific implementations if possible since they are optimized,
+    // the wider ones compute in limbs
+    switch (bits) {
+      case "32":
+        return new Fnv1a_32();
+      case "64":
+        return new Fnv1a_64();
+      case "128":
+        return new Fnv1a_128();
+      default:
+        return new Fnv1a_n(bits);
     }
   }
 
+  @Override
+  public AbstractChecksum getAlternateImplementation() throws NoSuchAlgorithmException {
+    // the generic implementation for every width
+    return new Fnv1a_n(name.substring(7));
+  }
+
 }
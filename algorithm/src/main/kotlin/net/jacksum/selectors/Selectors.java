@@ -22,6 +22,11 @@
  */
 package net.jacksum.selectors;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
 public class Selectors {
 
   public final static Class<?>[] allSupportedSelectorClasses = {Adler32_Selector.class,
@@ -61,9 +66,13 @@ public class Selectors {
                                                                 Sum56_Selector.class,
                                                                 Xor8_Selector.class};
 
-  public final static Class<?>[] allSelectorClasses = {
+  /**
+   * Factories of all selectors, in the order in which they are tried.
+   * Constructor references do not require reflection to create a selector.
+   */
+  public final static List<Supplier<Selector>> allSelectors = Collections.unmodifiableList(Arrays.asList(
       // the combined hash algorithm has to be the first in this list!
-      CombinedChecksum_Selector.class,
+      CombinedChecksum_Selector::new,
       // most popular algorithms first due to performance reasons
       // order is also used by the brute forcer in order to find algorithms
 
@@ -74,57 +83,61 @@ public class Selectors {
       // means: the input size must be exactly 32 bytes for Haraka256 resp. 64 bytes for Haraka512
       // which makes it less attractive for Jacksum, because Jacksum supports only hash functions
       // that convert variable length input into fixed length hashes.
-      // Haraka256_Selector.class,
-      // Haraka512_Selector.class,
+      // Haraka256_Selector::new,
+      // Haraka512_Selector::new,
 
       // Non-cryptographic hash functions
       // ================================
 
       // Checksums
       // ---------
-      Adler32_Selector.class,
-      Cksum_Selector.class,
-      SumBSD_Selector.class,
-      SumSysV_Selector.class,
-      Elf_Selector.class,
-      FNV0_Selector.class,
-      FNV1_Selector.class,
-      FNV1a_Selector.class,
-      Fletcher16_Selector.class,
-      CksumMinix_Selector.class,
-      SumMinix_Selector.class,
-      Sum56_Selector.class,
-      Sum48_Selector.class,
-      Sum40_Selector.class,
-      Sum32_Selector.class,
-      Sum24_Selector.class,
-      Sum16_Selector.class,
-      Sum8_Selector.class,
-      Xor8_Selector.class,
-      Joaat32_Selector.class,
+      Adler32_Selector::new,
+      Cksum_Selector::new,
+      SumBSD_Selector::new,
+      SumSysV_Selector::new,
+      Elf_Selector::new,
+      FNV0_Selector::new,
+      FNV1_Selector::new,
+      FNV1a_Selector::new,
+      Fletcher16_Selector::new,
+      CksumMinix_Selector::new,
+      SumMinix_Selector::new,
+      Sum56_Selector::new,
+      Sum48_Selector::new,
+      Sum40_Selector::new,
+      Sum32_Selector::new,
+      Sum24_Selector::new,
+      Sum16_Selector::new,
+      Sum8_Selector::new,
+      Xor8_Selector::new,
+      Joaat32_Selector::new,
 
       // CRCs
       // ----
-      CRCGeneric_Selector.class,
+      CRCGeneric_Selector::new,
+
+      CRC64_Selector::new,
+      CRC64_ECMA182_Selector::new,
+      CRC64_GO_Selector::new,
+      CRC64xz_Selector::new,
 
-      CRC64_Selector.class,
-      CRC64_ECMA182_Selector.class,
-      CRC64_GO_Selector.class,
-      CRC64xz_Selector.class,
+      CRC32_Selector::new,
+      CRC32_PHP_Selector::new,
+      CRC32ubi_Selector::new,
+      CRC32fddi_Selector::new,
+      CRC32bzip2_Selector::new,
+      CRC32mpeg2_Selector::new,
+      CRC32c_Selector::new,
 
-      CRC32_Selector.class,
-      CRC32_PHP_Selector.class,
-      CRC32ubi_Selector.class,
-      CRC32fddi_Selector.class,
-      CRC32bzip2_Selector.class,
-      CRC32mpeg2_Selector.class,
-      CRC32c_Selector.class,
+      CRC24_Selector::new,
 
-      CRC24_Selector.class,
+      CRC16_Selector::new,
+      CRC16Minix_Selector::new,
+      FCS16_Selector::new,
 
-      CRC16_Selector.class,
-      CRC16Minix_Selector.class,
-      FCS16_Selector.class,
+      CRC8_Selector::new));
 
-      CRC8_Selector.class};
+  public final static Class<?>[] allSelectorClasses = allSelectors.stream()
+      .map(factory -> factory.get().getClass())
+      .toArray(Class<?>[]::new);
 }
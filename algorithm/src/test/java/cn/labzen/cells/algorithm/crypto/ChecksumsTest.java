@@ -1,12 +1,24 @@
 package cn.labzen.cells.algorithm.crypto;
 
 import cn.labzen.cells.algorithm.crypto.Checksums.Algorithms;
+import cn.labzen.cells.core.exception.ArgumentsException;
+import net.jacksum.HashFunctionFactory;
+import net.jacksum.algorithms.AbstractChecksum;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.math.BigInteger;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 public class ChecksumsTest {
 
@@ -30,6 +42,7 @@ public class ChecksumsTest {
     Assertions.assertEquals(253L, Checksums.string(text, Algorithms.CRC8));
     Assertions.assertEquals(10724L, Checksums.string(text, Algorithms.CRC16));
     Assertions.assertEquals(158520161L, Checksums.string(text, Algorithms.CRC32));
+    Assertions.assertEquals(1094021510L, Checksums.string(text, Algorithms.CRC32C));
     Assertions.assertEquals(3639635087L, Checksums.string(text, Algorithms.CRC32_MPEG2));
     Assertions.assertEquals(2921248394624937984L, Checksums.string(text, Algorithms.CRC64));
     Assertions.assertEquals(4708065081048288015L, Checksums.string(text, Algorithms.CRC64_ECMA));
@@ -55,4 +68,157 @@ public class ChecksumsTest {
     Long adler32Bean = Checksums.any(bean, Algorithms.ADLER32);
     Assertions.assertNotNull(adler32Bean);
   }
+
+  @Test
+  void testConcurrent() throws InterruptedException {
+    Algorithms[] algorithms = {Algorithms.ADLER32, Algorithms.CRC32, Algorithms.CRC64, Algorithms.FNV1A_64};
+    byte[] data = "labzen-cells-checksum".getBytes();
+    long[] expected = new long[algorithms.length];
+    for (int i = 0; i < algorithms.length; i++) {
+      expected[i] = Checksums.bytes(data, algorithms[i]);
+    }
+
+    Concurrency.assertAlways(2_500, 30, () -> {
+      for (int i = 0; i < algorithms.length; i++) {
+        if (Checksums.bytes(data, algorithms[i]) != expected[i]) {
+          return false;
+        }
+      }
+      return true;
+    });
+  }
+
+  @Test
+  void testParallel() {
+    byte[] data = new byte[1024 * 1024 + 7];
+    new Random(17).nextBytes(data);
+    URL resource = this.getClass().getClassLoader().getResource("simple.txt");
+    Assertions.assertNotNull(resource);
+    File file = new File(resource.getFile());
+
+    for (Algorithms algorithm : new Algorithms[]{Algorithms.CRC32, Algorithms.CRC32C, Algorithms.CRC64_ECMA}) {
+      long expected = Checksums.bytes(data, algorithm);
+      Assertions.assertEquals(expected, Checksums.parallel(data, algorithm, 64 * 1024), algorithm.name());
+      Assertions.assertEquals(expected, Checksums.parallel(data, algorithm), algorithm.name());
+
+      byte[] first = new byte[1000];
+      byte[] second = new byte[data.length - 1000];
+      System.arraycopy(data, 0, first, 0, first.length);
+      System.arraycopy(data, first.length, second, 0, second.length);
+      long combined = Checksums.combine(Checksums.bytes(first, algorithm), Checksums.bytes(second, algorithm),
+          second.length, algorithm);
+      Assertions.assertEquals(expected, combined, algorithm.name());
+
+      Assertions.assertEquals(Checksums.file(file, algorithm), Checksums.parallel(file, algorithm, 7));
+    }
+
+    Assertions.assertThrows(ArgumentsException.class, () -> Checksums.parallel(data, Algorithms.ADLER32));
+  }
+
+  @Test
+  void testBatch() {
+    Random random = new Random(24);
+    List<byte[]> keys = new ArrayList<>();
+    ByteBuffer packed = ByteBuffer.allocate(3000 * 30);
+    int[] offsets = new int[3001];
+    long[] expected = new long[3000];
+    for (int i = 0; i < 3000; i++) {
+      byte[] key = new byte[random.nextInt(30)];
+      random.nextBytes(key);
+      keys.add(key);
+      packed.put(key);
+      offsets[i + 1] = packed.position();
+      expected[i] = Checksums.bytes(key, Algorithms.CRC32C);
+    }
+
+    Assertions.assertArrayEquals(expected, Checksums.batch(Algorithms.CRC32C, keys));
+    Assertions.assertArrayEquals(expected,
+        Checksums.batch(Algorithms.CRC32C, keys, new long[3000], ForkJoinPool.commonPool()));
+    Assertions.assertArrayEquals(expected, Checksums.batch(Algorithms.CRC32C, packed, offsets));
+    Assertions.assertArrayEquals(expected,
+        Checksums.batch(Algorithms.CRC32C, packed, offsets, new long[3000], ForkJoinPool.commonPool()));
+  }
+
+  @Test
+  void testFactoryConcurrent() throws InterruptedException {
+    byte[] data = "labzen-cells-factory".getBytes();
+    Concurrency.assertAlways(200, 60, () -> {
+      for (String name : HashFunctionFactory.getAvailableNames()) {
+        try {
+          AbstractChecksum checksum = HashFunctionFactory.getHashFunction(name);
+          checksum.update(data);
+          checksum.getByteArray();
+        } catch (Exception e) {
+          return false;
+        }
+      }
+      return true;
+    });
+  }
+
+  @Test
+  void testFnv() throws NoSuchAlgorithmException {
+    Assertions.assertEquals(0xaf63dc4c8601ec8cL, Checksums.string("a", Algorithms.FNV1A_64));
+    Assertions.assertEquals("48295155463c64bf6e69f684c538dd82",
+        Checksums.session(Algorithms.FNV1A_128).update("123456".getBytes()).finishHex());
+
+    // 公开的测试向量（http://www.isthe.com/chongo/tech/comp/fnv/），同时校验下面的 BigInteger 参照
+    Assertions.assertEquals(0xaf63bd4c8601b7beL, Checksums.string("a", Algorithms.FNV1_64));
+    Assertions.assertEquals(0x340d8765a4dda9c2L, Checksums.string("foobar", Algorithms.FNV1_64));
+    Assertions.assertEquals(0x85944171f73967e8L, Checksums.string("foobar", Algorithms.FNV1A_64));
+    Assertions.assertEquals("050c5d7e", HashEncoder.hex(fnv("fnv-1_", 32, "a".getBytes())));
+    Assertions.assertEquals("bf9cf968", HashEncoder.hex(fnv("fnv-1a_", 32, "foobar".getBytes())));
+    Assertions.assertEquals("6c62272e07bb014262b821756295c58d", HashEncoder.hex(fnv("fnv-1_", 128, new byte[0])));
+    Assertions.assertEquals("dd268dbcaac550362d98c384c4e576ccc8b1536847b6bbb31023b4c8caee0535",
+        HashEncoder.hex(fnv("fnv-1_", 256, new byte[0])));
+
+    // 各位宽的专用实现、通用的多字长实现（jacksum 的 alternate）均与 BigInteger 的直接计算一致
+    byte[] random = new byte[3000];
+    new Random(18).nextBytes(random);
+    byte[][] inputs = {new byte[0], "a".getBytes(), "foobar".getBytes(), random};
+    for (String variant : new String[]{"fnv-0_", "fnv-1_", "fnv-1a_"}) {
+      for (int width : new int[]{32, 64, 128, 256, 512, 1024}) {
+        for (byte[] input : inputs) {
+          byte[] expected = fnv(variant, width, input);
+          for (boolean alternate : new boolean[]{false, true}) {
+            AbstractChecksum checksum = HashFunctionFactory.getHashFunction(variant + width, alternate);
+            checksum.update(input);
+            Assertions.assertArrayEquals(expected, checksum.getByteArray(), variant + width + "/" + input.length);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * 以 BigInteger 按定义计算的 FNV，作为独立的参照；FNV-1 的初始值（offset basis）按定义取 FNV-0 对
+   * {@code chongo <Landon Curt Noll> /\../\} 的结果
+   */
+  private static byte[] fnv(String variant, int width, byte[] input) {
+    int[] widths = {32, 64, 128, 256, 512, 1024};
+    int[] shifts = {24, 40, 88, 168, 344, 680};
+    int[] constants = {0x93, 0xb3, 0x3b, 0x63, 0x57, 0x8d};
+    int index = Arrays.binarySearch(widths, width);
+    BigInteger modulo = BigInteger.ONE.shiftLeft(width);
+    BigInteger prime = BigInteger.ONE.shiftLeft(shifts[index]).add(BigInteger.valueOf(0x100 + constants[index]));
+
+    BigInteger value = BigInteger.ZERO;
+    if (!"fnv-0_".equals(variant)) {
+      for (byte b : "chongo <Landon Curt Noll> /\\../\\".getBytes(StandardCharsets.US_ASCII)) {
+        value = value.multiply(prime).mod(modulo).xor(BigInteger.valueOf(b & 0xff));
+      }
+    }
+
+    boolean xorFirst = "fnv-1a_".equals(variant);
+    for (byte b : input) {
+      BigInteger octet = BigInteger.valueOf(b & 0xff);
+      value = xorFirst ? value.xor(octet).multiply(prime).mod(modulo) : value.multiply(prime).mod(modulo).xor(octet);
+    }
+
+    byte[] result = new byte[width / 8];
+    byte[] magnitude = value.toByteArray();
+    int length = Math.min(magnitude.length, result.length);
+    System.arraycopy(magnitude, magnitude.length - length, result, result.length - length, length);
+    return result;
+  }
 }
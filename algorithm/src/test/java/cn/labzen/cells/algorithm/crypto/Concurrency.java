@@ -0,0 +1,40 @@
+package cn.labzen.cells.algorithm.crypto;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 多线程测试的公共部分：在固定数量的线程中重复执行检查，断言所有检查都通过
+ */
+final class Concurrency {
+
+  static final int THREADS = 8;
+
+  private Concurrency() {
+  }
+
+  /**
+   * 在 {@link #THREADS} 个线程中各执行 iterations 次 check，断言在 timeoutSeconds 秒内完成且 check 均返回 true
+   */
+  static void assertAlways(int iterations, long timeoutSeconds, BooleanSupplier check) throws InterruptedException {
+    AtomicInteger mismatches = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    for (int t = 0; t < THREADS; t++) {
+      executor.execute(() -> {
+        for (int i = 0; i < iterations; i++) {
+          if (!check.getAsBoolean()) {
+            mismatches.incrementAndGet();
+          }
+        }
+      });
+    }
+    executor.shutdown();
+    Assertions.assertTrue(executor.awaitTermination(timeoutSeconds, TimeUnit.SECONDS));
+    Assertions.assertEquals(0, mismatches.get());
+  }
+}
@@ -0,0 +1,104 @@
+package cn.labzen.cells.algorithm.crypto;
+
+import net.jacksum.HashFunctionFactory;
+import net.jacksum.algorithms.AbstractChecksum;
+import net.jacksum.algorithms.crcs.CrcGeneric;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+class CrcGenericTest {
+
+  /**
+   * 基于 CrcGeneric 的算法及其对 "123456789" 的标准校验值，另含几种非8整数倍宽度的自定义参数
+   */
+  private static final Map<String, Long> CHECKS = new LinkedHashMap<>();
+
+  static {
+    CHECKS.put("crc24", 0x21CF02L);
+    CHECKS.put("crc32_bzip2", 0xFC891918L);
+    CHECKS.put("crc32_ubi", 0x340BC6D9L);
+    CHECKS.put("crc32_php", 0xFC891918L);
+    CHECKS.put("crc64_ecma", 0x6C40DF5F0B497347L);
+    CHECKS.put("crc64_go-iso", 0xB90956C775A41001L);
+    CHECKS.put("crc64_xz", 0x995DC9BBDF1939FAL);
+    CHECKS.put("crc16_minix", null);
+    CHECKS.put("crc:8,07,00,false,false,00", 0xF4L);
+    CHECKS.put("crc:12,80F,000,false,true,000", 0xDAFL);
+    CHECKS.put("crc:16,8005,0000,true,true,0000", 0xBB3DL);
+    CHECKS.put("crc:16,1021,FFFF,false,false,0000", 0x29B1L);
+    CHECKS.put("crc:31,04C11DB7,7FFFFFFF,true,true,7FFFFFFF", null);
+    CHECKS.put("crc:40,0004820009,0000000000,false,false,FFFFFFFFFF", 0xD4164FC646L);
+  }
+
+  @Test
+  void testSlicingMatchesBytewise() throws NoSuchAlgorithmException {
+    byte[] data = new byte[1000];
+    new Random(15).nextBytes(data);
+
+    for (Map.Entry<String, Long> entry : CHECKS.entrySet()) {
+      String name = entry.getKey();
+      AbstractChecksum sliced = HashFunctionFactory.getHashFunction(name);
+      AbstractChecksum bytewise = HashFunctionFactory.getHashFunction(name);
+
+      if (entry.getValue() != null) {
+        sliced.update("123456789".getBytes(StandardCharsets.US_ASCII));
+        Assertions.assertEquals(entry.getValue().longValue(), sliced.getValue(), name);
+      }
+
+      // 覆盖不足一个分片、分片加余数、非对齐起点等情况
+      for (int length = 0; length < 100; length++) {
+        sliced.reset();
+        bytewise.reset();
+        sliced.update(data, 3, length);
+        sliced.update(data, 500, 333);
+        for (int i = 3; i < 3 + length; i++) {
+          bytewise.update(data, i, 1);
+        }
+        for (int i = 500; i < 833; i++) {
+          bytewise.update(data, i, 1);
+        }
+        Assertions.assertEquals(bytewise.getValue(), sliced.getValue(), name + " @ " + length);
+      }
+    }
+  }
+
+  @Test
+  void testCombine() throws NoSuchAlgorithmException {
+    byte[] data = new byte[5000];
+    new Random(17).nextBytes(data);
+
+    for (String name : CHECKS.keySet()) {
+      CrcGeneric crc = (CrcGeneric) HashFunctionFactory.getHashFunction(name);
+      crc.update(data);
+      long expected = crc.getValue();
+
+      for (int split : new int[]{0, 1, 7, 100, 2500, 4999, 5000}) {
+        crc.reset();
+        crc.update(data, 0, split);
+        long first = crc.getValue();
+        crc.reset();
+        crc.update(data, split, data.length - split);
+        long second = crc.getValue();
+        Assertions.assertEquals(expected, crc.combine(first, second, data.length - split), name + " @ " + split);
+      }
+    }
+  }
+
+  @Test
+  void testAlternateImplementation() throws NoSuchAlgorithmException {
+    byte[] data = new byte[4099];
+    new Random(16).nextBytes(data);
+
+    AbstractChecksum primary = HashFunctionFactory.getHashFunction("crc32c");
+    AbstractChecksum generic = HashFunctionFactory.getHashFunction("crc32c", true);
+    primary.update(data);
+    generic.update(data);
+    Assertions.assertEquals(primary.getValue(), generic.getValue());
+  }
+}
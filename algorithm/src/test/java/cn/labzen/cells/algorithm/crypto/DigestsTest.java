@@ -1,15 +1,30 @@
 package cn.labzen.cells.algorithm.crypto;
 
+import cn.labzen.cells.core.exception.ArgumentsException;
 import net.jacksum.HashFunctionFactory;
 import net.jacksum.algorithms.AbstractChecksum;
+import org.bouncycastle.util.encoders.Hex;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 public class DigestsTest {
 
@@ -193,6 +208,183 @@ public class DigestsTest {
     Assertions.assertNotNull(sha3Bean);
   }
 
+  @Test
+  void testBlake3Parallel(@TempDir Path directory) throws IOException {
+    byte[] data = new byte[3 * 1024 * 1024 + 517];
+    new Random(23).nextBytes(data);
+
+    // 覆盖空数据、单块、块边界、单线程计算与多线程计算的分界
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (int length : new int[]{0, 1, 1023, 1024, 1025, 64 * 1024, 64 * 1024 + 1, 300_001, data.length}) {
+        byte[] part = Arrays.copyOf(data, length);
+        Assertions.assertEquals(Digests.blake3(part), Digests.blake3Parallel(part, pool), "length " + length);
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    File file = Files.write(directory.resolve("blake3.bin"), data).toFile();
+    Assertions.assertEquals(Digests.blake3(data), Digests.blake3Parallel(file));
+  }
+
+  @Test
+  void testBatch() {
+    Random random = new Random(24);
+    List<byte[]> keys = new ArrayList<>();
+    ByteBuffer packed = ByteBuffer.allocateDirect(5000 * 40);
+    int[] offsets = new int[5001];
+    for (int i = 0; i < 5000; i++) {
+      byte[] key = new byte[random.nextInt(40)];
+      random.nextBytes(key);
+      keys.add(key);
+      packed.put(key);
+      offsets[i + 1] = packed.position();
+    }
+
+    byte[] expected = new byte[5000 * 16];
+    for (int i = 0; i < keys.size(); i++) {
+      System.arraycopy(Digests.digest(Digests.Algorithms.MD5, keys.get(i)), 0, expected, i * 16, 16);
+    }
+
+    Assertions.assertArrayEquals(expected, Digests.batch(Digests.Algorithms.MD5, keys));
+    byte[] output = new byte[expected.length + 3];
+    Digests.batch(Digests.Algorithms.MD5, keys, output, 3, ForkJoinPool.commonPool());
+    Assertions.assertArrayEquals(expected, Arrays.copyOfRange(output, 3, output.length));
+
+    for (ByteBuffer target : new ByteBuffer[]{ByteBuffer.allocate(expected.length),
+        ByteBuffer.allocateDirect(expected.length)}) {
+      for (ForkJoinPool pool : new ForkJoinPool[]{null, ForkJoinPool.commonPool()}) {
+        target.clear();
+        Assertions.assertEquals(expected.length, Digests.batch(Digests.Algorithms.MD5, packed, offsets, target, pool));
+        Assertions.assertFalse(target.hasRemaining());
+        byte[] actual = new byte[expected.length];
+        target.flip();
+        target.get(actual);
+        Assertions.assertArrayEquals(expected, actual);
+      }
+    }
+    Assertions.assertEquals(5000 * 40, packed.limit());
+  }
+
+  @Test
+  void testConcurrent() throws InterruptedException {
+    byte[] data = "labzen-cells-digest".getBytes();
+    String[] expected = {Digests.md5(data), Digests.sha2(data), Digests.sha3(data, Digests.SHALength.SHA_512),
+        Digests.blake3(data), Digests.blake2(data, Digests.BlakeLength.BLAKE2S_256)};
+
+    Concurrency.assertAlways(5_000, 60, () -> {
+      String[] actual = {Digests.md5(data), Digests.sha2(data), Digests.sha3(data, Digests.SHALength.SHA_512),
+          Digests.blake3(data), Digests.blake2(data, Digests.BlakeLength.BLAKE2S_256)};
+      return Arrays.equals(expected, actual);
+    });
+  }
+
+  @Test
+  void testBinaryOutput() throws NoSuchAlgorithmException {
+    byte[] data = "labzen-cells-token".getBytes();
+    MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+    byte[] once = sha256.digest(data);
+    byte[] thrice = sha256.digest(sha256.digest(once));
+
+    Assertions.assertEquals(32, Digests.size(Digests.Algorithms.SHA2_256));
+    Assertions.assertArrayEquals(once, Digests.digest(Digests.Algorithms.SHA2_256, data));
+    Assertions.assertArrayEquals(thrice, Digests.digest(Digests.Algorithms.SHA2_256, data, 3));
+
+    byte[] output = new byte[40];
+    Assertions.assertEquals(32, Digests.digest(Digests.Algorithms.SHA2_256, data, 0, data.length, output, 8, 3));
+    Assertions.assertArrayEquals(thrice, Arrays.copyOfRange(output, 8, 40));
+    Assertions.assertThrows(ArgumentsException.class,
+        () -> Digests.digest(Digests.Algorithms.SHA2_256, data, 0, data.length, output, 9));
+
+    ByteBuffer input = ByteBuffer.allocateDirect(data.length);
+    input.put(data).flip();
+    ByteBuffer direct = ByteBuffer.allocateDirect(64);
+    Assertions.assertEquals(32, Digests.digest(Digests.Algorithms.SHA2_256, input, direct));
+    Assertions.assertFalse(input.hasRemaining());
+    Assertions.assertEquals(32, direct.position());
+    byte[] result = new byte[32];
+    direct.flip();
+    direct.get(result);
+    Assertions.assertArrayEquals(once, result);
+
+    ByteBuffer heap = ByteBuffer.allocate(64);
+    heap.position(16);
+    Digests.digest(Digests.Algorithms.SHA2_256, ByteBuffer.wrap(data), heap, 3);
+    Assertions.assertEquals(48, heap.position());
+    Assertions.assertArrayEquals(thrice, Arrays.copyOfRange(heap.array(), 16, 48));
+
+    // 16进制文本的多次摘要与逐次调用一致
+    Assertions.assertEquals(Digests.sha2(Digests.sha2(Digests.sha2(data))), Digests.sha2(data, 3));
+    Assertions.assertEquals(Digests.blake3(Digests.blake3(data)), Digests.blake3(data, 2));
+  }
+
+  @Test
+  void testEncoder() {
+    Random random = new Random(22);
+    char[] chars = new char[200];
+    for (int length = 0; length < 70; length++) {
+      byte[] bytes = new byte[length];
+      random.nextBytes(bytes);
+
+      Assertions.assertEquals(Hex.toHexString(bytes), HashEncoder.hex(bytes));
+      Assertions.assertEquals(Hex.toHexString(bytes).toUpperCase(), HashEncoder.hex(bytes, true));
+      Assertions.assertEquals(Base64.getEncoder().encodeToString(bytes), HashEncoder.base64(bytes));
+      Assertions.assertEquals(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes),
+          HashEncoder.base64(bytes, true, false));
+
+      int written = HashEncoder.hex(bytes, 0, length, chars, 3);
+      Assertions.assertEquals(Hex.toHexString(bytes), new String(chars, 3, written));
+      written = HashEncoder.base64(bytes, 0, length, chars, 5);
+      Assertions.assertEquals(Base64.getEncoder().encodeToString(bytes), new String(chars, 5, written));
+    }
+
+    Assertions.assertThrows(ArgumentsException.class, () -> HashEncoder.hex(new byte[64], 0, 64, new char[127]));
+  }
+
+  @Test
+  void testStreamingFile(@TempDir Path directory) throws IOException {
+    byte[] data = new byte[300 * 1024 + 17];
+    new Random(7).nextBytes(data);
+    Path path = Files.write(directory.resolve("streaming.bin"), data);
+    File file = path.toFile();
+
+    // 缓冲区大小是全局设置，测试期间修改只在测试顺序执行时安全，并行执行测试时需要隔离该测试
+    int bufferSize = HashStreams.bufferSize();
+    HashStreams.bufferSize(4096);
+    try {
+      Assertions.assertEquals(Digests.blake3(data), Digests.blake3(file));
+      Assertions.assertEquals(Digests.sha2(data), Digests.sha2(file));
+      Assertions.assertEquals(Digests.sha3(data, Digests.SHALength.SHA_512, 2),
+          Digests.sha3(file, Digests.SHALength.SHA_512, 2));
+      Assertions.assertEquals(Digests.md5(data), Digests.md5(file));
+      Assertions.assertEquals(Checksums.bytes(data, Checksums.Algorithms.CRC32),
+          Checksums.file(file, Checksums.Algorithms.CRC32));
+    } finally {
+      HashStreams.bufferSize(bufferSize);
+    }
+  }
+
+  @Test
+  void testHashAll(@TempDir Path directory) throws IOException {
+    byte[] data = new byte[200 * 1024 + 3];
+    new Random(11).nextBytes(data);
+    File file = Files.write(directory.resolve("hash-all.bin"), data).toFile();
+
+    List<HashAlgorithm> algorithms = Arrays.asList(Checksums.Algorithms.CRC32, Digests.Algorithms.SHA2_256,
+        Digests.Algorithms.BLAKE3, Digests.Algorithms.SHA3_512);
+    for (boolean parallel : new boolean[]{false, true}) {
+      Map<HashAlgorithm, String> results = HashStreams.hashAll(file, algorithms, parallel);
+      Assertions.assertEquals(4, results.size());
+      Assertions.assertEquals(String.format("%08x", Checksums.file(file, Checksums.Algorithms.CRC32)),
+          results.get(Checksums.Algorithms.CRC32));
+      Assertions.assertEquals(Digests.sha2(file), results.get(Digests.Algorithms.SHA2_256));
+      Assertions.assertEquals(Digests.blake3(file), results.get(Digests.Algorithms.BLAKE3));
+      Assertions.assertEquals(Digests.sha3(file, Digests.SHALength.SHA_512),
+          results.get(Digests.Algorithms.SHA3_512));
+    }
+  }
+
   public static void main(String[] args) throws NoSuchAlgorithmException {
     AbstractChecksum crc32 = HashFunctionFactory.getHashFunction("adler32");
     crc32.update("d952f164".getBytes());
@@ -0,0 +1,63 @@
+package cn.labzen.cells.algorithm.crypto;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+class HashSessionTest {
+
+  @Test
+  void testIncremental() {
+    byte[] data = new byte[100 * 1024 + 5];
+    new Random(3).nextBytes(data);
+
+    HashSession session = Digests.session(Digests.Algorithms.SHA2_256);
+    String expected = Digests.sha2(data);
+
+    session.update(data, 0, 1000).update(data, 1000, data.length - 1000);
+    Assertions.assertEquals(expected, session.finishHex());
+
+    // 会话在 finish 后可继续使用
+    ByteBuffer heap = ByteBuffer.wrap(data, 0, 4096);
+    ByteBuffer direct = ByteBuffer.allocateDirect(data.length - 4096);
+    direct.put(data, 4096, data.length - 4096).flip();
+    session.update(heap, direct);
+    Assertions.assertFalse(heap.hasRemaining());
+    Assertions.assertFalse(direct.hasRemaining());
+    Assertions.assertEquals(data.length, session.length());
+    Assertions.assertEquals(expected, session.finishHex());
+
+    session.update(new ByteArrayInputStream(data));
+    Assertions.assertEquals(expected, session.finishHex());
+  }
+
+  @Test
+  void testChecksumValue() {
+    byte[] data = "123456".getBytes();
+    HashSession session = Checksums.session(Checksums.Algorithms.CRC32);
+    session.update(data, 0, 2).update(data, 2, 4);
+    Assertions.assertEquals(158520161L, session.finishValue());
+
+    session.update(data);
+    Assertions.assertEquals(String.format("%08x", 158520161L), session.finishHex());
+  }
+
+  @Test
+  void testDirectBuffer() {
+    byte[] data = new byte[70 * 1024 + 3];
+    new Random(16).nextBytes(data);
+    ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+    direct.put(data).flip();
+
+    for (Checksums.Algorithms algorithm : new Checksums.Algorithms[]{Checksums.Algorithms.CRC32,
+        Checksums.Algorithms.CRC32C, Checksums.Algorithms.ADLER32, Checksums.Algorithms.CRC64}) {
+      HashSession session = Checksums.session(algorithm);
+      session.update(direct.duplicate());
+      Assertions.assertEquals(data.length, session.length());
+      Assertions.assertEquals(Checksums.bytes(data, algorithm), session.finishValue(), algorithm.name());
+    }
+  }
+}
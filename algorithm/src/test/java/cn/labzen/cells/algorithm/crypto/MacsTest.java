@@ -0,0 +1,101 @@
+package cn.labzen.cells.algorithm.crypto;
+
+import cn.labzen.cells.core.exception.ArgumentsException;
+import org.bouncycastle.crypto.Mac;
+import org.bouncycastle.crypto.digests.Blake3Digest;
+import org.bouncycastle.crypto.digests.SHA3Digest;
+import org.bouncycastle.crypto.macs.Blake3Mac;
+import org.bouncycastle.crypto.macs.HMac;
+import org.bouncycastle.crypto.macs.KMAC;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Random;
+
+class MacsTest {
+
+  private static byte[] bc(Mac mac, byte[] key, byte[] message) {
+    mac.init(new KeyParameter(key));
+    mac.update(message, 0, message.length);
+    byte[] result = new byte[mac.getMacSize()];
+    mac.doFinal(result, 0);
+    return result;
+  }
+
+  @Test
+  void testHmac() throws GeneralSecurityException {
+    // RFC 4231 测试用例2
+    MacKey jefe = Macs.key(Macs.Algorithms.HMAC_SHA2_256, "Jefe".getBytes(StandardCharsets.US_ASCII));
+    Assertions.assertEquals("5bdcc146bf60754e6a042426089575c75a003f089d2739839dec58b964ec3843",
+        jefe.hex("what do ya want for nothing?"));
+
+    Random random = new Random(25);
+    byte[] message = new byte[1000];
+    random.nextBytes(message);
+    String[][] algorithms = {{"HMAC_MD5", "HmacMD5"}, {"HMAC_SHA2_256", "HmacSHA256"}, {"HMAC_SHA2_512", "HmacSHA512"}};
+    // 覆盖短密钥、恰为分组长度与超过分组长度（先做摘要）的密钥
+    for (int length : new int[]{1, 20, 64, 65, 128, 129, 300}) {
+      byte[] key = new byte[length];
+      random.nextBytes(key);
+      for (String[] pair : algorithms) {
+        javax.crypto.Mac jdk = javax.crypto.Mac.getInstance(pair[1]);
+        jdk.init(new SecretKeySpec(key, pair[1]));
+        byte[] expected = jdk.doFinal(message);
+
+        MacKey mac = Macs.key(Macs.Algorithms.valueOf(pair[0]), key);
+        Assertions.assertArrayEquals(expected, mac.mac(message), pair[0] + " @ " + length);
+        Assertions.assertArrayEquals(expected, mac.mac(message), pair[0] + " @ " + length);
+        Assertions.assertTrue(mac.verify(message, expected));
+      }
+
+      Assertions.assertArrayEquals(bc(new HMac(new SHA3Digest(256)), key, message),
+          Macs.key(Macs.Algorithms.HMAC_SHA3_256, key).mac(message));
+    }
+  }
+
+  @Test
+  void testKeyedModes() {
+    Random random = new Random(26);
+    byte[] key = new byte[32];
+    random.nextBytes(key);
+    byte[] message = new byte[5000];
+    random.nextBytes(message);
+
+    MacKey blake3 = Macs.key(Macs.Algorithms.BLAKE3, key);
+    byte[] expected = bc(new Blake3Mac(new Blake3Digest()), key, message);
+    Assertions.assertArrayEquals(expected, blake3.mac(message));
+    Assertions.assertArrayEquals(expected, blake3.mac(message));
+    Assertions.assertEquals(Hex.toHexString(expected), Macs.hex(Macs.Algorithms.BLAKE3, key, message));
+
+    MacKey kmac = Macs.key(Macs.Algorithms.KMAC_256, key);
+    expected = bc(new KMAC(256, null), key, message);
+    Assertions.assertArrayEquals(expected, kmac.mac(message));
+    Assertions.assertArrayEquals(expected, kmac.mac(message));
+
+    MacKey blake2 = Macs.key(Macs.Algorithms.BLAKE2B_256, key);
+    byte[] output = new byte[40];
+    Assertions.assertEquals(32, blake2.mac(message, 10, 100, output, 8));
+    byte[] part = new byte[100];
+    System.arraycopy(message, 10, part, 0, 100);
+    Assertions.assertEquals(Hex.toHexString(output, 8, 32), blake2.hex(part));
+    Assertions.assertFalse(blake2.verify(message, blake3.mac(message)));
+
+    Assertions.assertThrows(ArgumentsException.class, () -> Macs.key(Macs.Algorithms.BLAKE3, new byte[16]));
+    Assertions.assertThrows(ArgumentsException.class, () -> Macs.key(Macs.Algorithms.BLAKE2S_256, new byte[33]));
+    Assertions.assertThrows(ArgumentsException.class, () -> blake2.mac(message, 0, 1, output, 9));
+  }
+
+  @Test
+  void testConcurrent() throws InterruptedException {
+    MacKey mac = Macs.key(Macs.Algorithms.HMAC_SHA2_256, "labzen-cells-gateway".getBytes());
+    byte[] message = "GET /api/v1/devices?page=1".getBytes();
+    byte[] expected = mac.mac(message);
+
+    Concurrency.assertAlways(10_000, 30, () -> mac.verify(message, expected));
+  }
+}
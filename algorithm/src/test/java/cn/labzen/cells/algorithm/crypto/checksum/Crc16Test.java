@@ -0,0 +1,83 @@
+package cn.labzen.cells.algorithm.crypto.checksum;
+
+import net.jacksum.algorithms.crcs.CrcGeneric;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+
+class Crc16Test {
+
+  private static final byte[] CHECK = "123456789".getBytes(StandardCharsets.US_ASCII);
+
+  /**
+   * 各算法对 "123456789" 的标准校验值
+   */
+  @Test
+  void testCheckValues() {
+    Assertions.assertEquals(0x2189, Crc16.ccitt(CHECK));
+    Assertions.assertEquals(0x29B1, Crc16.ccittWithFalse(CHECK));
+    Assertions.assertEquals(0x31C3, Crc16.xmodem(CHECK));
+    Assertions.assertEquals(0x906E, Crc16.x25(CHECK));
+    Assertions.assertEquals(0x4B37, Crc16.modbus(CHECK));
+    Assertions.assertEquals(0xBB3D, Crc16.ibm(CHECK));
+    Assertions.assertEquals(0x44C2, Crc16.maxim(CHECK));
+    Assertions.assertEquals(0xB4C8, Crc16.usb(CHECK));
+    Assertions.assertEquals(0xEA82, Crc16.dnp(CHECK));
+  }
+
+  @Test
+  void testAgainstGeneric() throws NoSuchAlgorithmException {
+    byte[] data = new byte[1024];
+    new Random(19).nextBytes(data);
+
+    Object[][] parameters = {
+        {Crc16.Variant.CCITT, new CrcGeneric(16, 0x1021, 0x0000, true, true, 0x0000)},
+        {Crc16.Variant.CCITT_FALSE, new CrcGeneric(16, 0x1021, 0xFFFF, false, false, 0x0000)},
+        {Crc16.Variant.XMODEM, new CrcGeneric(16, 0x1021, 0x0000, false, false, 0x0000)},
+        {Crc16.Variant.X25, new CrcGeneric(16, 0x1021, 0xFFFF, true, true, 0xFFFF)},
+        {Crc16.Variant.MODBUS, new CrcGeneric(16, 0x8005, 0xFFFF, true, true, 0x0000)},
+        {Crc16.Variant.IBM, new CrcGeneric(16, 0x8005, 0x0000, true, true, 0x0000)},
+        {Crc16.Variant.MAXIM, new CrcGeneric(16, 0x8005, 0x0000, true, true, 0xFFFF)},
+        {Crc16.Variant.USB, new CrcGeneric(16, 0x8005, 0xFFFF, true, true, 0xFFFF)},
+        {Crc16.Variant.DNP, new CrcGeneric(16, 0x3D65, 0x0000, true, true, 0xFFFF)}
+    };
+
+    for (Object[] pair : parameters) {
+      Crc16.Variant variant = (Crc16.Variant) pair[0];
+      CrcGeneric generic = (CrcGeneric) pair[1];
+      generic.update(data, 10, 1000);
+      Assertions.assertEquals(generic.getValue(), variant.compute(data, 10, 1000), variant.name());
+    }
+  }
+
+  @Test
+  void testBufferAndState() {
+    byte[] frame = new byte[256];
+    new Random(20).nextBytes(frame);
+    int expected = Crc16.modbus(frame);
+
+    ByteBuffer direct = ByteBuffer.allocateDirect(frame.length + 8);
+    direct.position(8);
+    direct.put(frame).position(8);
+    Assertions.assertEquals(expected, Crc16.modbus(direct));
+    Assertions.assertEquals(8, direct.position());
+    Assertions.assertEquals(expected, Crc16.modbus(ByteBuffer.wrap(frame)));
+
+    // 通讯帧分片到达
+    Crc16.State state = Crc16.Variant.MODBUS.state();
+    state.update(frame, 0, 100).update(frame[100]);
+    state.update(ByteBuffer.wrap(frame, 101, 55));
+    direct.position(8 + 156);
+    state.update(direct);
+    Assertions.assertFalse(direct.hasRemaining());
+    Assertions.assertEquals(expected, state.value());
+
+    state.reset();
+    Assertions.assertEquals(Crc16.modbus(new byte[0]), state.value());
+    Assertions.assertEquals(Crc16.modbus(frame, 3, 20), state.update(frame, 3, 20).value());
+  }
+}
@@ -0,0 +1,133 @@
+@file:Suppress("unused")
+
+package cn.labzen.cells.core.feature
+
+import cn.labzen.cells.core.exception.ArgumentsException
+import cn.labzen.cells.core.kotlin.throwRuntimeIf
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import java.util.function.LongSupplier
+
+/**
+ * 时钟，为 [Snowflake]、TCP命令收发、ONVIF设备发现等需要当前时间的组件提供时间来源
+ *
+ * 组件默认使用 [CACHED]，可替换为 [ManualClock]、[AcceleratedClock] 进行确定性测试、回放或加速时间的长稳测试，
+ * 也可在同一进程内对比 [CACHED] 与 [SYSTEM] 的读取开销
+ */
+interface Clock {
+
+  /**
+   * 当前时间毫秒数（自1970-01-01T00:00:00Z起）
+   */
+  fun millis(): Long
+
+  /**
+   * 当前时间纳秒数（自1970-01-01T00:00:00Z起），默认由 [millis] 换算
+   */
+  fun nanos(): Long =
+    TimeUnit.MILLISECONDS.toNanos(millis())
+
+  companion object {
+
+    /**
+     * 每次直接调用 System.currentTimeMillis()
+     */
+    @JvmField
+    val SYSTEM: Clock = DirectClock
+
+    /**
+     * 使用 [SystemClock] 缓存（或锚定）的时间
+     */
+    @JvmField
+    val CACHED: Clock = CachedClock
+  }
+}
+
+/**
+ * 每次直接调用 System.currentTimeMillis() 的时钟
+ */
+object DirectClock : Clock {
+
+  override fun millis(): Long =
+    System.currentTimeMillis()
+}
+
+/**
+ * 读取 [SystemClock] 的时钟
+ */
+object CachedClock : Clock {
+
+  override fun millis(): Long =
+    SystemClock.now()
+
+  override fun nanos(): Long =
+    SystemClock.nanos()
+}
+
+/**
+ * 手动拨动的时钟，时间只在调用 [set] 或 [advance] 时改变，用于确定性测试与回放
+ *
+ * @param initial Long 初始时间毫秒数，默认为当前时间
+ */
+class ManualClock @JvmOverloads constructor(initial: Long = System.currentTimeMillis()) : Clock {
+
+  private val nanos = AtomicLong(TimeUnit.MILLISECONDS.toNanos(initial))
+
+  override fun millis(): Long =
+    TimeUnit.NANOSECONDS.toMillis(nanos.get())
+
+  override fun nanos(): Long =
+    nanos.get()
+
+  /**
+   * 将时间设置为给出的毫秒数，可以向过去拨动以模拟时钟回退
+   */
+  fun set(millis: Long) {
+    nanos.set(TimeUnit.MILLISECONDS.toNanos(millis))
+  }
+
+  /**
+   * 将时间向前（或以负数向后）拨动给出的时长
+   */
+  fun advance(duration: Long, unit: TimeUnit) {
+    nanos.addAndGet(unit.toNanos(duration))
+  }
+}
+
+/**
+ * 按给出的倍率流逝的时钟，以创建时刻的 [base] 时间为起点，用于加速时间的长稳测试
+ *
+ * @param rate Double 时间流逝的倍率，须大于0，例如 60.0 表示真实的1秒相当于本时钟的1分钟
+ * @param base Clock 起点时间的来源，默认 [Clock.SYSTEM]
+ */
+class AcceleratedClock @JvmOverloads constructor(private val rate: Double, base: Clock = Clock.SYSTEM) : Clock {
+
+  private val origin: Long
+  private val started = System.nanoTime()
+
+  init {
+    (rate <= 0.0).throwRuntimeIf { ArgumentsException("[Clock] - 时间流逝倍率须大于0") }
+    origin = base.nanos()
+  }
+
+  override fun millis(): Long =
+    TimeUnit.NANOSECONDS.toMillis(nanos())
+
+  override fun nanos(): Long =
+    origin + ((System.nanoTime() - started) * rate).toLong()
+}
+
+/**
+ * 在 [base] 时钟上叠加偏移量的时钟，偏移量通常来自NTP等外部时间源的校正结果
+ *
+ * @param base Clock 基础时钟
+ * @param offset LongSupplier 偏移量，单位：纳秒，每次读取时间时获取
+ */
+class OffsetClock(private val base: Clock, private val offset: LongSupplier) : Clock {
+
+  override fun millis(): Long =
+    base.millis() + TimeUnit.NANOSECONDS.toMillis(offset.asLong)
+
+  override fun nanos(): Long =
+    base.nanos() + offset.asLong
+}
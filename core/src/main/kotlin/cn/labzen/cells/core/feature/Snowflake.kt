@@ -5,6 +5,13 @@ package cn.labzen.cells.core.feature
 import cn.labzen.cells.core.exception.ArgumentsException
 import cn.labzen.cells.core.kotlin.throwRuntimeIf
 import org.slf4j.LoggerFactory
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLongArray
+import java.util.concurrent.atomic.LongAdder
+import java.util.concurrent.locks.LockSupport
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
 
 /**
  * 获取基于**Snowflake**算法的ID
@@ -16,7 +23,7 @@ import org.slf4j.LoggerFactory
  *
  *  1. 1位标识，由于long基本类型在Java中是带符号的，最高位是符号位，正数是0，负数是1，所以id一般是正数，最高位是0
  *  2. 41位时间截(毫秒级)，注意，41位时间截不是存储当前时间的时间截，而是存储时间截的差值（当前时间截 - 开始时间截) 得到的值，
- *      这里的的开始时间截，一般是我们的id生成器开始使用的时间，由我们程序来指定的（如下下面程序 BASELINE 常量）。
+ *      这里的的开始时间截，一般是我们的id生成器开始使用的时间，由我们程序来指定的（默认为 [SnowflakeLayout.DEFAULT_EPOCH]）。
  *  3. 41位的时间截，可以使用69年，年T = (1L << 41) / (1000L * 60 * 60 * 24 * 365) = 69
  *  4. 10位的数据机器位，可以部署在1024个节点，包括5位dataCenterId和5位workerId
  *  5. 12位序列，毫秒内的计数，12位的计数顺序号支持每个节点每毫秒(同一机器，同一时间截)产生4096个ID序号
@@ -25,147 +32,660 @@ import org.slf4j.LoggerFactory
  *
  * SnowFlake的优点是，整体上按照时间自增排序，并且整个分布式系统内不会产生ID碰撞(由数据中心ID和机器ID作区分)，并且效率较高，经测试，SnowFlake每秒能够产生26万ID左右。
  *
- * @param dataCenterId Int 数据中心id，取值 0 - 31
- * @param workerId Int 工作组id，取值 0 - 31
+ * > 以上为默认布局 [SnowflakeLayout.DEFAULT]，各部分位数、时间起点与时间刻度可通过 [SnowflakeLayout.builder] 自定义，
+ * > 再通过 [builder] 构建使用该布局的Snowflake；下文中的"时间戳"均指相对于时间起点的刻度数
+ *
+ * @param dataCenterId Int 数据中心id，默认布局下取值 0 - 31
+ * @param workerId Int 工作组id，默认布局下取值 0 - 31
+ * @param mode Mode 生成模式，默认 [Mode.SYNCHRONIZED]，高并发场景下可选择 [Mode.CAS] 或 [Mode.LANES]
+ * @param lanes Int 通道数，仅在 [Mode.LANES] 模式下有效，须为2的幂，默认 [DEFAULT_LANES]
+ *
+ * 时钟回退的处理策略见 [RollbackStrategy]，默认 [RollbackStrategy.WAIT]；序列耗尽时的等待策略见 [WaitStrategy]，
+ * 默认 [WaitStrategy.SPIN_THEN_PARK]；均可通过 [builder] 指定，各策略触发的次数见 [statistics]。
+ * 时间来源默认为 [Clock.CACHED]，测试时可通过 [SnowflakeBuilder.clock] 替换为 [ManualClock] 等
  * @author [Dean Zhao](mailto:rcarlosdasilva@qq.com)
  */
-class Snowflake constructor(dataCenterId: Long, workerId: Long) {
+class Snowflake internal constructor(config: SnowflakeConfig) {
+
+  @JvmOverloads
+  constructor(dataCenterId: Long, workerId: Long, mode: Mode = Mode.SYNCHRONIZED, lanes: Int = DEFAULT_LANES) :
+      this(SnowflakeConfig(dataCenterId, workerId).also {
+        it.mode = mode
+        it.lanes = lanes
+      })
 
   private val logger = LoggerFactory.getLogger(Snowflake::class.java)
 
+  private val mode = config.mode
+
+  private val rollbackStrategy = config.rollbackStrategy
+
+  private val waitStrategy = config.waitStrategy
+
+  private val clock = config.clock
+
+  /**
+   * [Mode.SYNCHRONIZED] 模式的锁，以及切换备用序列时的锁。使用 ReentrantLock 而不是 synchronized，
+   * 等待下一个时间刻度时不会钉住虚拟线程的载体线程
+   */
+  private val lock = ReentrantLock()
+
+  /**
+   * ID的位布局
+   */
+  val layout = config.layout
+
+  /**
+   * 时钟回退与序列耗尽等事件的计数
+   */
+  val statistics = Statistics()
+
   private val host: Host
 
   /**
-   * 毫秒内序列(0~4095)
+   * 通道数减1，用于将线程映射到通道
    */
-  private var sequence = 0L
+  private val laneMask: Int
 
   /**
-   * 上次生成ID的时间截
+   * 下一个线程分配到的通道序号
    */
-  private var lastTimestamp = -1L
+  private val nextLane = AtomicInteger()
+
+  /**
+   * 各线程的通道下标，线程首次生成id时按顺序轮流分配，线程池中的线程均匀分布到各通道
+   */
+  private val threadLanes = ThreadLocal.withInitial { nextLane.getAndIncrement() and laneMask }
+
+  /**
+   * 每个通道内序列所占的位数（含备用序列位），序列的高位用于标识通道
+   */
+  private val laneSequenceBits: Int
+
+  /**
+   * 通道内计数所占的位数
+   */
+  private val counterBits: Int
+
+  /**
+   * 通道内计数的掩码
+   */
+  private val counterMask: Long
+
+  /**
+   * [reserve] 单次可预留的最大id数量，为 [MAX_RESERVE_TICKS] 个时间刻度内（一个通道）可生成的序列数
+   */
+  val maxReserve: Int
+
+  /**
+   * 备用序列位，仅 [RollbackStrategy.BACKUP_SEQUENCE] 策略下非0
+   */
+  private val backupFlag: Long
+
+  /**
+   * 可容忍的时钟回退刻度数
+   */
+  private val rollbackTolerance: Long
+
+  /**
+   * 逻辑时钟可领先于系统时钟的刻度数，[RollbackStrategy.LOGICAL_CLOCK] 策略下为可容忍的回退刻度数，
+   * [WaitStrategy.BORROW] 策略下为可借用的刻度数，取两者的较大值
+   */
+  private val aheadTolerance: Long
+
+  /**
+   * 各通道的状态，每个状态为一个long：高位为时间戳，低 [SnowflakeLayout.sequenceBits] 位为备用序列位与通道内计数，
+   * 状态之后的一个下标存放备用序列的守卫时间戳（进入备用序列前已发出的最大时间戳）。
+   * 各通道状态之间间隔 [STATE_PADDING] 个下标，避免多个通道落在同一缓存行上造成伪共享
+   */
+  private val states: AtomicLongArray
 
   init {
-    (dataCenterId !in 0..MAX_DATA_CENTER_ID).throwRuntimeIf { ArgumentsException("[ID] - DataCenterId的取值超出了范围，默认0 - 31") }
-    (workerId !in 0..MAX_WORKER_ID).throwRuntimeIf { ArgumentsException("[ID] - WorkerId的取值超出了范围，默认0 - 31") }
+    val dataCenterId = config.dataCenterId
+    val workerId = config.workerId
+    (dataCenterId !in 0..layout.maxDataCenterId).throwRuntimeIf {
+      ArgumentsException("[ID] - DataCenterId的取值超出了范围，0 - ${layout.maxDataCenterId}")
+    }
+    (workerId !in 0..layout.maxWorkerId).throwRuntimeIf {
+      ArgumentsException("[ID] - WorkerId的取值超出了范围，0 - ${layout.maxWorkerId}")
+    }
+    (config.rollbackTolerance < 0).throwRuntimeIf { ArgumentsException("[ID] - 可容忍的时钟回退时间不能为负数") }
+    (config.borrowDrift < 0).throwRuntimeIf { ArgumentsException("[ID] - 可借用的时间不能为负数") }
 
-    host = Host(dataCenterId.shl(DATA_CENTER_ID_SHIFT), workerId.shl(WORKER_ID_SHIFT))
+    // 序列中至少保留1位用于通道内计数，备用序列策略再占用1位
+    val backupBits = if (rollbackStrategy == RollbackStrategy.BACKUP_SEQUENCE) 1 else 0
+    (layout.sequenceBits - backupBits < 1).throwRuntimeIf {
+      ArgumentsException("[ID] - 序列位数不足，$rollbackStrategy 策略下序列至少占 ${1 + backupBits} 位")
+    }
+    val maxLanes = minOf(MAX_LANES.toLong(), 1L.shl(layout.sequenceBits - 1 - backupBits)).toInt()
+    val laneCount = if (mode == Mode.LANES) config.lanes else 1
+    (laneCount <= 0 || Integer.bitCount(laneCount) != 1 || laneCount > maxLanes).throwRuntimeIf {
+      ArgumentsException("[ID] - 通道数须为2的幂，取值 1 - $maxLanes")
+    }
 
-    logger.info("[ID] - ID序列化参数：DataCenterId: ${host.dataCenterId}, WorkerId: ${host.workerId}")
+    host = Host(dataCenterId.shl(layout.dataCenterIdShift), workerId.shl(layout.workerIdShift))
+    laneMask = laneCount - 1
+    laneSequenceBits = layout.sequenceBits - Integer.numberOfTrailingZeros(laneCount)
+    counterBits = laneSequenceBits - backupBits
+    counterMask = (-1L).shl(counterBits).inv()
+    backupFlag = backupBits.toLong().shl(counterBits)
+    // 计数位较多时先截断到 Int 范围再相乘，避免 long 溢出
+    val sequencesPerTick = minOf(Int.MAX_VALUE.toLong(), counterMask + 1)
+    maxReserve = minOf(Int.MAX_VALUE.toLong(), sequencesPerTick * MAX_RESERVE_TICKS).toInt()
+    rollbackTolerance = config.rollbackTolerance / layout.tick.millis
+    val logicalTolerance = if (rollbackStrategy == RollbackStrategy.LOGICAL_CLOCK) rollbackTolerance else 0L
+    val borrowTolerance = if (waitStrategy == WaitStrategy.BORROW) config.borrowDrift / layout.tick.millis else 0L
+    aheadTolerance = maxOf(logicalTolerance, borrowTolerance)
+    states = AtomicLongArray(laneCount * STATE_PADDING)
+    for (lane in 0 until laneCount) {
+      states.set(lane * STATE_PADDING + GUARD_OFFSET, -1L)
+    }
+
+    logger.info(
+      "[ID] - ID序列化参数：DataCenterId: $dataCenterId, WorkerId: $workerId, Mode: $mode, Lanes: $laneCount, " +
+          "Layout: $layout, Rollback: $rollbackStrategy, Wait: $waitStrategy"
+    )
+  }
+
+  /**
+   * 当前时间戳（相对于时间起点的刻度数）
+   */
+  private fun current(): Long {
+    val timestamp = layout.ticks(clock.millis())
+    (timestamp > layout.maxTimestamp).throwRuntimeIf { ArgumentsException("[ID] - 时间戳超出了布局可表示的范围") }
+    return timestamp
   }
 
   /**
-   * 阻塞到下一个毫秒，直到获得新的时间戳
+   * 按 [waitStrategy] 等待，直到时钟到达给出的时间戳
    *
-   * @param lastTimestamp 上次生成ID的时间截
-   * @return 当前时间戳
+   * @param timestamp 目标时间戳
    */
-  private fun until(lastTimestamp: Long): Long {
-    var ts: Long
-    do {
-      ts = SystemClock.now()
-    } while (ts < lastTimestamp)
-    return ts
+  private fun await(timestamp: Long) {
+    var spins = 0
+    while (current() < timestamp) {
+      when (waitStrategy) {
+        WaitStrategy.SPIN -> Thread.onSpinWait()
+        WaitStrategy.SPIN_THEN_PARK -> if (spins++ < SPIN_LIMIT) Thread.onSpinWait() else park(timestamp)
+        else -> park(timestamp)
+      }
+    }
   }
 
+  /**
+   * 休眠到目标时间戳对应的系统时间，虚拟线程下只会让出载体线程
+   */
+  private fun park(timestamp: Long) {
+    statistics.parked.increment()
+    val remaining = layout.millis(timestamp) - clock.millis()
+    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(remaining).coerceAtLeast(MIN_PARK_NANOS))
+  }
+
+  /**
+   * 当前线程对应的通道下标
+   */
+  private fun lane() =
+    threadLanes.get()
+
+  /**
+   * 移位并通过或运算拼到一起组成64位的ID
+   */
+  private fun compose(timestamp: Long, sequence: Long) =
+    timestamp.shl(layout.timestampShift) or host.dataCenterId or host.workerId or sequence
+
   /**
    * 获取id
    *
    * @return id
    */
-  @Synchronized
   fun id(): Long {
-    var timestamp = SystemClock.now()
+    val lane = if (mode == Mode.LANES) lane() else 0
+    val state = if (mode == Mode.SYNCHRONIZED) nextSynchronized(1) else nextAtomic(lane, 1)
+    val sequence = lane.toLong().shl(laneSequenceBits) or (state and layout.sequenceMask)
+    return compose(state.ushr(layout.sequenceBits), sequence)
+  }
 
-    // 如果当前时间小于上一次ID生成的时间戳，说明系统时钟回退过这个时候应当抛出异常
-    // 闰秒
-    if (timestamp < lastTimestamp) {
-      val offset = lastTimestamp - timestamp
-      (offset > 5).throwRuntimeIf { ArgumentsException("[ID] - 时钟回退，距当前时间：$offset 毫秒") }
+  /**
+   * 批量获取id，相比循环调用 [id]，每 [maxReserve] 个id只需进入一次临界区
+   *
+   * @param count Int 数量，超过 [maxReserve] 时分为多次 [reserve]
+   * @return LongArray 严格递增的id（[Mode.LANES] 模式下为通道内严格递增）
+   */
+  fun ids(count: Int): LongArray {
+    (count <= 0).throwRuntimeIf { ArgumentsException("[ID] - 获取的ID数量须大于0") }
 
-      try {
-        Thread.sleep(offset.shl(1))
-        timestamp = SystemClock.now()
+    val ids = LongArray(count)
+    var offset = 0
+    while (offset < count) {
+      val lease = reserve(minOf(maxReserve, count - offset))
+      lease.copyInto(ids, offset)
+      offset += lease.size
+    }
+    return ids
+  }
 
-        (timestamp < lastTimestamp).throwRuntimeIf { ArgumentsException("[ID] - 时钟回退，距当前时间：$offset 毫秒") }
-      } catch (e: InterruptedException) {
-        throw ArgumentsException("[ID] - 时钟回退，调整等待时异常", e)
+  /**
+   * 预留一段连续的序列，序列不足时可跨越多个毫秒（会等待时钟到达最后一个毫秒），整段在一次临界区内申请完成，
+   * 之后从 [Lease] 中取id无需再竞争。预留的id与 [id] 生成的id一样满足单调递增
+   *
+   * @param count Int 预留的id数量，不能超过 [maxReserve]，避免持有锁等待过多的时间刻度
+   * @return Lease 预留的id段
+   */
+  fun reserve(count: Int): Lease {
+    (count <= 0 || count > maxReserve).throwRuntimeIf {
+      ArgumentsException("[ID] - 预留的ID数量须在 1 - $maxReserve 之间")
+    }
+
+    val lane = if (mode == Mode.LANES) lane() else 0
+    val state = if (mode == Mode.SYNCHRONIZED) nextSynchronized(count) else nextAtomic(lane, count)
+
+    // 预留段在"时间戳+计数"组成的位置空间中是连续的，由结束位置倒推起始位置
+    val end = state.ushr(layout.sequenceBits).shl(counterBits) or (state and counterMask)
+    val start = end - (count - 1)
+    val base = lane.toLong().shl(laneSequenceBits) or (state and backupFlag)
+    return Lease(start.ushr(counterBits), start and counterMask, base, counterBits, count)
+  }
+
+  /**
+   * 按本实例的位布局解析id，见 [SnowflakeLayout.decode]
+   */
+  fun decode(id: Long, into: SnowflakeLayout.Decoded): SnowflakeLayout.Decoded =
+    layout.decode(id, into)
+
+  private fun nextSynchronized(count: Int): Long =
+    lock.withLock {
+      var next: Long
+      do {
+        next = advance(0, states.get(0), count)
+      } while (next == RETRY)
+
+      states.set(0, next)
+      next
+    }
+
+  /**
+   * 无锁生成，通过CAS一次性更新打包在一个long中的时间戳与序列
+   *
+   * @param lane Int 通道下标，[Mode.CAS] 模式下恒为0
+   */
+  private fun nextAtomic(lane: Int, count: Int): Long {
+    val index = lane * STATE_PADDING
+
+    while (true) {
+      val state = states.get(index)
+      val next = advance(lane, state, count)
+      if (next != RETRY && states.compareAndSet(index, state, next)) {
+        return next
       }
     }
+  }
+
+  /**
+   * 计算在给出的状态上申请 count 个连续序列后的新状态，时钟回退与序列耗尽均在此处理
+   *
+   * @param lane Int 通道下标
+   * @param state Long 当前状态
+   * @param count Int 申请的序列数量
+   * @return Long 新状态，或 [RETRY] 表示状态已被修改，需要重新读取
+   */
+  private fun advance(lane: Int, state: Long, count: Int): Long {
+    val lastTimestamp = state.ushr(layout.sequenceBits)
+    val counter = state and counterMask
+    var flag = state and backupFlag
+    val now = current()
+    var timestamp = now
+    var first = 0L
 
-    // $NON-NLS-解决跨毫秒生成ID序列号始终为偶数的缺陷$
-    // 如果是同一时间生成的，则进行毫秒内序列
-    sequence = if (lastTimestamp == timestamp) {
-      sequence = (sequence + 1) and SEQUENCE_MASK
-      // 毫秒内序列溢出
-      if (sequence == 0L)
-        until(lastTimestamp) // 阻塞到下一个毫秒,获得新的时间戳
-      else sequence
-    } else 0L // 时间戳改变，毫秒内序列重置
+    when {
+      // 处于备用序列中，且时钟已越过进入备用序列前的最大时间戳与备用序列中（借用的）最大时间戳，恢复正常序列
+      flag != 0L && now > maxOf(states.get(lane * STATE_PADDING + GUARD_OFFSET), lastTimestamp) -> flag = 0L
+      // 时间戳改变，序列重置
+      now > lastTimestamp -> first = 0L
+      // $NON-NLS-解决跨毫秒生成ID序列号始终为偶数的缺陷$
+      // 如果是同一时间生成的（或逻辑时钟领先系统时钟在容忍范围内），则进行序列递增，溢出的部分顺延到下一个时间刻度
+      lastTimestamp - now <= aheadTolerance -> {
+        if (now < lastTimestamp) statistics.logicalClock.increment()
+        timestamp = lastTimestamp
+        first = counter + 1
+      }
+      // 时钟回退
+      else -> {
+        statistics.rollback.increment()
+        when (rollbackStrategy) {
+          RollbackStrategy.WAIT -> {
+            timestamp = waitForRollback(lastTimestamp, now)
+            first = if (timestamp == lastTimestamp) counter + 1 else 0L
+          }
+          RollbackStrategy.BACKUP_SEQUENCE -> return enterBackup(lane, state, now)
+          else -> throw fail(lastTimestamp - now)
+        }
+      }
+    }
 
-    // 上次生成ID的时间截
-    lastTimestamp = timestamp
+    // 序列溢出到了未来的时间刻度，在可借用范围内直接使用，否则等待时钟到达后再发布状态，避免其他线程将未来的时间戳误判为时钟回退
+    val last = first + count - 1
+    val end = timestamp + last.ushr(counterBits)
+    (end > layout.maxTimestamp).throwRuntimeIf { ArgumentsException("[ID] - 时间戳超出了布局可表示的范围") }
+    if (end > now) {
+      statistics.exhausted.increment()
+      if (end - aheadTolerance > now) {
+        await(end - aheadTolerance)
+      } else statistics.borrowed.increment()
+    }
 
-    // 移位并通过或运算拼到一起组成64位的ID
-    return (timestamp - BASELINE).shl(TIMESTAMP_LEFT_SHIFT) or host.dataCenterId or host.workerId or sequence
+    return end.shl(layout.sequenceBits) or flag or (last and counterMask)
   }
 
   /**
-   * @property dataCenterId dataCenterId - 数据中心ID(0~31)
-   * @property workerId workerId - 工作机器ID(0~31)
+   * [RollbackStrategy.WAIT] 策略，在可容忍范围内等待时钟追上
+   *
+   * @return 等待后的时间戳，不小于 lastTimestamp
+   */
+  private fun waitForRollback(lastTimestamp: Long, now: Long): Long {
+    val offset = lastTimestamp - now
+    (offset > rollbackTolerance).throwRuntimeIf { fail(offset) }
+
+    try {
+      Thread.sleep(offset.shl(1) * layout.tick.millis)
+    } catch (e: InterruptedException) {
+      throw ArgumentsException("[ID] - 时钟回退，调整等待时异常", e)
+    }
+
+    val timestamp = current()
+    (timestamp < lastTimestamp).throwRuntimeIf { fail(offset) }
+    statistics.waited.increment()
+    return timestamp
+  }
+
+  /**
+   * [RollbackStrategy.BACKUP_SEQUENCE] 策略，以回退后的时间戳切换到备用序列。同一通道在上一次进入备用序列时的守卫时间戳之前，
+   * 不能再次进入备用序列，否则可能与上一次备用序列中发出的id重复
+   *
+   * @return 总是返回 [RETRY]，调用方重新读取切换后的状态
+   */
+  private fun enterBackup(lane: Int, state: Long, now: Long): Long {
+    val index = lane * STATE_PADDING
+    val guardIndex = index + GUARD_OFFSET
+    val lastTimestamp = state.ushr(layout.sequenceBits)
+
+    // 守卫时间戳只在持有锁时写入，且只在正常序列下写入，读取守卫的备用序列状态不会与写入同时存在
+    lock.withLock {
+      // 其他线程已更新了状态（如已切换到备用序列），重新读取
+      if (states.get(index) != state) return RETRY
+
+      val guard = states.get(guardIndex)
+      ((state and backupFlag) != 0L || now <= guard).throwRuntimeIf { fail(lastTimestamp - now) }
+
+      states.set(guardIndex, lastTimestamp)
+      // 以 now - 1 作为上次时间戳，使下一次申请从 now 的备用序列0开始
+      if (states.compareAndSet(index, state, (now - 1).shl(layout.sequenceBits) or backupFlag)) {
+        statistics.backup.increment()
+        logger.warn("[ID] - 时钟回退 ${(lastTimestamp - now) * layout.tick.millis} 毫秒，切换到备用序列")
+      } else states.set(guardIndex, guard)
+    }
+    return RETRY
+  }
+
+  private fun fail(offset: Long): ArgumentsException {
+    statistics.failed.increment()
+    return ArgumentsException("[ID] - 时钟回退，距当前时间：${offset * layout.tick.millis} 毫秒")
+  }
+
+  /**
+   * 预留的一段连续id，从起始毫秒的起始序列开始，序列用尽后顺延到下一个毫秒；id随下标严格递增
+   *
+   * @property size Int id数量
+   */
+  inner class Lease internal constructor(
+    private val timestamp: Long,
+    private val first: Long,
+    private val laneBase: Long,
+    private val sequenceBits: Int,
+    val size: Int
+  ) {
+
+    private val sequenceMask = (-1L).shl(sequenceBits).inv()
+
+    /**
+     * 获取预留段中指定下标的id
+     */
+    operator fun get(index: Int): Long {
+      (index !in 0 until size).throwRuntimeIf { ArgumentsException("[ID] - 下标超出预留范围：$index") }
+
+      val position = first + index
+      return compose(timestamp + position.ushr(sequenceBits), laneBase or (position and sequenceMask))
+    }
+
+    /**
+     * 将预留段中的所有id依次写入数组
+     *
+     * @param destination LongArray 目标数组
+     * @param destinationOffset Int 写入的起始下标，默认0
+     * @return LongArray 目标数组
+     */
+    @JvmOverloads
+    fun copyInto(destination: LongArray, destinationOffset: Int = 0): LongArray {
+      (destinationOffset < 0 || destination.size - destinationOffset < size).throwRuntimeIf {
+        ArgumentsException("[ID] - 目标数组空间不足")
+      }
+
+      var ts = timestamp
+      var seq = first
+      for (i in 0 until size) {
+        destination[destinationOffset + i] = compose(ts, laneBase or seq)
+        if (seq == sequenceMask) {
+          seq = 0L
+          ts++
+        } else seq++
+      }
+      return destination
+    }
+
+    fun toLongArray(): LongArray =
+      copyInto(LongArray(size))
+  }
+
+  /**
+   * 生成模式
+   */
+  enum class Mode {
+    /**
+     * 同步锁模式，所有线程竞争同一把锁，生成的ID全局严格递增
+     */
+    SYNCHRONIZED,
+
+    /**
+     * 无锁模式，时间戳与序列打包在一个 AtomicLong 中，通过CAS更新，生成的ID全局严格递增
+     */
+    CAS,
+
+    /**
+     * 多通道无锁模式，序列的高位用于区分通道，线程按首次使用的顺序轮流分配到各自通道独立CAS，减少竞争；
+     * 每个通道内的ID严格递增，不同通道之间只保证唯一、大致有序，单通道每毫秒可生成的ID数相应减少
+     */
+    LANES
+  }
+
+  /**
+   * 时钟回退（超出同一时间刻度或逻辑时钟容忍范围）时的处理策略
+   */
+  enum class RollbackStrategy {
+    /**
+     * 在可容忍范围内（默认 [DEFAULT_ROLLBACK_TOLERANCE] 毫秒）休眠回退时间的2倍等待时钟追上，超出范围抛出异常；
+     * 同步锁模式下休眠期间持有锁，会阻塞所有生成id的线程
+     */
+    WAIT,
+
+    /**
+     * 使用逻辑时钟，时钟回退后继续沿用上次的时间戳递增序列，序列溢出时逻辑时钟向前推进，
+     * 逻辑时钟领先系统时钟超过可容忍范围时抛出异常。不会阻塞
+     */
+    LOGICAL_CLOCK,
+
+    /**
+     * 占用序列的最高位作为备用序列位，时钟回退时以回退后的时间戳切换到备用序列，时钟越过回退前的最大时间戳后切回正常序列；
+     * 备用序列期间再次回退，或回退落在上一次备用序列的范围内时抛出异常。不会阻塞，但每个时间刻度可生成的id数减半
+     */
+    BACKUP_SEQUENCE,
+
+    /**
+     * 立即抛出异常
+     */
+    FAIL_FAST
+  }
+
+  /**
+   * 序列耗尽（当前时间刻度内的序列不足）时的等待策略
+   */
+  enum class WaitStrategy {
+    /**
+     * 忙等直到下一个时间刻度，延迟最低，但会占满一个CPU核心
+     */
+    SPIN,
+
+    /**
+     * 先短暂自旋，仍未到达下一个时间刻度则休眠到下一个时间刻度
+     */
+    SPIN_THEN_PARK,
+
+    /**
+     * 直接休眠（LockSupport.parkNanos）到下一个时间刻度
+     */
+    PARK,
+
+    /**
+     * 在可借用范围内（默认 [DEFAULT_BORROW_DRIFT] 毫秒）直接使用未来时间刻度的序列，不等待；
+     * 领先系统时钟超出范围后休眠等待。生成的id时间戳可能略早于实际时间
+     */
+    BORROW
+  }
+
+  /**
+   * 事件计数，用于监控
+   */
+  class Statistics internal constructor() {
+
+    internal val rollback = LongAdder()
+    internal val waited = LongAdder()
+    internal val logicalClock = LongAdder()
+    internal val backup = LongAdder()
+    internal val failed = LongAdder()
+    internal val exhausted = LongAdder()
+    internal val parked = LongAdder()
+    internal val borrowed = LongAdder()
+
+    /**
+     * 检测到时钟回退（超出同一时间刻度或逻辑时钟容忍范围）的次数
+     */
+    fun rollbacks(): Long = rollback.sum()
+
+    /**
+     * [RollbackStrategy.WAIT] 策略等待成功的次数
+     */
+    fun waits(): Long = waited.sum()
+
+    /**
+     * 逻辑时钟领先系统时钟时生成id的次数（[RollbackStrategy.LOGICAL_CLOCK] 策略）
+     */
+    fun logicalClockTicks(): Long = logicalClock.sum()
+
+    /**
+     * 切换到备用序列的次数（[RollbackStrategy.BACKUP_SEQUENCE] 策略）
+     */
+    fun backupSwitches(): Long = backup.sum()
+
+    /**
+     * 因时钟回退而抛出异常的次数
+     */
+    fun failures(): Long = failed.sum()
+
+    /**
+     * 序列耗尽，需要使用未来时间刻度的次数
+     */
+    fun exhaustions(): Long = exhausted.sum()
+
+    /**
+     * 序列耗尽后休眠等待的次数
+     */
+    fun parks(): Long = parked.sum()
+
+    /**
+     * 序列耗尽后借用未来时间刻度而未等待的次数
+     */
+    fun borrows(): Long = borrowed.sum()
+
+    override fun toString(): String =
+      "Statistics(rollbacks=${rollbacks()}, waits=${waits()}, logicalClockTicks=${logicalClockTicks()}, " +
+          "backupSwitches=${backupSwitches()}, failures=${failures()}, exhaustions=${exhaustions()}, " +
+          "parks=${parks()}, borrows=${borrows()})"
+  }
+
+  /**
+   * @property dataCenterId dataCenterId - 已移位的数据中心ID
+   * @property workerId workerId - 已移位的工作机器ID
    */
   internal data class Host(val dataCenterId: Long, val workerId: Long)
 
   companion object {
     /**
-     * 时间起始标记点（2015年1月1日0时0分0秒），作为基准，一般取系统的最近时间（一旦确定不能变动）
+     * 默认可容忍的时钟回退毫秒数，超过后直接抛出异常
+     */
+    const val DEFAULT_ROLLBACK_TOLERANCE = 5L
+
+    /**
+     * [WaitStrategy.BORROW] 策略默认可借用的毫秒数
      */
-    private const val BASELINE = 1420041600000L
+    const val DEFAULT_BORROW_DRIFT = 10L
 
     /**
-     * 机器id所占的位数
+     * [WaitStrategy.SPIN_THEN_PARK] 策略休眠前的自旋次数
      */
-    private const val WORKER_ID_BITS = 5
+    private const val SPIN_LIMIT = 100
 
     /**
-     * 数据标识id所占的位数
+     * 单次休眠的最短时间
      */
-    private const val DATA_CENTER_ID_BITS = 5
+    private const val MIN_PARK_NANOS = 50_000L
 
     /**
-     * 支持的最大机器id，结果是31 (这个移位算法可以很快的计算出几位二进制数所能表示的最大十进制数)
+     * [reserve] 单次预留最多跨越的时间刻度数
      */
-    private const val MAX_WORKER_ID = (-1L).shl(WORKER_ID_BITS).inv()
+    const val MAX_RESERVE_TICKS = 4L
 
     /**
-     * 支持的最大数据标识id，结果是31
+     * 默认通道数
      */
-    private const val MAX_DATA_CENTER_ID = (-1L).shl(DATA_CENTER_ID_BITS).inv()
+    const val DEFAULT_LANES = 8
 
     /**
-     * 序列在id中占的位数
+     * 通道数的上限，序列位数较多时也不再增加，限制各通道状态占用的内存
      */
-    private const val SEQUENCE_BITS = 12
+    const val MAX_LANES = 1024
 
     /**
-     * 机器ID向左移12位
+     * 通道状态在数组中的间隔（16个long，即128字节），使每个通道的状态独占缓存行
      */
-    private const val WORKER_ID_SHIFT = SEQUENCE_BITS
+    private const val STATE_PADDING = 16
 
     /**
-     * 数据标识id向左移17位(12+5)
+     * 备用序列守卫时间戳相对于通道状态的下标偏移
      */
-    private const val DATA_CENTER_ID_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS
+    private const val GUARD_OFFSET = 1
 
     /**
-     * 时间截向左移22位(5+5+12)
+     * 状态不会为负数，以-1表示需要重新读取状态
      */
-    private const val TIMESTAMP_LEFT_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS + DATA_CENTER_ID_BITS
+    private const val RETRY = -1L
 
     /**
-     * 生成序列的掩码，这里为4095 (0b111111111111=0xfff=4095)
+     * 使用默认布局以外的配置（如自定义位布局）构建Snowflake
+     *
+     * @param dataCenterId Long 数据中心id，取值范围由布局决定
+     * @param workerId Long 工作组id，取值范围由布局决定
      */
-    private const val SEQUENCE_MASK = (-1L).shl(SEQUENCE_BITS).inv()
+    @JvmStatic
+    fun builder(dataCenterId: Long, workerId: Long) =
+      SnowflakeBuilder(SnowflakeConfig(dataCenterId, workerId))
   }
 
 }
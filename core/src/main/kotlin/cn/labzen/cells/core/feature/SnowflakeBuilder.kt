@@ -0,0 +1,74 @@
+@file:Suppress("unused")
+
+package cn.labzen.cells.core.feature
+
+class SnowflakeBuilder internal constructor(private val config: SnowflakeConfig) {
+
+  /**
+   * 设置生成模式，默认 [Snowflake.Mode.SYNCHRONIZED]
+   */
+  fun mode(mode: Snowflake.Mode): SnowflakeBuilder {
+    config.mode = mode
+    return this
+  }
+
+  /**
+   * 设置通道数，仅在 [Snowflake.Mode.LANES] 模式下有效，须为2的幂
+   */
+  fun lanes(lanes: Int): SnowflakeBuilder {
+    config.lanes = lanes
+    return this
+  }
+
+  /**
+   * 设置ID的位布局，默认 [SnowflakeLayout.DEFAULT]
+   */
+  fun layout(layout: SnowflakeLayout): SnowflakeBuilder {
+    config.layout = layout
+    return this
+  }
+
+  /**
+   * 设置时钟回退的处理策略，默认 [Snowflake.RollbackStrategy.WAIT]
+   */
+  fun rollbackStrategy(strategy: Snowflake.RollbackStrategy): SnowflakeBuilder {
+    config.rollbackStrategy = strategy
+    return this
+  }
+
+  /**
+   * 设置可容忍的时钟回退时间，单位：毫秒，默认 [Snowflake.DEFAULT_ROLLBACK_TOLERANCE]。
+   * 对于 [Snowflake.RollbackStrategy.LOGICAL_CLOCK] 策略，即逻辑时钟可领先系统时钟的最大时间
+   */
+  fun rollbackTolerance(millis: Long): SnowflakeBuilder {
+    config.rollbackTolerance = millis
+    return this
+  }
+
+  /**
+   * 设置序列耗尽时的等待策略，默认 [Snowflake.WaitStrategy.SPIN_THEN_PARK]
+   */
+  fun waitStrategy(strategy: Snowflake.WaitStrategy): SnowflakeBuilder {
+    config.waitStrategy = strategy
+    return this
+  }
+
+  /**
+   * 设置 [Snowflake.WaitStrategy.BORROW] 策略下可借用（领先系统时钟）的最大时间，单位：毫秒，
+   * 默认 [Snowflake.DEFAULT_BORROW_DRIFT]
+   */
+  fun borrowDrift(millis: Long): SnowflakeBuilder {
+    config.borrowDrift = millis
+    return this
+  }
+
+  /**
+   * 设置时间来源，默认 [Clock.CACHED]
+   */
+  fun clock(clock: Clock): SnowflakeBuilder {
+    config.clock = clock
+    return this
+  }
+
+  fun build() = Snowflake(config)
+}
@@ -0,0 +1,13 @@
+package cn.labzen.cells.core.feature
+
+class SnowflakeConfig(val dataCenterId: Long, val workerId: Long) {
+
+  internal var mode: Snowflake.Mode = Snowflake.Mode.SYNCHRONIZED
+  internal var lanes: Int = Snowflake.DEFAULT_LANES
+  internal var layout: SnowflakeLayout = SnowflakeLayout.DEFAULT
+  internal var rollbackStrategy: Snowflake.RollbackStrategy = Snowflake.RollbackStrategy.WAIT
+  internal var rollbackTolerance: Long = Snowflake.DEFAULT_ROLLBACK_TOLERANCE
+  internal var waitStrategy: Snowflake.WaitStrategy = Snowflake.WaitStrategy.SPIN_THEN_PARK
+  internal var borrowDrift: Long = Snowflake.DEFAULT_BORROW_DRIFT
+  internal var clock: Clock = Clock.CACHED
+}
@@ -0,0 +1,241 @@
+@file:Suppress("unused")
+
+package cn.labzen.cells.core.feature
+
+import cn.labzen.cells.core.exception.ArgumentsException
+import cn.labzen.cells.core.kotlin.throwRuntimeIf
+
+/**
+ * [Snowflake] ID的位布局：1位符号位 + 时间戳 + 数据中心id + 工作组id + 序列，各部分所占位数、时间起点与时间刻度均可配置
+ *
+ * 默认布局 [DEFAULT] 为 41/5/5/12 位，以1毫秒为刻度，起点为2015年1月1日0时0分0秒
+ *
+ * > 对于节点少、单节点发号频率高的场景，可减少数据中心id与工作组id的位数，将其让给序列；以10毫秒为刻度时，相同位数的时间戳可使用的年限扩大10倍
+ *
+ * 解析id时，可使用 [timestampOf]、[dataCenterIdOf]、[workerIdOf]、[sequenceOf] 单独获取某一字段，或使用 [decode] 将所有字段写入可复用的
+ * [Decoded]，均只做位运算，不产生任何对象分配
+ *
+ * @property timestampBits Int 时间戳所占的位数
+ * @property dataCenterIdBits Int 数据中心id所占的位数
+ * @property workerIdBits Int 工作组id所占的位数
+ * @property sequenceBits Int 序列所占的位数
+ * @property epoch Long 时间起点（毫秒），一旦确定不能变动
+ * @property tick Tick 时间刻度
+ */
+class SnowflakeLayout private constructor(
+  val timestampBits: Int,
+  val dataCenterIdBits: Int,
+  val workerIdBits: Int,
+  val sequenceBits: Int,
+  val epoch: Long,
+  val tick: Tick
+) {
+
+  /**
+   * 工作组id向左移位数
+   */
+  internal val workerIdShift = sequenceBits
+
+  /**
+   * 数据中心id向左移位数
+   */
+  internal val dataCenterIdShift = sequenceBits + workerIdBits
+
+  /**
+   * 时间戳向左移位数
+   */
+  internal val timestampShift = sequenceBits + workerIdBits + dataCenterIdBits
+
+  /**
+   * 时间起点对应的刻度数
+   */
+  internal val epochTicks = epoch / tick.millis
+
+  /**
+   * 支持的最大时间戳（刻度数）
+   */
+  val maxTimestamp = (-1L).shl(timestampBits).inv()
+
+  /**
+   * 支持的最大数据中心id
+   */
+  val maxDataCenterId = (-1L).shl(dataCenterIdBits).inv()
+
+  /**
+   * 支持的最大工作组id
+   */
+  val maxWorkerId = (-1L).shl(workerIdBits).inv()
+
+  /**
+   * 序列的掩码
+   */
+  val sequenceMask = (-1L).shl(sequenceBits).inv()
+
+  /**
+   * 将系统时间（毫秒）转换为相对于时间起点的刻度数
+   */
+  internal fun ticks(millis: Long) =
+    millis / tick.millis - epochTicks
+
+  /**
+   * 将相对于时间起点的刻度数转换为系统时间（毫秒）
+   */
+  internal fun millis(ticks: Long) =
+    (ticks + epochTicks) * tick.millis
+
+  /**
+   * 获取id中的时间（系统时间毫秒数，精度为 [tick]）
+   */
+  fun timestampOf(id: Long): Long =
+    millis(id.ushr(timestampShift))
+
+  /**
+   * 获取id中的数据中心id
+   */
+  fun dataCenterIdOf(id: Long): Long =
+    id.ushr(dataCenterIdShift) and maxDataCenterId
+
+  /**
+   * 获取id中的工作组id
+   */
+  fun workerIdOf(id: Long): Long =
+    id.ushr(workerIdShift) and maxWorkerId
+
+  /**
+   * 获取id中的序列
+   */
+  fun sequenceOf(id: Long): Long =
+    id and sequenceMask
+
+  /**
+   * 将id的所有字段写入给出的 [Decoded]，可在循环中复用同一个 [Decoded] 以避免对象分配
+   *
+   * @param id Long 由本布局生成的id
+   * @param into Decoded 接收解析结果
+   * @return Decoded 即 into
+   */
+  fun decode(id: Long, into: Decoded): Decoded {
+    into.timestamp = timestampOf(id)
+    into.dataCenterId = dataCenterIdOf(id)
+    into.workerId = workerIdOf(id)
+    into.sequence = sequenceOf(id)
+    return into
+  }
+
+  override fun toString(): String =
+    "SnowflakeLayout($timestampBits/$dataCenterIdBits/$workerIdBits/$sequenceBits, epoch=$epoch, tick=$tick)"
+
+  /**
+   * 可复用的id解析结果
+   */
+  class Decoded {
+    /**
+     * 系统时间毫秒数
+     */
+    var timestamp = 0L
+    var dataCenterId = 0L
+    var workerId = 0L
+    var sequence = 0L
+  }
+
+  /**
+   * 时间刻度
+   *
+   * @property millis Long 每个刻度的毫秒数
+   */
+  enum class Tick(val millis: Long) {
+    MILLISECOND(1),
+    TEN_MILLISECONDS(10)
+  }
+
+  class Builder internal constructor() {
+
+    private var timestampBits = DEFAULT_TIMESTAMP_BITS
+    private var dataCenterIdBits = DEFAULT_DATA_CENTER_ID_BITS
+    private var workerIdBits = DEFAULT_WORKER_ID_BITS
+    private var sequenceBits = DEFAULT_SEQUENCE_BITS
+    private var epoch = DEFAULT_EPOCH
+    private var tick = Tick.MILLISECOND
+
+    fun timestampBits(bits: Int): Builder {
+      this.timestampBits = bits
+      return this
+    }
+
+    fun dataCenterIdBits(bits: Int): Builder {
+      this.dataCenterIdBits = bits
+      return this
+    }
+
+    fun workerIdBits(bits: Int): Builder {
+      this.workerIdBits = bits
+      return this
+    }
+
+    fun sequenceBits(bits: Int): Builder {
+      this.sequenceBits = bits
+      return this
+    }
+
+    /**
+     * 设置时间起点（毫秒），不能晚于当前时间
+     */
+    fun epoch(epoch: Long): Builder {
+      this.epoch = epoch
+      return this
+    }
+
+    fun tick(tick: Tick): Builder {
+      this.tick = tick
+      return this
+    }
+
+    fun build(): SnowflakeLayout {
+      (timestampBits < 1 || sequenceBits < 1 || dataCenterIdBits < 0 || workerIdBits < 0).throwRuntimeIf {
+        ArgumentsException("[ID] - 时间戳与序列至少占1位，数据中心id与工作组id不能为负数")
+      }
+      (timestampBits + dataCenterIdBits + workerIdBits + sequenceBits > MAX_BITS).throwRuntimeIf {
+        ArgumentsException("[ID] - 各部分位数之和不能超过 $MAX_BITS")
+      }
+      (epoch < 0 || epoch > System.currentTimeMillis()).throwRuntimeIf {
+        ArgumentsException("[ID] - 时间起点不能晚于当前时间")
+      }
+
+      return SnowflakeLayout(timestampBits, dataCenterIdBits, workerIdBits, sequenceBits, epoch, tick)
+    }
+  }
+
+  companion object {
+
+    /**
+     * 时间起点（2015年1月1日0时0分0秒），作为基准，一般取系统的最近时间（一旦确定不能变动）
+     */
+    const val DEFAULT_EPOCH = 1420041600000L
+
+    private const val DEFAULT_TIMESTAMP_BITS = 41
+    private const val DEFAULT_DATA_CENTER_ID_BITS = 5
+    private const val DEFAULT_WORKER_ID_BITS = 5
+    private const val DEFAULT_SEQUENCE_BITS = 12
+
+    /**
+     * 除符号位外可用的位数
+     */
+    private const val MAX_BITS = 63
+
+    /**
+     * 默认布局，41位毫秒时间戳 + 5位数据中心id + 5位工作组id + 12位序列
+     */
+    @JvmField
+    val DEFAULT = SnowflakeLayout(
+      DEFAULT_TIMESTAMP_BITS,
+      DEFAULT_DATA_CENTER_ID_BITS,
+      DEFAULT_WORKER_ID_BITS,
+      DEFAULT_SEQUENCE_BITS,
+      DEFAULT_EPOCH,
+      Tick.MILLISECOND
+    )
+
+    @JvmStatic
+    fun builder() = Builder()
+  }
+}
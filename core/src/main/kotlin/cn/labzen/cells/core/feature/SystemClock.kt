@@ -1,8 +1,16 @@
+@file:Suppress("unused")
+
 package cn.labzen.cells.core.feature
 
+import cn.labzen.cells.core.exception.ArgumentsException
+import cn.labzen.cells.core.kotlin.throwRuntimeIf
+import org.slf4j.LoggerFactory
+import java.time.Instant
+import java.util.concurrent.ScheduledFuture
 import java.util.concurrent.ScheduledThreadPoolExecutor
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicLong
+import kotlin.math.abs
 
 /**
  * 高并发场景下System.currentTimeMillis()的性能问题的优化
@@ -17,21 +25,213 @@ import java.util.concurrent.atomic.AtomicLong
  * - 1亿：4699,29,162.0344827586207%
  * - 1000万：480,12,40.0%
  * - 100万：50,10,5.0%
+ *
+ * 提供两种模式，见 [Mode]：
+ * - [Mode.CACHED]（默认）后台线程按 [period] 设置的周期刷新缓存的毫秒时间，读取最快，但精度受刷新周期与调度延迟（如GC停顿）影响
+ * - [Mode.MONOTONIC] 以 System.nanoTime() 为锚点推算当前时间，单调不减，精度不受调度影响
+ *
+ * 无论哪种模式，[nanos]、[micros]、[instant] 均基于 System.nanoTime() 锚点推算，提供微秒（纳秒）级精度的时间。
+ * 后台的漂移监视器按 [resyncPeriod] 设置的周期将锚点与 System.currentTimeMillis() 对比，漂移超过 [DRIFT_THRESHOLD_NANOS]
+ * 时重新同步：锚点落后则直接前进；锚点领先则以半速运行追平，保证读数不回退
  */
 object SystemClock {
 
-  private const val period: Long = 1
+  private val logger = LoggerFactory.getLogger(SystemClock::class.java)
+
+  private const val DEFAULT_PERIOD_NANOS: Long = 1_000_000
+  private const val DEFAULT_RESYNC_PERIOD_NANOS: Long = 1_000_000_000
+  private const val NANOS_PER_MILLI = 1_000_000L
+  private const val NANOS_PER_MICRO = 1_000L
+
+  /**
+   * 锚点与系统时间的漂移超过该值（2毫秒，System.currentTimeMillis() 本身有1毫秒的截断误差）时重新同步
+   */
+  const val DRIFT_THRESHOLD_NANOS = 2_000_000L
+
   private val now: AtomicLong = AtomicLong(System.currentTimeMillis())
 
+  @Volatile
+  private var mode = Mode.CACHED
+
+  /**
+   * 切换到 [Mode.CACHED] 时 [now] 的最后读数，缓存时间不低于该值，系统时间越过后不再起作用
+   */
+  @Volatile
+  private var floor = 0L
+
+  @Volatile
+  private var anchor = Anchor.of(System.currentTimeMillis() * NANOS_PER_MILLI, System.nanoTime())
+
+  @Volatile
+  private var drift = 0L
+  private val resyncs = AtomicLong()
+
+  private val executor = ScheduledThreadPoolExecutor(1) { r ->
+    Thread(r, "System Clock").apply { this.isDaemon = true }
+  }
+  private var ticker: ScheduledFuture<*>
+  private var monitor: ScheduledFuture<*>
+
   init {
-    val executor = ScheduledThreadPoolExecutor(1) { r ->
-      Thread(r, "System Clock").apply { this.isDaemon = true }
+    ticker = scheduleTicker(DEFAULT_PERIOD_NANOS)
+    monitor = scheduleMonitor(DEFAULT_RESYNC_PERIOD_NANOS)
+  }
+
+  private fun scheduleTicker(periodNanos: Long) =
+    executor.scheduleAtFixedRate(
+      { now.set(maxOf(System.currentTimeMillis(), floor)) },
+      periodNanos,
+      periodNanos,
+      TimeUnit.NANOSECONDS
+    )
+
+  private fun scheduleMonitor(periodNanos: Long) =
+    executor.scheduleAtFixedRate({ resync() }, periodNanos, periodNanos, TimeUnit.NANOSECONDS)
+
+  /**
+   * 当前时间毫秒数，[Mode.CACHED] 模式下为缓存值，[Mode.MONOTONIC] 模式下由锚点推算
+   */
+  @JvmStatic
+  fun now(): Long =
+    if (mode == Mode.CACHED) now.get() else anchor.at(System.nanoTime()) / NANOS_PER_MILLI
+
+  /**
+   * 当前时间纳秒数（自1970-01-01T00:00:00Z起），由锚点推算，单调不减
+   */
+  @JvmStatic
+  fun nanos(): Long =
+    anchor.at(System.nanoTime())
+
+  /**
+   * 当前时间微秒数（自1970-01-01T00:00:00Z起），由锚点推算，单调不减
+   */
+  @JvmStatic
+  fun micros(): Long =
+    nanos() / NANOS_PER_MICRO
+
+  /**
+   * 微秒精度的当前时间
+   */
+  @JvmStatic
+  fun instant(): Instant =
+    micros().let { Instant.ofEpochSecond(it / 1_000_000, (it % 1_000_000) * NANOS_PER_MICRO) }
+
+  /**
+   * 设置 [now] 的计时模式。切换时新模式的读数从旧模式的最后读数开始，[now] 不会因切换而回退：
+   * 切换到 [Mode.MONOTONIC] 时若锚点落后于缓存时间，锚点从缓存时间开始以半速运行追平；
+   * 切换到 [Mode.CACHED] 时缓存时间不低于锚点推算的时间
+   */
+  @JvmStatic
+  @Synchronized
+  fun mode(mode: Mode) {
+    if (this.mode == mode) return
+
+    val nanoTime = System.nanoTime()
+    val current = anchor.at(nanoTime)
+    if (mode == Mode.MONOTONIC) {
+      // 后台线程可能在读取缓存后又刷新了缓存，取两者的较大值
+      val cached = maxOf(now.get(), System.currentTimeMillis()) * NANOS_PER_MILLI
+      if (current < cached) anchor = Anchor(cached, nanoTime, nanoTime + (cached - current).shl(1))
+    } else {
+      floor = current / NANOS_PER_MILLI
+      now.accumulateAndGet(floor) { a, b -> maxOf(a, b) }
     }
+    this.mode = mode
+  }
+
+  @JvmStatic
+  fun mode(): Mode = mode
 
-    executor.scheduleAtFixedRate({ now.set(System.currentTimeMillis()) }, period, period, TimeUnit.MILLISECONDS)
+  /**
+   * 设置 [Mode.CACHED] 模式下缓存时间的刷新周期，默认1毫秒
+   */
+  @JvmStatic
+  @Synchronized
+  fun period(period: Long, unit: TimeUnit) {
+    val nanos = unit.toNanos(period)
+    (nanos <= 0).throwRuntimeIf { ArgumentsException("[Clock] - 刷新周期须大于0") }
+
+    ticker.cancel(false)
+    ticker = scheduleTicker(nanos)
   }
 
+  /**
+   * 设置漂移监视器的检查周期，默认1秒
+   */
   @JvmStatic
-  fun now(): Long = now.get()
+  @Synchronized
+  fun resyncPeriod(period: Long, unit: TimeUnit) {
+    val nanos = unit.toNanos(period)
+    (nanos <= 0).throwRuntimeIf { ArgumentsException("[Clock] - 同步周期须大于0") }
 
+    monitor.cancel(false)
+    monitor = scheduleMonitor(nanos)
+  }
+
+  /**
+   * 最近一次检查时锚点相对于 System.currentTimeMillis() 的漂移，单位：纳秒，正数表示锚点领先
+   */
+  @JvmStatic
+  fun drift(): Long = drift
+
+  /**
+   * 锚点重新同步的次数
+   */
+  @JvmStatic
+  fun resyncs(): Long = resyncs.get()
+
+  /**
+   * 立即将锚点与 System.currentTimeMillis() 对比，漂移超过阈值时重新同步
+   */
+  @JvmStatic
+  @Synchronized
+  fun resync() {
+    val nanoTime = System.nanoTime()
+    val wall = System.currentTimeMillis() * NANOS_PER_MILLI
+    val current = anchor.at(nanoTime)
+    val offset = current - wall
+    drift = offset
+
+    if (abs(offset) <= DRIFT_THRESHOLD_NANOS) return
+
+    // 锚点落后直接前进；锚点领先则从当前读数开始以半速运行 2 * offset 纳秒，追平系统时间且读数不回退
+    anchor = if (offset < 0) Anchor.of(wall, nanoTime) else Anchor(current, nanoTime, nanoTime + offset.shl(1))
+    resyncs.incrementAndGet()
+    logger.debug("[Clock] - 时钟锚点漂移 {} 纳秒，重新同步", offset)
+  }
+
+  /**
+   * 计时模式
+   */
+  enum class Mode {
+    /**
+     * 后台线程定时刷新的缓存时间
+     */
+    CACHED,
+
+    /**
+     * 以 System.nanoTime() 为锚点推算的时间，单调不减
+     */
+    MONOTONIC
+  }
+
+  /**
+   * 时间锚点，不可变，重新同步时整体替换
+   *
+   * @property epochNanos Long 锚定时刻的系统时间纳秒数
+   * @property nanoTime Long 锚定时刻的 System.nanoTime()
+   * @property slowUntil Long 在该 System.nanoTime() 之前以半速运行
+   */
+  private class Anchor(private val epochNanos: Long, private val nanoTime: Long, private val slowUntil: Long) {
+
+    fun at(time: Long): Long {
+      val elapsed = time - nanoTime
+      if (time <= slowUntil) return epochNanos + elapsed.shr(1)
+      return epochNanos + (slowUntil - nanoTime).shr(1) + (time - slowUntil)
+    }
+
+    companion object {
+      fun of(epochNanos: Long, nanoTime: Long) = Anchor(epochNanos, nanoTime, nanoTime)
+    }
+  }
 }
@@ -0,0 +1,349 @@
+package cn.labzen.cells.core.feature;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class SnowflakeTest {
+
+  private static final int THREADS = 8;
+  private static final int PER_THREAD = 20000;
+
+  /**
+   * 手动时钟不会前进，每个通道在一个时间刻度内生成的id不能超过其序列容量，否则会一直等待下一个时间刻度
+   */
+  private static final int ROLLBACK_PER_THREAD = 50;
+
+  @Test
+  void testIncreasing() {
+    for (Snowflake.Mode mode : new Snowflake.Mode[]{Snowflake.Mode.SYNCHRONIZED, Snowflake.Mode.CAS}) {
+      Snowflake snowflake = new Snowflake(1, 1, mode);
+      long last = snowflake.id();
+      for (int i = 0; i < 50000; i++) {
+        long id = snowflake.id();
+        Assertions.assertTrue(id > last);
+        last = id;
+      }
+    }
+  }
+
+  @Test
+  void testConcurrentUnique() throws InterruptedException {
+    for (Snowflake.Mode mode : Snowflake.Mode.values()) {
+      Snowflake snowflake = new Snowflake(3, 7, mode, 4);
+      Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+      ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+      for (int t = 0; t < THREADS; t++) {
+        executor.execute(() -> {
+          for (int i = 0; i < PER_THREAD; i++) {
+            ids.add(snowflake.id());
+          }
+        });
+      }
+      executor.shutdown();
+      Assertions.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+      Assertions.assertEquals(THREADS * PER_THREAD, ids.size());
+    }
+  }
+
+  @Test
+  void testBatch() {
+    for (Snowflake.Mode mode : new Snowflake.Mode[]{Snowflake.Mode.SYNCHRONIZED, Snowflake.Mode.CAS}) {
+      Snowflake snowflake = new Snowflake(1, 1, mode);
+      long last = snowflake.id();
+
+      long[] ids = snowflake.ids(10000);
+      Assertions.assertEquals(10000, ids.length);
+      for (long id : ids) {
+        Assertions.assertTrue(id > last);
+        last = id;
+      }
+
+      Snowflake.Lease lease = snowflake.reserve(5000);
+      Assertions.assertEquals(5000, lease.getSize());
+      Assertions.assertTrue(lease.get(0) > last);
+      Assertions.assertArrayEquals(lease.toLongArray(), lease.copyInto(new long[5000]));
+      Assertions.assertTrue(snowflake.id() > lease.get(lease.getSize() - 1));
+    }
+  }
+
+  @Test
+  void testLargeBatch() {
+    for (Snowflake.Mode mode : Snowflake.Mode.values()) {
+      Snowflake snowflake = new Snowflake(1, 1, mode);
+      Assertions.assertTrue(snowflake.getMaxReserve() < 100_000);
+
+      long[] ids = snowflake.ids(100_000);
+      Assertions.assertEquals(100_000, ids.length);
+      for (int i = 1; i < ids.length; i++) {
+        Assertions.assertTrue(ids[i] > ids[i - 1], mode.name());
+      }
+    }
+  }
+
+  @Test
+  void testReserveLimits() {
+    Snowflake snowflake = new Snowflake(1, 1);
+    Assertions.assertEquals(4096 * Snowflake.MAX_RESERVE_TICKS, snowflake.getMaxReserve());
+    Assertions.assertThrows(RuntimeException.class, () -> snowflake.reserve(0));
+    Assertions.assertThrows(RuntimeException.class, () -> snowflake.reserve(snowflake.getMaxReserve() + 1));
+
+    // 计数位很多时单次预留的上限截断为 Int.MAX_VALUE
+    SnowflakeLayout wide = SnowflakeLayout.builder()
+                                          .timestampBits(1)
+                                          .dataCenterIdBits(0)
+                                          .workerIdBits(0)
+                                          .sequenceBits(62)
+                                          .build();
+    Assertions.assertEquals(Integer.MAX_VALUE, Snowflake.builder(0, 0).layout(wide).build().getMaxReserve());
+
+    // 布局可表示的最后一个时间刻度内，跨越到下一个刻度的预留超出范围
+    SnowflakeLayout layout = snowflake.getLayout();
+    ManualClock clock = new ManualClock(layout.getEpoch() + layout.getMaxTimestamp() * layout.getTick().getMillis());
+    Snowflake last = Snowflake.builder(1, 1).clock(clock).build();
+    Assertions.assertEquals(100, last.reserve(100).getSize());
+    Assertions.assertThrows(RuntimeException.class, () -> last.reserve(5000));
+    Assertions.assertTrue(last.id() > 0);
+  }
+
+  @Test
+  void testLayout() {
+    SnowflakeLayout layout = SnowflakeLayout.builder()
+                                            .timestampBits(39)
+                                            .dataCenterIdBits(1)
+                                            .workerIdBits(3)
+                                            .sequenceBits(20)
+                                            .epoch(1640995200000L)
+                                            .tick(SnowflakeLayout.Tick.TEN_MILLISECONDS)
+                                            .build();
+    Snowflake snowflake = Snowflake.builder(1, 5).mode(Snowflake.Mode.CAS).layout(layout).build();
+
+    long before = System.currentTimeMillis();
+    long id = snowflake.id();
+    long after = System.currentTimeMillis();
+
+    SnowflakeLayout.Decoded decoded = snowflake.decode(id, new SnowflakeLayout.Decoded());
+    Assertions.assertEquals(1, decoded.getDataCenterId());
+    Assertions.assertEquals(5, decoded.getWorkerId());
+    Assertions.assertEquals(0, decoded.getSequence());
+    Assertions.assertTrue(decoded.getTimestamp() >= before - 10 && decoded.getTimestamp() <= after);
+    Assertions.assertEquals(decoded.getTimestamp(), layout.timestampOf(id));
+
+    Assertions.assertThrows(RuntimeException.class, () -> Snowflake.builder(2, 0).layout(layout).build());
+    Assertions.assertThrows(RuntimeException.class,
+                            () -> SnowflakeLayout.builder().timestampBits(41).sequenceBits(20).build());
+
+    // 只有1位序列时没有位置留给备用序列位
+    SnowflakeLayout narrow = SnowflakeLayout.builder().sequenceBits(1).build();
+    Assertions.assertTrue(Snowflake.builder(1, 1).layout(narrow).build().id() > 0);
+    Assertions.assertThrows(RuntimeException.class,
+                            () -> Snowflake.builder(1, 1)
+                                           .layout(narrow)
+                                           .rollbackStrategy(Snowflake.RollbackStrategy.BACKUP_SEQUENCE)
+                                           .build());
+
+    // 序列位数达到或超过32位时，各模式均可构建，通道模式的通道数不受 Int 移位的影响
+    long epoch = System.currentTimeMillis() - 60_000;
+    for (int sequenceBits : new int[]{32, 40}) {
+      SnowflakeLayout wide = SnowflakeLayout.builder()
+                                            .timestampBits(63 - sequenceBits)
+                                            .dataCenterIdBits(0)
+                                            .workerIdBits(0)
+                                            .sequenceBits(sequenceBits)
+                                            .epoch(epoch)
+                                            .build();
+      for (Snowflake.Mode mode : Snowflake.Mode.values()) {
+        Snowflake generator = Snowflake.builder(0, 0).mode(mode).lanes(Snowflake.MAX_LANES).layout(wide).build();
+        long first = generator.id();
+        Assertions.assertTrue(generator.id() > first, sequenceBits + "/" + mode);
+      }
+    }
+  }
+
+  @Test
+  void testRollbackStrategies() throws InterruptedException {
+    for (Snowflake.RollbackStrategy strategy : Snowflake.RollbackStrategy.values()) {
+      long start = System.currentTimeMillis();
+      ManualClock clock = new ManualClock(start);
+      Snowflake snowflake = Snowflake.builder(1, 1)
+                                     .mode(Snowflake.Mode.LANES)
+                                     .lanes(4)
+                                     .rollbackStrategy(strategy)
+                                     .rollbackTolerance(100)
+                                     .clock(clock)
+                                     .build();
+      Set<Long> ids = ConcurrentHashMap.newKeySet();
+      AtomicInteger rejected = new AtomicInteger();
+      List<Callable<Void>> tasks = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        tasks.add(() -> {
+          for (int i = 0; i < ROLLBACK_PER_THREAD; i++) {
+            try {
+              ids.add(snowflake.id());
+            } catch (RuntimeException e) {
+              rejected.incrementAndGet();
+            }
+          }
+          return null;
+        });
+      }
+
+      ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+      executor.invokeAll(tasks);
+      // 时钟回退50毫秒（在可容忍范围内），WAIT 策略等待期间时钟恢复前进
+      clock.set(start - 50);
+      ScheduledExecutorService recovery = Executors.newSingleThreadScheduledExecutor();
+      if (strategy == Snowflake.RollbackStrategy.WAIT) {
+        recovery.schedule(() -> clock.set(start + 1), 20, TimeUnit.MILLISECONDS);
+      }
+      executor.invokeAll(tasks);
+      executor.shutdown();
+      recovery.shutdown();
+      Assertions.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+      // 逻辑时钟在可容忍范围内沿用上次的时间戳，不计为时钟回退
+      Snowflake.Statistics statistics = snowflake.getStatistics();
+      Assertions.assertEquals(strategy != Snowflake.RollbackStrategy.LOGICAL_CLOCK, statistics.rollbacks() > 0);
+      if (strategy == Snowflake.RollbackStrategy.FAIL_FAST) {
+        Assertions.assertEquals(THREADS * ROLLBACK_PER_THREAD, ids.size());
+        Assertions.assertEquals(THREADS * ROLLBACK_PER_THREAD, rejected.get());
+        continue;
+      }
+
+      Assertions.assertEquals(2 * THREADS * ROLLBACK_PER_THREAD, ids.size(), strategy.name());
+      Assertions.assertEquals(0, rejected.get(), strategy.name());
+      Assertions.assertEquals(0, statistics.failures(), strategy.name());
+      switch (strategy) {
+        case WAIT:
+          Assertions.assertTrue(statistics.waits() > 0);
+          break;
+        case LOGICAL_CLOCK:
+          Assertions.assertTrue(statistics.logicalClockTicks() > 0);
+          break;
+        default:
+          Assertions.assertTrue(statistics.backupSwitches() > 0);
+      }
+    }
+  }
+
+  @Test
+  void testManualClockRollback() {
+    long start = System.currentTimeMillis();
+
+    ManualClock failFastClock = new ManualClock(start);
+    Snowflake failFast = Snowflake.builder(1, 1)
+                                  .rollbackStrategy(Snowflake.RollbackStrategy.FAIL_FAST)
+                                  .clock(failFastClock)
+                                  .build();
+    failFast.id();
+    failFastClock.advance(-1, TimeUnit.SECONDS);
+    Assertions.assertThrows(RuntimeException.class, failFast::id);
+    Assertions.assertEquals(1, failFast.getStatistics().failures());
+
+    ManualClock logicalClock = new ManualClock(start);
+    Snowflake logical = Snowflake.builder(1, 1)
+                                 .rollbackStrategy(Snowflake.RollbackStrategy.LOGICAL_CLOCK)
+                                 .clock(logicalClock)
+                                 .build();
+    long previous = logical.id();
+    logicalClock.advance(-3, TimeUnit.MILLISECONDS);
+    for (int i = 0; i < 10; i++) {
+      long id = logical.id();
+      Assertions.assertTrue(id > previous);
+      previous = id;
+    }
+    Assertions.assertEquals(10, logical.getStatistics().logicalClockTicks());
+
+    ManualClock backupClock = new ManualClock(start);
+    Snowflake backup = Snowflake.builder(1, 1)
+                                .rollbackStrategy(Snowflake.RollbackStrategy.BACKUP_SEQUENCE)
+                                .clock(backupClock)
+                                .build();
+    Set<Long> ids = ConcurrentHashMap.newKeySet();
+    for (int i = 0; i < 10; i++) {
+      ids.add(backup.id());
+    }
+    backupClock.advance(-1, TimeUnit.SECONDS);
+    for (int i = 0; i < 10; i++) {
+      ids.add(backup.id());
+    }
+    backupClock.set(start + 1);
+    for (int i = 0; i < 10; i++) {
+      ids.add(backup.id());
+    }
+    Assertions.assertEquals(30, ids.size());
+    Assertions.assertEquals(1, backup.getStatistics().backupSwitches());
+  }
+
+  @Test
+  void testBackupSequenceRecovery() {
+    long start = System.currentTimeMillis();
+    ManualClock clock = new ManualClock(start);
+    Snowflake snowflake = Snowflake.builder(1, 1)
+                                   .rollbackStrategy(Snowflake.RollbackStrategy.BACKUP_SEQUENCE)
+                                   .waitStrategy(Snowflake.WaitStrategy.BORROW)
+                                   .clock(clock)
+                                   .build();
+    Set<Long> ids = new HashSet<>();
+    ids.add(snowflake.id());
+
+    // 进入备用序列，时间戳回到过去，之后的id在备用序列内递增
+    clock.set(start - 1000);
+    long last = snowflake.id();
+    ids.add(last);
+
+    // 时钟回到守卫时间戳，备用序列借用到未来的刻度
+    clock.set(start);
+    for (int i = 0; i < 5000; i++) {
+      long id = snowflake.id();
+      Assertions.assertTrue(id > last);
+      ids.add(last = id);
+    }
+
+    // 时钟越过守卫但未越过借用的刻度时仍留在备用序列，越过后恢复正常序列，id始终递增
+    for (long offset = 1; offset <= 5; offset++) {
+      clock.set(start + offset);
+      for (int i = 0; i < 10; i++) {
+        long id = snowflake.id();
+        Assertions.assertTrue(id > last, "offset " + offset);
+        ids.add(last = id);
+      }
+    }
+    Assertions.assertEquals(1 + 1 + 5000 + 50, ids.size());
+    Assertions.assertEquals(1, snowflake.getStatistics().backupSwitches());
+  }
+
+  @Test
+  void testWaitStrategies() {
+    for (Snowflake.WaitStrategy strategy : Snowflake.WaitStrategy.values()) {
+      Snowflake snowflake = Snowflake.builder(1, 1).mode(Snowflake.Mode.CAS).waitStrategy(strategy).build();
+      long last = snowflake.id();
+      // 连续生成超过单个时间刻度的序列容量，必然触发序列耗尽
+      for (int i = 0; i < 20000; i++) {
+        long id = snowflake.id();
+        Assertions.assertTrue(id > last);
+        last = id;
+      }
+
+      Snowflake.Statistics statistics = snowflake.getStatistics();
+      Assertions.assertTrue(statistics.exhaustions() > 0);
+    }
+  }
+
+  @Test
+  void testInvalidLanes() {
+    Assertions.assertThrows(RuntimeException.class, () -> new Snowflake(1, 1, Snowflake.Mode.LANES, 3));
+  }
+}
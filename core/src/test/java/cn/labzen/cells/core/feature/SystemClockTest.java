@@ -0,0 +1,63 @@
+package cn.labzen.cells.core.feature;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+class SystemClockTest {
+
+  @Test
+  void testMonotonic() {
+    long last = SystemClock.nanos();
+    for (int i = 0; i < 100000; i++) {
+      long nanos = SystemClock.nanos();
+      Assertions.assertTrue(nanos >= last);
+      last = nanos;
+    }
+
+    SystemClock.mode(SystemClock.Mode.MONOTONIC);
+    try {
+      Assertions.assertTrue(Math.abs(SystemClock.now() - System.currentTimeMillis()) <= 5);
+    } finally {
+      SystemClock.mode(SystemClock.Mode.CACHED);
+    }
+  }
+
+  @Test
+  void testModeSwitch() {
+    // 刷新周期很长时缓存时间落后于锚点，切换模式时读数仍不回退
+    SystemClock.period(1, TimeUnit.SECONDS);
+    try {
+      long last = SystemClock.now();
+      for (int i = 0; i < 1000; i++) {
+        SystemClock.mode(i % 2 == 0 ? SystemClock.Mode.MONOTONIC : SystemClock.Mode.CACHED);
+        long now = SystemClock.now();
+        Assertions.assertTrue(now >= last, "switch " + i);
+        last = now;
+      }
+    } finally {
+      SystemClock.mode(SystemClock.Mode.CACHED);
+      SystemClock.period(1, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @Test
+  void testInstant() {
+    Instant instant = SystemClock.instant();
+    Assertions.assertEquals(0, instant.getNano() % 1000);
+    Assertions.assertTrue(Math.abs(instant.toEpochMilli() - System.currentTimeMillis()) <= 5);
+  }
+
+  @Test
+  void testPeriodAndResync() throws InterruptedException {
+    SystemClock.period(500, TimeUnit.MICROSECONDS);
+    Thread.sleep(10);
+    Assertions.assertTrue(Math.abs(SystemClock.now() - System.currentTimeMillis()) <= 5);
+    SystemClock.period(1, TimeUnit.MILLISECONDS);
+
+    SystemClock.resync();
+    Assertions.assertTrue(Math.abs(SystemClock.drift()) <= SystemClock.DRIFT_THRESHOLD_NANOS * 5);
+  }
+}
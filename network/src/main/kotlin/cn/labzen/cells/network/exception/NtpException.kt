@@ -0,0 +1,15 @@
+package cn.labzen.cells.network.exception
+
+import cn.labzen.meta.exception.LabzenRuntimeException
+
+/**
+ * NTP时间同步异常
+ */
+class NtpException : LabzenRuntimeException {
+
+  constructor(message: String) : super(message)
+  constructor(message: String, vararg arguments: Any?) : super(message, *arguments)
+  constructor(cause: Throwable) : super(cause)
+  constructor(cause: Throwable, message: String) : super(cause, message)
+  constructor(cause: Throwable, message: String, vararg arguments: Any?) : super(cause, message, *arguments)
+}
@@ -0,0 +1,207 @@
+@file:Suppress("unused")
+
+package cn.labzen.cells.network.ntp
+
+import cn.labzen.cells.core.feature.Clock
+import cn.labzen.cells.network.exception.NtpException
+import org.slf4j.LoggerFactory
+import java.io.IOException
+import java.net.InetSocketAddress
+import java.net.SocketAddress
+import java.nio.ByteBuffer
+import java.nio.channels.ClosedChannelException
+import java.nio.channels.ClosedSelectorException
+import java.nio.channels.DatagramChannel
+import java.nio.channels.SelectionKey
+import java.nio.channels.Selector
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.concurrent.thread
+
+/**
+ * 基于 DatagramChannel 的异步NTP客户端，所有请求共用一个非阻塞通道与一组直接缓冲区，可同时向多个服务器发出请求，总耗时约为一次往返
+ *
+ * 每个请求的传送时间戳低位写入递增序号，保证进行中的请求时间戳唯一；服务器在应答中原样返回该时间戳（原始时间戳），据此将应答与请求对应，
+ * 来源地址不符、时间戳未知（已超时或重复）的应答直接丢弃
+ *
+ * 应答由后台的接收线程处理，返回的 CompletableFuture 也在接收线程中完成，耗时的后续处理应使用 *Async 方法切换线程
+ *
+ * 请求与应答直接在缓冲区中以 [NtpHeader] 读写，时间戳全程使用64位定点数，除 CompletableFuture 与结果样本外不产生对象分配
+ *
+ * @param timeout Int 请求超时时间，单位：毫秒，默认1500
+ * @param clock Clock 记录请求发出（T1）与应答到达（T4）时间的时钟，偏移量即相对于该时钟，默认 [Clock.SYSTEM]
+ */
+class NtpAsyncClient @JvmOverloads constructor(
+  private val timeout: Int = NtpClient.DEFAULT_TIMEOUT,
+  private val clock: Clock = Clock.SYSTEM
+) : AutoCloseable {
+
+  private val logger = LoggerFactory.getLogger(NtpAsyncClient::class.java)
+
+  private val channel = DatagramChannel.open().apply {
+    configureBlocking(false)
+    bind(null)
+  }
+  private val selector = Selector.open().also { channel.register(it, SelectionKey.OP_READ) }
+
+  private val outgoing = ByteBuffer.allocateDirect(NtpHeader.SIZE)
+  private val incoming = ByteBuffer.allocateDirect(NtpHeader.SIZE)
+  private val requestHeader = NtpHeader().wrap(outgoing)
+  private val responseHeader = NtpHeader().wrap(incoming)
+
+  private val pending = ConcurrentHashMap<Long, Request>()
+  private val sequence = AtomicInteger()
+
+  @Volatile
+  private var closed = false
+
+  init {
+    thread(isDaemon = true, name = "NTP Receiver") { receive() }
+  }
+
+  /**
+   * 异步请求NTP服务器
+   *
+   * @return 时间样本，超时、应答无效或客户端关闭时以 [NtpException] 异常完成
+   */
+  @JvmOverloads
+  fun request(host: String, port: Int = NtpClient.DEFAULT_PORT): CompletableFuture<NtpSample> =
+    request(InetSocketAddress(host, port))
+
+  /**
+   * 异步请求NTP服务器
+   *
+   * @return 时间样本，超时、应答无效或客户端关闭时以 [NtpException] 异常完成
+   */
+  fun request(address: InetSocketAddress): CompletableFuture<NtpSample> {
+    val future = CompletableFuture<NtpSample>()
+    val server = "${address.hostString}:${address.port}"
+    if (closed) {
+      future.completeExceptionally(NtpException("[NTP] - 客户端已关闭"))
+      return future
+    }
+    if (address.isUnresolved) {
+      future.completeExceptionally(NtpException("[NTP] - 无法解析服务器地址 $server"))
+      return future
+    }
+
+    val request = Request(server, address, future, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout.toLong()))
+    synchronized(outgoing) {
+      val transmit = register(request)
+      outgoing.clear()
+      requestHeader.clear().flags(0, NtpClient.VERSION, NtpClient.MODE_CLIENT).transmitTimestamp(transmit)
+      try {
+        // 非阻塞通道的发送缓冲区已满时不发送任何数据，返回0，不能等到超时才当作丢失的应答
+        if (channel.send(outgoing, address) == 0 && pending.remove(transmit, request)) {
+          future.completeExceptionally(NtpException("[NTP] - 向服务器 $server 发送请求失败，发送缓冲区已满"))
+        }
+      } catch (e: IOException) {
+        pending.remove(transmit)
+        future.completeExceptionally(NtpException(e, "[NTP] - 向服务器 $server 发送请求失败"))
+      }
+      // 发送期间客户端被关闭，接收线程可能已完成清理
+      if (closed && pending.remove(transmit, request)) {
+        future.completeExceptionally(NtpException("[NTP] - 客户端已关闭"))
+      }
+    }
+    return future
+  }
+
+  /**
+   * 同时向多个NTP服务器发出请求
+   *
+   * @return 与给出的服务器一一对应的时间样本
+   */
+  fun requestAll(addresses: Collection<InetSocketAddress>): List<CompletableFuture<NtpSample>> =
+    addresses.map { request(it) }
+
+  override fun close() {
+    closed = true
+    selector.wakeup()
+  }
+
+  /**
+   * 生成唯一的传送时间戳（NTP 64位定点格式），以当前时间为基础，低位替换为递增序号
+   */
+  private fun register(request: Request): Long {
+    while (true) {
+      val transmit = NtpTimestamps.fromNanos(clock.nanos()) and SEQUENCE_MASK.inv() or
+          (sequence.getAndIncrement().toLong() and SEQUENCE_MASK)
+      if (pending.putIfAbsent(transmit, request) == null) return transmit
+    }
+  }
+
+  private fun receive() {
+    try {
+      while (!closed) {
+        selector.select(SWEEP_INTERVAL)
+        selector.selectedKeys().clear()
+        drain()
+        expire(System.nanoTime())
+      }
+    } catch (e: ClosedChannelException) {
+      // 通道已关闭
+    } catch (e: ClosedSelectorException) {
+      // 选择器已关闭
+    } catch (e: IOException) {
+      logger.warn("[NTP] - 接收应答异常，客户端关闭", e)
+    } finally {
+      closed = true
+      channel.close()
+      selector.close()
+      pending.keys.forEach { key ->
+        pending.remove(key)?.future?.completeExceptionally(NtpException("[NTP] - 客户端已关闭"))
+      }
+    }
+  }
+
+  private fun drain() {
+    while (true) {
+      incoming.clear()
+      val source: SocketAddress = channel.receive(incoming) ?: return
+      val receivedAt = System.nanoTime()
+      val destination = NtpTimestamps.fromNanos(clock.nanos())
+      if (incoming.position() < NtpHeader.SIZE) continue
+
+      val originate = responseHeader.originateTimestamp()
+      val request = pending[originate] ?: continue
+      if (source != request.address || !pending.remove(originate, request)) continue
+
+      try {
+        NtpClient.validate(responseHeader, request.server)
+        request.future.complete(NtpSample.of(request.server, responseHeader, destination, receivedAt))
+      } catch (e: Exception) {
+        request.future.completeExceptionally(e)
+      }
+    }
+  }
+
+  private fun expire(now: Long) {
+    pending.forEach { (key, request) ->
+      if (now - request.deadline > 0 && pending.remove(key, request)) {
+        request.future.completeExceptionally(NtpException("[NTP] - 请求服务器 ${request.server} 超时"))
+      }
+    }
+  }
+
+  private class Request(
+    val server: String,
+    val address: SocketAddress,
+    val future: CompletableFuture<NtpSample>,
+    val deadline: Long
+  )
+
+  companion object {
+    /**
+     * 传送时间戳中替换为序号的低12位，约1微秒，不影响偏移量的计算
+     */
+    private const val SEQUENCE_MASK = 0xFFFL
+
+    /**
+     * 检查超时请求的间隔，单位：毫秒
+     */
+    private const val SWEEP_INTERVAL = 50L
+  }
+}
@@ -2,12 +2,24 @@
 
 package cn.labzen.cells.network.ntp
 
+import cn.labzen.cells.core.kotlin.throwRuntimeIf
+import cn.labzen.cells.network.exception.NtpException
 import java.net.DatagramPacket
 import java.net.DatagramSocket
 import java.net.InetAddress
+import java.nio.ByteBuffer
 
 object NtpClient {
 
+  internal const val DEFAULT_PORT = 123
+  internal const val DEFAULT_TIMEOUT = 1500
+  internal const val VERSION = 4
+  internal const val MODE_CLIENT = 3
+  private const val MODE_SERVER = 4
+  private const val MODE_BROADCAST = 5
+  private const val LEAP_ALARM = 3
+  private const val MAX_STRATUM = 15
+
   /**
    * 请求NTP服务器，获取网络时间
    *
@@ -19,25 +31,59 @@ object NtpClient {
    */
   @JvmStatic
   @JvmOverloads
-  fun request(host: String, port: Int = 123, timeout: Int = 1500): Double {
+  fun request(host: String, port: Int = DEFAULT_PORT, timeout: Int = DEFAULT_TIMEOUT): Double =
+    sample(host, port, timeout).offset / 1_000_000_000.0
+
+  /**
+   * 请求NTP服务器，获取包含偏移量、往返延迟、层数等信息的时间样本
+   *
+   * @param host NTP服务器地址
+   * @param port NTP服务器端口
+   * @param timeout 请求NTP服务器超时时间，单位：毫秒
+   *
+   * @return 时间样本
+   * @throws NtpException 服务器的应答无效（非服务器模式、未同步、层数无效或原始时间戳不匹配）
+   */
+  @JvmStatic
+  @JvmOverloads
+  fun sample(host: String, port: Int = DEFAULT_PORT, timeout: Int = DEFAULT_TIMEOUT): NtpSample {
     val address = InetAddress.getByName(host)
+    val server = "$host:$port"
 
-    val data = PacketResolver.structuring(Packet())
-    val outgoing = DatagramPacket(data, data.size, address, port)
+    val data = ByteArray(NtpHeader.SIZE)
+    val header = NtpHeader().wrap(ByteBuffer.wrap(data))
+    val transmit = NtpTimestamps.fromMillis(System.currentTimeMillis())
+    header.flags(0, VERSION, MODE_CLIENT).transmitTimestamp(transmit)
 
-    val socket = DatagramSocket().apply {
-      this.soTimeout = timeout
-    }
-    socket.send(outgoing)
+    DatagramSocket().use { socket ->
+      socket.soTimeout = timeout
+      socket.send(DatagramPacket(data, data.size, address, port))
 
-    val incoming = DatagramPacket(data, data.size)
-    socket.receive(incoming)
+      val incoming = DatagramPacket(data, data.size)
+      socket.receive(incoming)
+      val receivedAt = System.nanoTime()
+      val destination = NtpTimestamps.fromMillis(System.currentTimeMillis())
 
-    // 这里要加2208988800，是因为获得到的时间是格林尼治时间，所以要变成东八区的时间，否则会与与北京时间有8小时的时差
-    val destinationTimestamp = System.currentTimeMillis() / 1000.0 + Packet.TIMEZONE_8
+      validate(header, server)
+      (header.originateTimestamp() != transmit).throwRuntimeIf {
+        NtpException("[NTP] - 服务器 $server 应答的原始时间戳与请求不匹配")
+      }
 
-    val packet = PacketResolver.resolve(incoming.data)
+      return NtpSample.of(server, header, destination, receivedAt)
+    }
+  }
 
-    return ((packet.recTime!! - packet.oriTime!!) + (packet.transTime - destinationTimestamp)) / 2
+  /**
+   * 校验服务器应答的模式、闰秒标识与层数
+   */
+  internal fun validate(header: NtpHeader, server: String) {
+    val mode = header.mode()
+    val stratum = header.stratum()
+    (mode != MODE_SERVER && mode != MODE_BROADCAST).throwRuntimeIf {
+      NtpException("[NTP] - 服务器 $server 应答的模式无效：$mode")
+    }
+    (header.leapIndicator() == LEAP_ALARM || stratum !in 1..MAX_STRATUM).throwRuntimeIf {
+      NtpException("[NTP] - 服务器 $server 未同步，层数：$stratum")
+    }
   }
 }
@@ -0,0 +1,78 @@
+@file:Suppress("unused")
+
+package cn.labzen.cells.network.ntp
+
+import cn.labzen.cells.core.feature.Clock
+import cn.labzen.cells.core.kotlin.throwRuntimeIf
+import cn.labzen.cells.network.exception.NtpException
+import java.util.concurrent.TimeUnit
+
+class NtpClockBuilder internal constructor(private val config: NtpClockConfig) {
+
+  /**
+   * 添加NTP服务器，可多次调用添加多个服务器，服务器越多越能识别并排除时间错误的服务器
+   */
+  @JvmOverloads
+  fun server(host: String, port: Int = NtpClient.DEFAULT_PORT): NtpClockBuilder {
+    config.servers.add(host to port)
+    return this
+  }
+
+  /**
+   * 请求NTP服务器超时时间，单位：毫秒，默认1500
+   */
+  fun timeout(timeout: Int): NtpClockBuilder {
+    (timeout <= 0).throwRuntimeIf { NtpException("[NTP] - 超时时间须大于0") }
+    config.timeout = timeout
+    return this
+  }
+
+  /**
+   * 轮询NTP服务器的间隔，默认64秒（RFC 5905 MINPOLL）
+   */
+  fun pollInterval(interval: Long, unit: TimeUnit): NtpClockBuilder {
+    val nanos = unit.toNanos(interval)
+    (nanos <= 0).throwRuntimeIf { NtpException("[NTP] - 轮询间隔须大于0") }
+    config.pollInterval = nanos
+    return this
+  }
+
+  /**
+   * 每个服务器保留的最近样本数量，从中选取往返延迟最小的样本作为该服务器的偏移量，默认8
+   */
+  fun filterSize(size: Int): NtpClockBuilder {
+    (size <= 0).throwRuntimeIf { NtpException("[NTP] - 样本数量须大于0") }
+    config.filterSize = size
+    return this
+  }
+
+  /**
+   * 偏移量的变化超过该阈值时直接跳变，否则平滑调整，默认128毫秒；设置为 Long.MAX_VALUE 时总是平滑调整，时间不会回退
+   */
+  fun stepThreshold(threshold: Long, unit: TimeUnit): NtpClockBuilder {
+    config.stepThreshold = unit.toNanos(threshold)
+    return this
+  }
+
+  /**
+   * 平滑调整偏移量的速率，单位：ppm（百万分之一），默认500，即每秒最多调整0.5毫秒；须小于 1_000_000，保证调整期间时间不回退
+   */
+  fun slewRate(ppm: Long): NtpClockBuilder {
+    (ppm <= 0 || ppm >= 1_000_000).throwRuntimeIf { NtpException("[NTP] - 调整速率的取值范围 1 - 999999") }
+    config.slewRate = ppm
+    return this
+  }
+
+  /**
+   * 叠加偏移量的基础时钟，默认 [Clock.CACHED]
+   */
+  fun base(base: Clock): NtpClockBuilder {
+    config.base = base
+    return this
+  }
+
+  fun build(): NtpDisciplinedClock {
+    config.servers.isEmpty().throwRuntimeIf { NtpException("[NTP] - 至少需要一个NTP服务器") }
+    return NtpDisciplinedClock(config)
+  }
+}
@@ -0,0 +1,14 @@
+package cn.labzen.cells.network.ntp
+
+import cn.labzen.cells.core.feature.Clock
+
+class NtpClockConfig {
+
+  internal val servers = mutableListOf<Pair<String, Int>>()
+  internal var timeout: Int = NtpClient.DEFAULT_TIMEOUT
+  internal var pollInterval: Long = 64_000_000_000L
+  internal var filterSize: Int = 8
+  internal var stepThreshold: Long = 128_000_000L
+  internal var slewRate: Long = 500L
+  internal var base: Clock = Clock.CACHED
+}
@@ -0,0 +1,242 @@
+@file:Suppress("unused", "MemberVisibilityCanBePrivate")
+
+package cn.labzen.cells.network.ntp
+
+import cn.labzen.cells.core.feature.Clock
+import org.slf4j.LoggerFactory
+import java.net.InetSocketAddress
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.ScheduledThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import kotlin.math.abs
+import kotlin.math.sqrt
+
+/**
+ * 由NTP服务器校准的时钟，在基础时钟（默认 [Clock.CACHED]）上叠加NTP偏移量，读取时间只做一次偏移量推算，可直接作为 Snowflake、TCP命令等
+ * 组件的时间来源
+ *
+ * 参照 RFC 5905 的简化实现：
+ * - 时钟过滤：每个服务器保留最近的若干样本，取往返延迟最小的样本作为该服务器的偏移量，样本的误差随时间老化增长
+ * - 时钟选择：以 偏移量 ± 根距离 作为每个服务器的可信区间，取被多数服务器覆盖的交集，排除区间不在交集内的服务器（falseticker）
+ * - 时钟合并：以根距离的倒数为权重，对剩余服务器的偏移量加权平均
+ * - 时钟调整：首次同步或偏移量变化超过 stepThreshold 时直接跳变，否则以 slewRate 的速率平滑调整，调整期间时间不回退
+ *
+ * 调用 [start] 后在后台按轮询间隔请求所有服务器，也可调用 [poll] 立即同步一次；不再使用时调用 [close] 停止后台线程
+ */
+class NtpDisciplinedClock internal constructor(config: NtpClockConfig) : Clock, AutoCloseable {
+
+  private val logger = LoggerFactory.getLogger(NtpDisciplinedClock::class.java)
+
+  private val servers = config.servers.map { InetSocketAddress(it.first, it.second) }
+  private val pollInterval = config.pollInterval
+  private val stepThreshold = config.stepThreshold
+  private val slewRate = config.slewRate
+  private val base = config.base
+  private val peers = config.servers.map { Peer("${it.first}:${it.second}", config.filterSize) }
+  private val client = NtpAsyncClient(config.timeout, config.base)
+
+  @Volatile
+  private var slew = Slew(0, 0, System.nanoTime(), slewRate)
+
+  @Volatile
+  private var synchronized = false
+
+  @Volatile
+  private var survivors = 0
+
+  private val executor = ScheduledThreadPoolExecutor(1) { r ->
+    Thread(r, "NTP Clock").apply { this.isDaemon = true }
+  }
+  private var poller: ScheduledFuture<*>? = null
+
+  override fun millis(): Long =
+    base.millis() + Math.floorDiv(offset(), NANOS_PER_MILLI)
+
+  override fun nanos(): Long =
+    base.nanos() + offset()
+
+  /**
+   * 当前叠加在基础时钟上的偏移量，单位：纳秒，平滑调整期间逐渐变化
+   */
+  fun offset(): Long =
+    slew.at(System.nanoTime())
+
+  /**
+   * 是否已至少成功同步过一次
+   */
+  fun isSynchronized(): Boolean = synchronized
+
+  /**
+   * 最近一次同步中参与合并的服务器数量
+   */
+  fun survivors(): Int = survivors
+
+  /**
+   * 启动后台轮询，立即进行第一次同步
+   */
+  @Synchronized
+  fun start(): NtpDisciplinedClock {
+    if (poller == null) {
+      poller = executor.scheduleWithFixedDelay({ poll() }, 0, pollInterval, TimeUnit.NANOSECONDS)
+    }
+    return this
+  }
+
+  override fun close() {
+    executor.shutdownNow()
+    client.close()
+  }
+
+  /**
+   * 立即同时请求所有服务器并同步一次，耗时约为最慢服务器的一次往返（或超时时间）
+   *
+   * @return 是否同步成功，没有服务器应答或应答的服务器中不存在多数一致的时间时返回false，保持原偏移量不变
+   */
+  @Synchronized
+  fun poll(): Boolean {
+    client.requestAll(servers).forEachIndexed { index, future ->
+      try {
+        peers[index].add(future.get())
+      } catch (e: ExecutionException) {
+        logger.debug("[NTP] - 请求服务器 {} 失败：{}", peers[index].server, e.cause?.message)
+      }
+    }
+
+    val now = System.nanoTime()
+    val candidates = peers.mapNotNull { it.estimate(now) }
+    val truechimers = select(candidates)
+    if (truechimers.isEmpty()) {
+      logger.warn("[NTP] - 没有可用的NTP服务器时间，{} 个服务器应答", candidates.size)
+      return false
+    }
+
+    survivors = truechimers.size
+    discipline(combine(truechimers), now)
+    return true
+  }
+
+  /**
+   * 时钟选择，取被多数服务器的可信区间覆盖的交集，返回区间覆盖该交集的服务器
+   */
+  private fun select(candidates: List<Estimate>): List<Estimate> {
+    if (candidates.isEmpty()) return emptyList()
+
+    // 区间起点在前，相同位置时起点排在终点之前，使相接的区间视为相交
+    val edges = candidates.flatMap { listOf(it.low() to 1, it.high() to -1) }
+      .sortedWith(compareBy<Pair<Long, Int>> { it.first }.thenByDescending { it.second })
+
+    var count = 0
+    var best = 0
+    var low = 0L
+    var high = 0L
+    for (i in edges.indices) {
+      count += edges[i].second
+      if (count > best) {
+        best = count
+        low = edges[i].first
+        high = edges[i + 1].first
+      }
+    }
+
+    if (best <= candidates.size / 2) return emptyList()
+    return candidates.filter { it.low() <= low && it.high() >= high }
+  }
+
+  /**
+   * 时钟合并，以根距离的倒数为权重加权平均
+   */
+  private fun combine(truechimers: List<Estimate>): Long {
+    var weights = 0.0
+    var sum = 0.0
+    for (estimate in truechimers) {
+      val weight = 1.0 / estimate.distance
+      weights += weight
+      sum += estimate.offset * weight
+    }
+    return (sum / weights).toLong()
+  }
+
+  private fun discipline(target: Long, now: Long) {
+    val current = slew.at(now)
+    slew = if (!synchronized || abs(target - current) > stepThreshold) {
+      logger.info("[NTP] - 时钟偏移量由 {} 纳秒跳变到 {} 纳秒", current, target)
+      Slew(target, target, now, slewRate)
+    } else Slew(current, target, now, slewRate)
+    synchronized = true
+  }
+
+  /**
+   * 一个服务器的时钟过滤器，保留最近的样本
+   */
+  private class Peer(val server: String, size: Int) {
+
+    private val samples = arrayOfNulls<NtpSample>(size)
+    private var next = 0
+
+    fun add(sample: NtpSample) {
+      samples[next] = sample
+      next = (next + 1) % samples.size
+    }
+
+    /**
+     * 取往返延迟最小的样本，根距离加上样本老化的误差与样本间的抖动
+     */
+    fun estimate(now: Long): Estimate? {
+      var best: NtpSample? = null
+      for (sample in samples) {
+        if (sample != null && (best == null || sample.delay < best.delay)) best = sample
+      }
+      best ?: return null
+
+      var squares = 0.0
+      var count = 0
+      for (sample in samples) {
+        if (sample == null) continue
+        val difference = (sample.offset - best.offset).toDouble()
+        squares += difference * difference
+        count++
+      }
+      val jitter = sqrt(squares / count).toLong()
+      val aging = (now - best.receivedAt) / 1_000_000 * PHI
+
+      return Estimate(server, best.offset, best.distance + aging + jitter)
+    }
+  }
+
+  private class Estimate(val server: String, val offset: Long, val distance: Long) {
+    fun low() = offset - distance
+    fun high() = offset + distance
+  }
+
+  /**
+   * 偏移量的平滑调整，从 since 时刻起以 rate（ppm）的速率由 from 调整到 to，不可变，重新同步时整体替换
+   */
+  private class Slew(private val from: Long, private val to: Long, private val since: Long, private val rate: Long) {
+
+    fun at(time: Long): Long {
+      val delta = to - from
+      if (delta == 0L) return to
+
+      val moved = ((time - since).toDouble() * rate / 1_000_000).toLong()
+      return when {
+        moved >= abs(delta) -> to
+        delta > 0 -> from + moved
+        else -> from - moved
+      }
+    }
+  }
+
+  companion object {
+
+    private const val NANOS_PER_MILLI = 1_000_000L
+
+    /**
+     * 样本误差的老化速率（RFC 5905 PHI，15ppm），每毫秒增长15纳秒
+     */
+    private const val PHI = 15L
+
+    @JvmStatic
+    fun builder() = NtpClockBuilder(NtpClockConfig())
+  }
+}
@@ -0,0 +1,144 @@
+@file:Suppress("unused", "MemberVisibilityCanBePrivate")
+
+package cn.labzen.cells.network.ntp
+
+import java.nio.ByteBuffer
+
+/**
+ * NTP报文头（48字节）的享元视图，直接读写 ByteBuffer 中的字段，字段含义见 [Packet]
+ *
+ * 与 [PacketResolver] 不同，读写均使用绝对位置，不改变 ByteBuffer 的 position，不产生任何对象分配；时间戳保持NTP的64位定点格式，
+ * 可用 [NtpTimestamps] 无损转换。同一个实例可通过 [wrap] 反复指向不同的缓冲区，但不是线程安全的
+ *
+ * ByteBuffer 须为默认的大端字节序
+ */
+class NtpHeader {
+
+  private var buffer: ByteBuffer = EMPTY
+  private var offset = 0
+
+  /**
+   * 指向缓冲区中从 offset 开始的48字节
+   */
+  @JvmOverloads
+  fun wrap(buffer: ByteBuffer, offset: Int = 0): NtpHeader {
+    this.buffer = buffer
+    this.offset = offset
+    return this
+  }
+
+  /**
+   * 将48字节全部清零
+   */
+  fun clear(): NtpHeader {
+    for (i in 0 until SIZE step 8) {
+      buffer.putLong(offset + i, 0L)
+    }
+    return this
+  }
+
+  fun leapIndicator(): Int = flags().ushr(6) and 0x3
+
+  fun version(): Int = flags().ushr(3) and 0x7
+
+  fun mode(): Int = flags() and 0x7
+
+  fun stratum(): Int = buffer.get(offset + 1).toInt() and 0xFF
+
+  fun poll(): Int = buffer.get(offset + 2).toInt()
+
+  fun precision(): Int = buffer.get(offset + 3).toInt()
+
+  /**
+   * 根延迟，单位：纳秒
+   */
+  fun rootDelay(): Long = NtpTimestamps.shortToNanos(buffer.getInt(offset + 4))
+
+  /**
+   * 根误差，单位：纳秒
+   */
+  fun rootDispersion(): Long = NtpTimestamps.shortToNanos(buffer.getInt(offset + 8))
+
+  fun referenceId(): Int = buffer.getInt(offset + 12)
+
+  fun referenceTimestamp(): Long = buffer.getLong(offset + 16)
+
+  fun originateTimestamp(): Long = buffer.getLong(offset + ORIGINATE)
+
+  fun receiveTimestamp(): Long = buffer.getLong(offset + 32)
+
+  fun transmitTimestamp(): Long = buffer.getLong(offset + TRANSMIT)
+
+  /**
+   * 写入第一个字节的闰秒标识、协议版本与工作模式
+   */
+  fun flags(leapIndicator: Int, version: Int, mode: Int): NtpHeader {
+    buffer.put(offset, ((leapIndicator and 0x3).shl(6) or (version and 0x7).shl(3) or (mode and 0x7)).toByte())
+    return this
+  }
+
+  fun stratum(stratum: Int): NtpHeader {
+    buffer.put(offset + 1, stratum.toByte())
+    return this
+  }
+
+  fun poll(poll: Int): NtpHeader {
+    buffer.put(offset + 2, poll.toByte())
+    return this
+  }
+
+  fun precision(precision: Int): NtpHeader {
+    buffer.put(offset + 3, precision.toByte())
+    return this
+  }
+
+  fun rootDelay(nanos: Long): NtpHeader {
+    buffer.putInt(offset + 4, NtpTimestamps.nanosToShort(nanos))
+    return this
+  }
+
+  fun rootDispersion(nanos: Long): NtpHeader {
+    buffer.putInt(offset + 8, NtpTimestamps.nanosToShort(nanos))
+    return this
+  }
+
+  fun referenceId(referenceId: Int): NtpHeader {
+    buffer.putInt(offset + 12, referenceId)
+    return this
+  }
+
+  fun referenceTimestamp(timestamp: Long): NtpHeader {
+    buffer.putLong(offset + 16, timestamp)
+    return this
+  }
+
+  fun originateTimestamp(timestamp: Long): NtpHeader {
+    buffer.putLong(offset + ORIGINATE, timestamp)
+    return this
+  }
+
+  fun receiveTimestamp(timestamp: Long): NtpHeader {
+    buffer.putLong(offset + 32, timestamp)
+    return this
+  }
+
+  fun transmitTimestamp(timestamp: Long): NtpHeader {
+    buffer.putLong(offset + TRANSMIT, timestamp)
+    return this
+  }
+
+  private fun flags(): Int = buffer.get(offset).toInt() and 0xFF
+
+  companion object {
+
+    /**
+     * 报文头的字节数
+     */
+    const val SIZE = 48
+
+    internal const val ORIGINATE = 24
+    internal const val TRANSMIT = 40
+
+    private val EMPTY = ByteBuffer.allocate(0)
+  }
+}
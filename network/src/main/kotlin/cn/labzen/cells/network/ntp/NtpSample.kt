@@ -0,0 +1,65 @@
+@file:Suppress("unused", "MemberVisibilityCanBePrivate")
+
+package cn.labzen.cells.network.ntp
+
+import kotlin.math.max
+
+/**
+ * 一次NTP请求得到的时间样本，时间量的单位均为纳秒
+ *
+ * @property server String NTP服务器，host:port
+ * @property offset Long 本机与服务器的时间偏移量 θ = ((T2 - T1) + (T3 - T4)) / 2，为负数时，代表本机时间大于服务器时间
+ * @property delay Long 往返延迟 δ = (T4 - T1) - (T3 - T2)
+ * @property rootDelay Long 服务器到主参考源的往返延迟
+ * @property rootDispersion Long 服务器相对于主参考源的误差
+ * @property stratum Int 服务器的层数
+ * @property receivedAt Long 收到应答时的 System.nanoTime()，用于计算样本的老化
+ */
+data class NtpSample(
+  val server: String,
+  val offset: Long,
+  val delay: Long,
+  val rootDelay: Long,
+  val rootDispersion: Long,
+  val stratum: Int,
+  val receivedAt: Long
+) {
+
+  /**
+   * 根距离 λ = (δ + rootDelay) / 2 + rootDispersion，即本样本偏移量的最大误差（RFC 5905）
+   */
+  val distance: Long
+    get() = (max(delay, MIN_DISPERSION) + rootDelay) / 2 + rootDispersion
+
+  companion object {
+
+    /**
+     * 最小误差（RFC 5905 MINDISP，0.005秒），避免局域网内延迟接近0的样本被赋予过大的权重
+     */
+    const val MIN_DISPERSION = 5_000_000L
+
+    /**
+     * 由应答报文头与本机收到应答的时间构造样本，全程使用64位定点数计算，没有精度损失
+     *
+     * @param destination Long 本机收到应答的时间（T4），NTP时间戳格式
+     */
+    internal fun of(server: String, header: NtpHeader, destination: Long, receivedAt: Long): NtpSample {
+      val originate = header.originateTimestamp()
+      val receive = header.receiveTimestamp()
+      val transmit = header.transmitTimestamp()
+
+      val offset = ((receive - originate) + (transmit - destination)).shr(1)
+      val delay = (destination - originate) - (transmit - receive)
+
+      return NtpSample(
+        server,
+        NtpTimestamps.durationToNanos(offset),
+        max(NtpTimestamps.durationToNanos(delay), 0L),
+        header.rootDelay(),
+        header.rootDispersion(),
+        header.stratum(),
+        receivedAt
+      )
+    }
+  }
+}
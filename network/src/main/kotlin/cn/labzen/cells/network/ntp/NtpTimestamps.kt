@@ -0,0 +1,73 @@
+package cn.labzen.cells.network.ntp
+
+/**
+ * NTP定点时间格式与系统时间（自1970-01-01T00:00:00Z起的纳秒数）之间的转换，只做整数运算，没有浮点数的精度损失
+ *
+ * - 时间戳格式：64位，高32位为自1900年起的秒数，低32位为秒的小数部分，精度约233皮秒
+ * - 短格式：32位，高16位为秒数，低16位为秒的小数部分，用于根延迟与根误差
+ *
+ * 32位秒数在2036年2月7日溢出（NTP第1纪元），按 RFC 4330 的约定，最高位为0的秒数视为第1纪元
+ */
+object NtpTimestamps {
+
+  /**
+   * NTP时间起点（1900年）与系统时间起点（1970年）相差的秒数
+   */
+  const val EPOCH_OFFSET_SECONDS = 2208988800L
+
+  private const val NANOS_PER_SECOND = 1_000_000_000L
+  private const val NANOS_PER_MILLI = 1_000_000L
+  private const val LOW_32_BITS = 0xFFFFFFFFL
+  private const val ERA_PIVOT = 0x80000000L
+  private const val ERA_SECONDS = 0x100000000L
+  private const val MAX_SHORT_NANOS = 65536L * NANOS_PER_SECOND - 1
+
+  /**
+   * 系统时间纳秒数转换为NTP时间戳
+   */
+  @JvmStatic
+  fun fromNanos(epochNanos: Long): Long {
+    val seconds = Math.floorDiv(epochNanos, NANOS_PER_SECOND) + EPOCH_OFFSET_SECONDS
+    val fraction = Math.floorMod(epochNanos, NANOS_PER_SECOND).shl(32) / NANOS_PER_SECOND
+    return (seconds and LOW_32_BITS).shl(32) or fraction
+  }
+
+  /**
+   * 系统时间毫秒数转换为NTP时间戳
+   */
+  @JvmStatic
+  fun fromMillis(epochMillis: Long): Long =
+    fromNanos(epochMillis * NANOS_PER_MILLI)
+
+  /**
+   * NTP时间戳转换为系统时间纳秒数
+   */
+  @JvmStatic
+  fun toNanos(timestamp: Long): Long {
+    var seconds = timestamp.ushr(32)
+    if (seconds and ERA_PIVOT == 0L) seconds += ERA_SECONDS
+    val fraction = timestamp and LOW_32_BITS
+    return (seconds - EPOCH_OFFSET_SECONDS) * NANOS_PER_SECOND + (fraction * NANOS_PER_SECOND).ushr(32)
+  }
+
+  /**
+   * 两个NTP时间戳之差（有符号的64位定点数）转换为纳秒数
+   */
+  @JvmStatic
+  fun durationToNanos(duration: Long): Long =
+    duration.shr(32) * NANOS_PER_SECOND + ((duration and LOW_32_BITS) * NANOS_PER_SECOND).ushr(32)
+
+  /**
+   * NTP短格式转换为纳秒数
+   */
+  @JvmStatic
+  fun shortToNanos(value: Int): Long =
+    ((value.toLong() and LOW_32_BITS) * NANOS_PER_SECOND).ushr(16)
+
+  /**
+   * 纳秒数转换为NTP短格式，超出范围时取最大值
+   */
+  @JvmStatic
+  fun nanosToShort(nanos: Long): Int =
+    (nanos.coerceIn(0, MAX_SHORT_NANOS).shl(16) / NANOS_PER_SECOND).toInt()
+}
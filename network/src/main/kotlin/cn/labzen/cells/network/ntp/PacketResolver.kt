@@ -109,6 +109,6 @@ internal object PacketResolver {
     // low order bits of the timestamp with a random, unbiased
     // bit string, both to avoid systematic roundoff errors and as
     // a means of loop detection and replay detection.
-    data[7] = (Math.random() * 255.0).toInt().toByte()
+    data[pointer + 7] = (Math.random() * 255.0).toInt().toByte()
   }
 }
@@ -1,6 +1,6 @@
 package cn.labzen.cells.network.onvif
 
-import cn.labzen.cells.core.feature.SystemClock
+import cn.labzen.cells.core.feature.Clock
 import cn.labzen.cells.core.utils.Randoms
 import java.io.IOException
 import java.net.DatagramPacket
@@ -18,6 +18,7 @@ import kotlin.concurrent.thread
 class Discoverer(private val timeout: Int) {
 
   private var mode = DiscoveryMode.HIK_VISION
+  private var clock = Clock.CACHED
   private var startedListener: DiscoveryStartedListener? = null
   private var discoveredAllDevicesListener: DiscoveredAllDevicesListener? = null
   private var discoveredHostDevicesListener: DiscoveredHostDevicesListener? = null
@@ -32,6 +33,14 @@ class Discoverer(private val timeout: Int) {
     return this
   }
 
+  /**
+   * 设置计算发现超时的时间来源，默认 [Clock.CACHED]
+   */
+  fun clock(clock: Clock): Discoverer {
+    this.clock = clock
+    return this
+  }
+
   fun listen(startedListener: DiscoveryStartedListener): Discoverer {
     this.startedListener = startedListener
     return this
@@ -95,9 +104,9 @@ class Discoverer(private val timeout: Int) {
       val message = Packet(UUID.randomUUID().toString(), mode).toData()
       thread {
         try {
-          val timerStarted = SystemClock.now()
+          val timerStarted = clock.millis()
           send(client, address, message)
-          while (SystemClock.now() - timerStarted < timeout) {
+          while (clock.millis() - timerStarted < timeout) {
             val packet = DatagramPacket(ByteArray(8192), 8192)
             client.receive(packet)
             // todo 这里解析设备信息的部分，因为是在单独的线程中执行，所以存在还有未完的线程，但整个大的runner已结束，造成实际上返回的所有设备不全的现象
@@ -1,6 +1,6 @@
 package cn.labzen.cells.network.tcp
 
-import cn.labzen.cells.core.feature.SystemClock
+import cn.labzen.cells.core.feature.Clock
 import cn.labzen.cells.core.utils.Randoms
 import io.netty.buffer.ByteBuf
 import io.netty.buffer.Unpooled
@@ -16,7 +16,13 @@ object TcpCommandDispatcher {
   /**
    * todo 考虑对command.data使用binary序列化
    */
-  internal fun dispatch(ctx: ChannelHandlerContext, msg: Any, handler: TcpHandler, mode: TcpCommunicationMode) {
+  internal fun dispatch(
+    ctx: ChannelHandlerContext,
+    msg: Any,
+    handler: TcpHandler,
+    mode: TcpCommunicationMode,
+    clock: Clock
+  ) {
     val command: Command = TCP.jsonObject(msg as ByteBuf, Command::class.java)
 
     if (command.meta == null) {
@@ -47,7 +53,7 @@ object TcpCommandDispatcher {
           } else {
             logger.debug("Received tcp exchange command in channel [${channel.id().asShortText()}]")
 
-            val receivedTime = SystemClock.now()
+            val receivedTime = clock.millis()
             val address = TCP.addrString(channel)
             val exchangeReply = (handler as BothWayTcpHandler).handleExchange(address, command)
 
@@ -55,7 +61,7 @@ object TcpCommandDispatcher {
 
             exchangeReply.meta ?: run {
               exchangeReply.meta = CommandMeta(meta.event, Randoms.string(5)).also {
-                it.sendAt = SystemClock.now()
+                it.sendAt = clock.millis()
               }
             }
             sendResponse(ctx, exchangeReply)
@@ -2,6 +2,7 @@
 
 package cn.labzen.cells.network.tcp.client
 
+import cn.labzen.cells.core.feature.Clock
 import cn.labzen.cells.core.kotlin.throwRuntimeIf
 import cn.labzen.cells.network.exception.TcpClientException
 import cn.labzen.cells.network.tcp.SimpleTcpHandler
@@ -113,6 +114,14 @@ class TcpClientBuilder internal constructor(private val config: TcpClientConfig)
     return this
   }
 
+  /**
+   * 设置命令发送、接收时间的时间来源，默认 [Clock.CACHED]
+   */
+  fun clock(clock: Clock): TcpClientBuilder {
+    config.clock = clock
+    return this
+  }
+
   fun build() =
     config.let {
       it.check()
@@ -1,5 +1,6 @@
 package cn.labzen.cells.network.tcp.client
 
+import cn.labzen.cells.core.feature.Clock
 import cn.labzen.cells.core.kotlin.throwRuntimeUnless
 import cn.labzen.cells.network.exception.TcpClientException
 import cn.labzen.cells.network.tcp.TcpHandler
@@ -17,6 +18,7 @@ class TcpClientConfig(val host: String, val port: Int) {
   internal var connect2ServerListener: TcpConnect2ServerListener? = null
   internal var serverLeftListener: TcpServerLeftListener? = null
   internal var serverLostListener: TcpServerLostListener? = null
+  internal var clock: Clock = Clock.CACHED
 
   fun check() {
     this::handlerClass.isInitialized.throwRuntimeUnless { TcpClientException("未指定Client Handler类") }
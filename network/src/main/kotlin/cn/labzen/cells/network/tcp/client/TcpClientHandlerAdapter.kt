@@ -27,7 +27,7 @@ class TcpClientHandlerAdapter(
 
   override fun channelRead(ctx: ChannelHandlerContext, msg: Any) {
     pulseRetryTimes = 0
-    TcpCommandDispatcher.dispatch(ctx, msg, internalHandler, mode)
+    TcpCommandDispatcher.dispatch(ctx, msg, internalHandler, mode, config.clock)
   }
 
   override fun exceptionCaught(ctx: ChannelHandlerContext, cause: Throwable) {
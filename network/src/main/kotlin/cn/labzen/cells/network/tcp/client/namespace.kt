@@ -1,6 +1,5 @@
 package cn.labzen.cells.network.tcp.client
 
-import cn.labzen.cells.core.feature.SystemClock
 import cn.labzen.cells.core.utils.Randoms
 import cn.labzen.cells.network.exception.TcpClientException
 import cn.labzen.cells.network.tcp.*
@@ -83,7 +82,7 @@ open class SimpleTcpClient internal constructor(config: TcpClientConfig) :
 
   private fun ensureNotifyCommand(command: Command) {
     command.meta ?: run { command.meta = CommandMeta(UNDEFINED_EVENT, Randoms.string(5)) }
-    command.meta!!.sendAt = SystemClock.now()
+    command.meta!!.sendAt = config.clock.millis()
   }
 
   override fun exchange(command: Command): Command? {
@@ -144,7 +143,7 @@ class BothWayTcpClient(config: TcpClientConfig) : SimpleTcpClient(config) {
     command.meta ?: run { command.meta = CommandMeta(UNDEFINED_EVENT, Randoms.string(5)) }
     with(command.meta!!) {
       feedback(1000)
-      sendAt = SystemClock.now()
+      sendAt = config.clock.millis()
     }
   }
 }
@@ -2,6 +2,7 @@
 
 package cn.labzen.cells.network.tcp.server
 
+import cn.labzen.cells.core.feature.Clock
 import cn.labzen.cells.network.tcp.TcpHandler
 
 class TcpServerBuilder internal constructor(private val config: TcpServerConfig) {
@@ -64,5 +65,13 @@ class TcpServerBuilder internal constructor(private val config: TcpServerConfig)
     return this
   }
 
+  /**
+   * 设置命令发送、接收时间的时间来源，默认 [Clock.CACHED]
+   */
+  fun clock(clock: Clock): TcpServerBuilder {
+    config.clock = clock
+    return this
+  }
+
   fun build() = DefaultTcpServer(config.apply { check() })
 }
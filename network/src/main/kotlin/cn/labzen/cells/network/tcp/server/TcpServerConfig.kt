@@ -1,5 +1,6 @@
 package cn.labzen.cells.network.tcp.server
 
+import cn.labzen.cells.core.feature.Clock
 import cn.labzen.cells.core.kotlin.throwRuntimeUnless
 import cn.labzen.cells.network.exception.TcpServerException
 import cn.labzen.cells.network.tcp.TcpHandler
@@ -12,6 +13,7 @@ class TcpServerConfig(val port: Int) {
   internal var clientComingListener: TcpClientComingListener? = null
   internal var clientLeftListener: TcpClientLeftListener? = null
   internal var clientLostListener: TcpClientLostListener? = null
+  internal var clock: Clock = Clock.CACHED
 
   fun check() {
     this::handlerClass.isInitialized.throwRuntimeUnless { TcpServerException("未指定Http Server Handler类") }
@@ -36,7 +36,7 @@ class TcpServerHandlerAdapter(
   }
 
   override fun channelRead(ctx: ChannelHandlerContext, msg: Any) {
-    TcpCommandDispatcher.dispatch(ctx, msg, internalHandler, TcpCommunicationMode.BOTH_WAY)
+    TcpCommandDispatcher.dispatch(ctx, msg, internalHandler, TcpCommunicationMode.BOTH_WAY, config.clock)
   }
 
   override fun exceptionCaught(ctx: ChannelHandlerContext, cause: Throwable) {
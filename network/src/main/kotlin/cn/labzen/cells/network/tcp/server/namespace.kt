@@ -1,6 +1,5 @@
 package cn.labzen.cells.network.tcp.server
 
-import cn.labzen.cells.core.feature.SystemClock
 import cn.labzen.cells.core.utils.Randoms
 import cn.labzen.cells.network.tcp.*
 import io.netty.bootstrap.ServerBootstrap
@@ -71,14 +70,14 @@ class DefaultTcpServer internal constructor(config: TcpServerConfig) : AbstractS
 
   private fun ensureNotifyCommand(command: Command) {
     command.meta ?: run { command.meta = CommandMeta(UNDEFINED_EVENT, Randoms.string(5)) }
-    command.meta!!.sendAt = SystemClock.now()
+    command.meta!!.sendAt = config.clock.millis()
   }
 
   private fun ensureExchangeCommand(command: Command) {
     command.meta ?: run { command.meta = CommandMeta(UNDEFINED_EVENT, Randoms.string(5)) }
     with(command.meta!!) {
       feedback(1000)
-      sendAt = SystemClock.now()
+      sendAt = config.clock.millis()
     }
   }
 
@@ -0,0 +1,66 @@
+package cn.labzen.cells.network.ntp;
+
+import cn.labzen.cells.network.exception.NtpException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+class NtpAsyncClientTest {
+
+  private static final long MILLI = 1_000_000L;
+
+  @Test
+  void testRequestAll() throws Exception {
+    List<NtpStandInServer> servers = new ArrayList<>();
+    List<InetSocketAddress> addresses = new ArrayList<>();
+    for (int i = 1; i <= 5; i++) {
+      NtpStandInServer server = new NtpStandInServer(i * 100L);
+      servers.add(server);
+      addresses.add(new InetSocketAddress("127.0.0.1", server.port()));
+    }
+
+    try (NtpAsyncClient client = new NtpAsyncClient(1000)) {
+      List<CompletableFuture<NtpSample>> futures = client.requestAll(addresses);
+      for (int i = 0; i < futures.size(); i++) {
+        NtpSample sample = futures.get(i).get(1, TimeUnit.SECONDS);
+        Assertions.assertEquals("127.0.0.1:" + addresses.get(i).getPort(), sample.getServer());
+        Assertions.assertEquals((i + 1) * 100 * MILLI, sample.getOffset(), 20 * MILLI);
+      }
+    } finally {
+      servers.forEach(NtpStandInServer::close);
+    }
+  }
+
+  @Test
+  void testTimeout() throws IOException {
+    int port;
+    try (DatagramSocket unused = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+      port = unused.getLocalPort();
+    }
+
+    try (NtpAsyncClient client = new NtpAsyncClient(200)) {
+      CompletableFuture<NtpSample> future = client.request("127.0.0.1", port);
+      ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> future.get(2, TimeUnit.SECONDS));
+      Assertions.assertTrue(e.getCause() instanceof NtpException);
+    }
+  }
+
+  @Test
+  void testClosed() throws IOException {
+    try (NtpStandInServer server = new NtpStandInServer(0)) {
+      NtpAsyncClient client = new NtpAsyncClient();
+      client.close();
+      CompletableFuture<NtpSample> future = client.request("127.0.0.1", server.port());
+      Assertions.assertThrows(ExecutionException.class, () -> future.get(2, TimeUnit.SECONDS));
+    }
+  }
+}
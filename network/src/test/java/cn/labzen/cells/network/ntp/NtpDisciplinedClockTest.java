@@ -0,0 +1,94 @@
+package cn.labzen.cells.network.ntp;
+
+import cn.labzen.cells.core.feature.Clock;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.concurrent.TimeUnit;
+
+class NtpDisciplinedClockTest {
+
+  private static final long MILLI = 1_000_000L;
+  private static final long TOLERANCE = 20 * MILLI;
+
+  @Test
+  void testSample() throws IOException {
+    try (NtpStandInServer server = new NtpStandInServer(500)) {
+      NtpSample sample = NtpClient.sample("127.0.0.1", server.port(), 1000);
+      Assertions.assertEquals(500 * MILLI, sample.getOffset(), TOLERANCE);
+      Assertions.assertTrue(sample.getDelay() >= 0);
+      Assertions.assertEquals(2, sample.getStratum());
+    }
+  }
+
+  @Test
+  void testSelectExcludesFalseticker() throws IOException {
+    try (NtpStandInServer a = new NtpStandInServer(300);
+         NtpStandInServer b = new NtpStandInServer(300);
+         NtpStandInServer falseticker = new NtpStandInServer(5000);
+         NtpDisciplinedClock clock = NtpDisciplinedClock.builder()
+                                                        .server("127.0.0.1", a.port())
+                                                        .server("127.0.0.1", b.port())
+                                                        .server("127.0.0.1", falseticker.port())
+                                                        .timeout(1000)
+                                                        .base(Clock.SYSTEM)
+                                                        .build()) {
+      Assertions.assertFalse(clock.isSynchronized());
+      Assertions.assertTrue(clock.poll());
+      Assertions.assertTrue(clock.isSynchronized());
+      Assertions.assertEquals(2, clock.survivors());
+      Assertions.assertEquals(300 * MILLI, clock.offset(), TOLERANCE);
+      Assertions.assertEquals(300, clock.millis() - System.currentTimeMillis(), 20);
+    }
+  }
+
+  @Test
+  void testSlewAndStep() throws IOException {
+    try (NtpStandInServer server = new NtpStandInServer(300);
+         NtpDisciplinedClock clock = NtpDisciplinedClock.builder()
+                                                        .server("127.0.0.1", server.port())
+                                                        .filterSize(1)
+                                                        .timeout(1000)
+                                                        .base(Clock.SYSTEM)
+                                                        .build()) {
+      Assertions.assertTrue(clock.poll());
+      long synced = clock.offset();
+
+      // 50毫秒小于跳变阈值，以500ppm平滑调整，立即读取时偏移量几乎不变，且时间不回退
+      server.offset(350);
+      Assertions.assertTrue(clock.poll());
+      Assertions.assertEquals(synced, clock.offset(), 5 * MILLI);
+      long last = clock.nanos();
+      for (int i = 0; i < 100_000; i++) {
+        long now = clock.nanos();
+        Assertions.assertTrue(now >= last);
+        last = now;
+      }
+
+      // 超过跳变阈值，直接跳变
+      server.offset(1300);
+      Assertions.assertTrue(clock.poll());
+      Assertions.assertEquals(1300 * MILLI, clock.offset(), TOLERANCE);
+    }
+  }
+
+  @Test
+  void testNoResponse() throws IOException {
+    int port;
+    try (DatagramSocket unused = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+      port = unused.getLocalPort();
+    }
+    try (NtpDisciplinedClock clock = NtpDisciplinedClock.builder()
+                                                        .server("127.0.0.1", port)
+                                                        .timeout(200)
+                                                        .pollInterval(1, TimeUnit.HOURS)
+                                                        .build()) {
+      Assertions.assertFalse(clock.poll());
+      Assertions.assertFalse(clock.isSynchronized());
+      Assertions.assertEquals(0, clock.offset());
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package cn.labzen.cells.network.ntp;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+class NtpHeaderTest {
+
+  @Test
+  void testTimestamps() {
+    long nanos = 1_700_000_000_123_456_789L;
+    long timestamp = NtpTimestamps.fromNanos(nanos);
+    Assertions.assertEquals(nanos, NtpTimestamps.toNanos(timestamp), 1);
+    Assertions.assertEquals(1_700_000_000L + NtpTimestamps.EPOCH_OFFSET_SECONDS, timestamp >>> 32);
+
+    // 2036年后进入NTP第1纪元，秒数回绕
+    long nextEra = 2_100_000_000_000_000_000L;
+    Assertions.assertEquals(nextEra, NtpTimestamps.toNanos(NtpTimestamps.fromNanos(nextEra)), 1);
+
+    long earlier = NtpTimestamps.fromNanos(nanos - 1_500_000L);
+    Assertions.assertEquals(-1_500_000L, NtpTimestamps.durationToNanos(earlier - timestamp), 1);
+    Assertions.assertEquals(1_500_000L, NtpTimestamps.durationToNanos(timestamp - earlier), 1);
+
+    Assertions.assertEquals(250_000_000L, NtpTimestamps.shortToNanos(NtpTimestamps.nanosToShort(250_000_000L)), 20_000);
+  }
+
+  @Test
+  void testRoundTrip() {
+    ByteBuffer buffer = ByteBuffer.allocate(NtpHeader.SIZE + 8);
+    NtpHeader header = new NtpHeader().wrap(buffer, 8);
+    long transmit = NtpTimestamps.fromMillis(System.currentTimeMillis());
+    header.clear()
+          .flags(0, 4, 4)
+          .stratum(2)
+          .poll(6)
+          .precision(-20)
+          .rootDelay(31_250_000L)
+          .rootDispersion(15_625_000L)
+          .referenceId(0x7F000001)
+          .originateTimestamp(transmit - 1000)
+          .receiveTimestamp(transmit - 500)
+          .transmitTimestamp(transmit);
+    Assertions.assertEquals(0, buffer.position());
+
+    // 与报文的字节布局一致
+    Assertions.assertEquals(0x24, buffer.get(8));
+    Assertions.assertEquals(0x0800, buffer.getInt(8 + 4) >>> 16);
+    Assertions.assertEquals(transmit, buffer.getLong(8 + 40));
+
+    Assertions.assertEquals(0, header.leapIndicator());
+    Assertions.assertEquals(4, header.version());
+    Assertions.assertEquals(4, header.mode());
+    Assertions.assertEquals(2, header.stratum());
+    Assertions.assertEquals(6, header.poll());
+    Assertions.assertEquals(-20, header.precision());
+    Assertions.assertEquals(31_250_000L, header.rootDelay());
+    Assertions.assertEquals(15_625_000L, header.rootDispersion());
+    Assertions.assertEquals(0x7F000001, header.referenceId());
+    Assertions.assertEquals(transmit - 1000, header.originateTimestamp());
+    Assertions.assertEquals(transmit - 500, header.receiveTimestamp());
+    Assertions.assertEquals(transmit, header.transmitTimestamp());
+  }
+}
@@ -0,0 +1,70 @@
+package cn.labzen.cells.network.ntp;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+
+/**
+ * 本地的NTP服务器替身，以本机时间加上给出的偏移量应答
+ */
+class NtpStandInServer implements AutoCloseable {
+
+  private static final long NTP_EPOCH_OFFSET = 2208988800L;
+
+  private final DatagramSocket socket;
+  private volatile long offset;
+
+  NtpStandInServer(long offset) throws SocketException {
+    this.offset = offset;
+    this.socket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+    Thread thread = new Thread(this::serve, "NTP Stand-in");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  int port() {
+    return socket.getLocalPort();
+  }
+
+  void offset(long offset) {
+    this.offset = offset;
+  }
+
+  private void serve() {
+    byte[] data = new byte[48];
+    while (!socket.isClosed()) {
+      try {
+        DatagramPacket request = new DatagramPacket(data, data.length);
+        socket.receive(request);
+        long now = System.currentTimeMillis() + offset;
+
+        ByteBuffer response = ByteBuffer.allocate(48);
+        // LI = 0, VN = 4, Mode = 4（服务器）
+        response.put(0, (byte) 0x24);
+        response.put(1, (byte) 2);
+        // 原始时间戳为请求的传送时间戳
+        response.position(24);
+        response.put(data, 40, 8);
+        putTimestamp(response, 32, now);
+        putTimestamp(response, 40, now);
+
+        socket.send(new DatagramPacket(response.array(), 48, request.getSocketAddress()));
+      } catch (IOException e) {
+        // 关闭后退出
+      }
+    }
+  }
+
+  private static void putTimestamp(ByteBuffer buffer, int index, long millis) {
+    buffer.putInt(index, (int) (millis / 1000 + NTP_EPOCH_OFFSET));
+    buffer.putInt(index + 4, (int) ((millis % 1000) * (1L << 32) / 1000));
+  }
+
+  @Override
+  public void close() {
+    socket.close();
+  }
+}